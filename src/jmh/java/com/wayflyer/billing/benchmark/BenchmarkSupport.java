@@ -0,0 +1,37 @@
+package com.wayflyer.billing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.client.WayflyerClientMetrics;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.persistence.BillingPersistence;
+import com.wayflyer.billing.persistence.PersistenceProperties;
+import com.wayflyer.billing.service.AdvanceArchive;
+import com.wayflyer.billing.service.BillingLanes;
+import com.wayflyer.billing.service.BillingMetrics;
+import com.wayflyer.billing.service.BillingService;
+import com.wayflyer.billing.service.DailyReportWriter;
+import com.wayflyer.billing.service.DelayedRevenueProperties;
+import com.wayflyer.billing.service.PipelineProperties;
+import com.wayflyer.billing.service.RevenueCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+final class BenchmarkSupport {
+    static BillingService createBillingService(WayflyerClient wayflyerClient,
+                                               RevenueCache revenueCache,
+                                               AdvanceArchive advanceArchive,
+                                               DelayedRevenueProperties delayedRevenueProperties,
+                                               Money maxDailyCharge
+    ) {
+        var meterRegistry = new SimpleMeterRegistry();
+        var billingMetrics = new BillingMetrics(meterRegistry, new WayflyerClientMetrics(meterRegistry));
+        var billingService = new BillingService(wayflyerClient, revenueCache, advanceArchive, delayedRevenueProperties, billingMetrics, new DailyReportWriter(new ObjectMapper()), new BillingLanes(1, Runnable::run), new BillingPersistence(new PersistenceProperties()), new PipelineProperties());
+        billingService.setMaxDailyCharge(maxDailyCharge);
+        billingService.setStreamAdvances(true);
+        billingService.setChargeLedgerEnabled(false);
+        return billingService;
+    }
+
+    private BenchmarkSupport() {
+    }
+}
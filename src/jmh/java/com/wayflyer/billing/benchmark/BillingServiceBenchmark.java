@@ -0,0 +1,88 @@
+package com.wayflyer.billing.benchmark;
+
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.service.AdvanceArchive;
+import com.wayflyer.billing.service.BillingService;
+import com.wayflyer.billing.service.DelayedRevenueProperties;
+import com.wayflyer.billing.service.RevenueCache;
+import com.wayflyer.billing.service.RevenueCacheProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BillingServiceBenchmark {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+
+    @Param({"10000", "100000", "1000000"})
+    private int advanceCount;
+
+    @Param({"0.0", "0.1", "0.5"})
+    private double delayedRevenueFraction;
+
+    @Param({"0.0", "0.05"})
+    private double splitChargeFraction;
+
+    private InMemoryWayflyerClient wayflyerClient;
+
+    private Path archiveDirectory;
+
+    private AdvanceArchive advanceArchive;
+
+    private BillingService billingService;
+
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setupClient() throws IOException {
+        wayflyerClient = new InMemoryWayflyerClient(advanceCount, START_DATE, delayedRevenueFraction, splitChargeFraction);
+        archiveDirectory = Files.createTempDirectory("billing-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void setupService() {
+        advanceArchive = new AdvanceArchive(archiveDirectory.resolve("completed-advances.bin"));
+        billingService = BenchmarkSupport.createBillingService(
+                wayflyerClient,
+                new RevenueCache(wayflyerClient, new RevenueCacheProperties()),
+                advanceArchive,
+                new DelayedRevenueProperties(),
+                Money.parse("10000"));
+
+        today = START_DATE.plusDays(30);
+        billingService.process(today.minusDays(1));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownService() {
+        advanceArchive.close();
+    }
+
+    @Benchmark
+    public BillingService processDay() {
+        billingService.process(today);
+        today = today.plusDays(1);
+        return billingService;
+    }
+}
@@ -0,0 +1,120 @@
+package com.wayflyer.billing.benchmark;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.RepaymentRate;
+import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+
+    private static final int CHARGE_DAYS = 180;
+
+    private static final int PENDING_CHARGE_COUNT = 10_000;
+
+    private RepaymentRate repaymentRate;
+
+    private Money revenueAmount;
+
+    private Advance chargedAdvance;
+
+    private LocalDate lookupDate;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        repaymentRate = RepaymentRate.ofPercentage(new BigDecimal("11.5"));
+        revenueAmount = Money.parse("12345.67");
+
+        chargedAdvance = createAdvance(1);
+        for (int day = 0; day < CHARGE_DAYS; day++) {
+            LocalDate date = START_DATE.plusDays(day);
+            chargedAdvance.applyCharge(new Charge(chargedAdvance, date.minusDays(1), date, Money.parse("100.00")));
+        }
+        lookupDate = START_DATE.plusDays(CHARGE_DAYS / 2);
+    }
+
+    @Benchmark
+    public Money calculateCharge() {
+        return repaymentRate.apply(revenueAmount);
+    }
+
+    @Benchmark
+    public Money getAmountChargedOnDate() {
+        return chargedAdvance.getAmountChargedOnDate(lookupDate);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PENDING_CHARGE_COUNT)
+    public void matchRevenues(PendingCharges pendingCharges, Blackhole blackhole) {
+        OutstandingChargeStore outstandingCharges = pendingCharges.outstandingCharges;
+        for (Revenue revenue : pendingCharges.revenues) {
+            outstandingCharges.matchRevenue(revenue, charge -> charge.getAdvance().getRepaymentRate().apply(revenue.getAmount()));
+        }
+        blackhole.consume(outstandingCharges.drainReadyCharges());
+    }
+
+    @State(Scope.Thread)
+    public static class PendingCharges {
+        private final List<Advance> advances = new ArrayList<>(PENDING_CHARGE_COUNT);
+
+        private final List<Revenue> revenues = new ArrayList<>(PENDING_CHARGE_COUNT);
+
+        private OutstandingChargeStore outstandingCharges;
+
+        @Setup(Level.Trial)
+        public void setupTrial() {
+            for (int id = 1; id <= PENDING_CHARGE_COUNT; id++) {
+                advances.add(createAdvance(id));
+                revenues.add(new Revenue(id, START_DATE, Money.parse("12345.67")));
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void setupOutstandingCharges() {
+            outstandingCharges = new OutstandingChargeStore();
+            for (Advance advance : advances) {
+                outstandingCharges.add(new Charge(advance, START_DATE, null, null));
+            }
+        }
+    }
+
+    private static Advance createAdvance(int id) {
+        return Advance.builder()
+                .id(id)
+                .customerId(id)
+                .mandateId(id)
+                .created(START_DATE)
+                .totalAdvanced(Money.parse("60000.00"))
+                .fee(Money.parse("2000.00"))
+                .repaymentStartDate(START_DATE)
+                .repaymentPercentage(new BigDecimal("11"))
+                .build();
+    }
+}
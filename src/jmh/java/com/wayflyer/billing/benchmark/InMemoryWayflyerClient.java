@@ -0,0 +1,135 @@
+package com.wayflyer.billing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+
+public class InMemoryWayflyerClient extends WayflyerClient {
+    private static final Money SPLIT_REVENUE = Money.parse("500000.00");
+
+    private final List<Advance> advanceBook;
+
+    private final double delayedRevenueFraction;
+
+    private final double splitChargeFraction;
+
+    private long chargeCount;
+
+    public InMemoryWayflyerClient(int advanceCount, LocalDate startDate, double delayedRevenueFraction, double splitChargeFraction) {
+        super("http", "localhost", null, new ObjectMapper(), Runnable::run);
+        this.delayedRevenueFraction = delayedRevenueFraction;
+        this.splitChargeFraction = splitChargeFraction;
+
+        advanceBook = new ArrayList<>(advanceCount);
+        for (int id = 1; id <= advanceCount; id++) {
+            advanceBook.add(Advance.builder()
+                    .id(id)
+                    .customerId(id)
+                    .mandateId(id)
+                    .created(startDate)
+                    .totalAdvanced(Money.ofCents(1_000_000L + mix(id, 0) % 19_000_000L))
+                    .fee(Money.ofCents(100_000L + mix(id, 1) % 1_900_000L))
+                    .repaymentStartDate(startDate.plusDays(mix(id, 2) % 30))
+                    .repaymentPercentage(BigDecimal.valueOf(1 + mix(id, 3) % 20))
+                    .build());
+        }
+    }
+
+    @Override
+    public Advances getAdvances(LocalDate todayDate) {
+        return new Advances(copyAdvances(id -> false));
+    }
+
+    @Override
+    public Advances getNewAdvances(LocalDate todayDate, IntPredicate isKnownAdvance) {
+        return new Advances(copyAdvances(isKnownAdvance));
+    }
+
+    private List<Advance> copyAdvances(IntPredicate isKnownAdvance) {
+        var advances = new ArrayList<Advance>();
+        for (Advance advance : advanceBook) {
+            if (!isKnownAdvance.test(advance.getId())) {
+                advances.add(copyAdvance(advance));
+            }
+        }
+        return advances;
+    }
+
+    private static Advance copyAdvance(Advance advance) {
+        return Advance.builder()
+                .id(advance.getId())
+                .customerId(advance.getCustomerId())
+                .mandateId(advance.getMandateId())
+                .created(advance.getCreated())
+                .totalAdvanced(advance.getTotalAdvanced())
+                .fee(advance.getFee())
+                .repaymentStartDate(advance.getRepaymentStartDate())
+                .repaymentPercentage(advance.getRepaymentPercentage())
+                .build();
+    }
+
+    @Override
+    public Revenue getRevenue(LocalDate todayDate, int customerId, LocalDate forDate) {
+        long seed = forDate.toEpochDay();
+        if (fraction(customerId, seed) < delayedRevenueFraction) {
+            long delayDays = 1 + mix(customerId, seed + 1) % 3;
+            if (todayDate.isBefore(forDate.plusDays(1 + delayDays))) {
+                return new Revenue(customerId, forDate, null);
+            }
+        }
+
+        Money amount = fraction(customerId, seed + 2) < splitChargeFraction
+                ? SPLIT_REVENUE
+                : Money.ofCents(100_000L + mix(customerId, seed + 3) % 1_900_000L);
+        return new Revenue(customerId, forDate, amount);
+    }
+
+    @Override
+    public CompletableFuture<Revenue> getRevenueAsync(LocalDate todayDate, int customerId, LocalDate forDate) {
+        return CompletableFuture.completedFuture(getRevenue(todayDate, customerId, forDate));
+    }
+
+    @Override
+    public boolean charge(LocalDate todayDate, Charge charge) {
+        charge.setDateCharged(todayDate);
+        chargeCount++;
+        return true;
+    }
+
+    @Override
+    public boolean reportBillingComplete(LocalDate todayDate, int advanceId) {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reportBillingCompleteAsync(LocalDate todayDate, int advanceId) {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    public long getChargeCount() {
+        return chargeCount;
+    }
+
+    private static double fraction(long value, long seed) {
+        return (mix(value, seed) & 0xFFFF) / 65536.0;
+    }
+
+    private static long mix(long value, long seed) {
+        long hash = value * 0x9E3779B97F4A7C15L + seed * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash & Long.MAX_VALUE;
+    }
+}
@@ -1,14 +1,26 @@
 package com.wayflyer.billing;
 
+import com.wayflyer.billing.scenario.ScenarioEngine;
+import com.wayflyer.billing.scenario.ScenarioProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ApplicationContext;
 
 @SpringBootApplication
 public class BillingApplication {
     public static void main(String[] args) {
         var context = SpringApplication.run(BillingApplication.class, args);
-        var billingSimulator = context.getBean(BillingSimulator.class);
-        billingSimulator.simulate();
+        createJob(context).run();
         context.stop();
     }
+
+    static Runnable createJob(ApplicationContext context) {
+        if (context.getBean(ScenarioProperties.class).isEnabled()) {
+            var scenarioEngine = context.getBean(ScenarioEngine.class);
+            return scenarioEngine::run;
+        }
+
+        var billingSimulator = context.getBean(BillingSimulator.class);
+        return billingSimulator::simulate;
+    }
 }
@@ -0,0 +1,42 @@
+package com.wayflyer.billing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+
+import java.lang.management.ManagementFactory;
+
+@Slf4j
+public class BillingBatchApplication {
+    private static final int STARTUP_STEP_CAPACITY = 10_000;
+
+    private static final int STARTUP_REPORT_STEPS = 15;
+
+    public static void main(String[] args) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        var startup = new BufferingApplicationStartup(STARTUP_STEP_CAPACITY);
+
+        try (var context = createApplication(startup).run(args)) {
+            Runnable job = BillingApplication.createJob(context);
+            log.info("Ready to bill after {} ms of JVM uptime. {}", ManagementFactory.getRuntimeMXBean().getUptime(),
+                    StartupReport.summarize(startup.getBufferedTimeline(), STARTUP_REPORT_STEPS));
+
+            if (context.getEnvironment().getProperty("batch.trainingRun", Boolean.class, false)) {
+                log.info("Training run, exiting before billing.");
+                return;
+            }
+
+            job.run();
+        }
+    }
+
+    static SpringApplication createApplication(BufferingApplicationStartup startup) {
+        return new SpringApplicationBuilder(BillingApplication.class)
+                .web(WebApplicationType.NONE)
+                .lazyInitialization(true)
+                .applicationStartup(startup)
+                .build();
+    }
+}
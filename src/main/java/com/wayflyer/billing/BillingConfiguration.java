@@ -1,13 +1,91 @@
 package com.wayflyer.billing;
 
+import com.wayflyer.billing.client.WayflyerClientMetrics;
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import com.wayflyer.billing.client.limit.AdaptiveConcurrencyLimiter;
+import com.wayflyer.billing.client.limit.AdaptiveLimitProperties;
+import com.wayflyer.billing.client.recording.ApiRecordingWriter;
+import com.wayflyer.billing.client.recording.RecordingInterceptor;
+import com.wayflyer.billing.client.recording.RecordingMode;
+import com.wayflyer.billing.client.recording.RecordingProperties;
+import com.wayflyer.billing.client.recording.ReplayTransport;
+import com.wayflyer.billing.client.resilience.CircuitBreakerInterceptor;
+import com.wayflyer.billing.client.resilience.CircuitBreakerProperties;
+import com.wayflyer.billing.client.resilience.HedgingProperties;
+import com.wayflyer.billing.client.resilience.RequestHedger;
+import com.wayflyer.billing.client.transport.Http2Transport;
+import com.wayflyer.billing.client.transport.PooledHttp1Transport;
+import com.wayflyer.billing.client.transport.TransportProperties;
+import com.wayflyer.billing.client.transport.TransportType;
+import com.wayflyer.billing.client.transport.WayflyerTransport;
+import com.wayflyer.billing.persistence.PersistenceProperties;
+import com.wayflyer.billing.scenario.ScenarioProperties;
+import com.wayflyer.billing.service.DelayedRevenueProperties;
+import com.wayflyer.billing.service.PipelineProperties;
+import com.wayflyer.billing.service.RevenueCacheProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
+@EnableConfigurationProperties({TransportProperties.class, AdaptiveLimitProperties.class, CircuitBreakerProperties.class, HedgingProperties.class, RecordingProperties.class, DelayedRevenueProperties.class, RevenueCacheProperties.class, PersistenceProperties.class, PipelineProperties.class, ScenarioProperties.class})
 public class BillingConfiguration {
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public WayflyerTransport wayflyerTransport(TransportProperties transportProperties, RecordingProperties recordingProperties) throws IOException {
+        if (recordingProperties.getMode() == RecordingMode.REPLAY) {
+            return ReplayTransport.open(recordingProperties.getPath());
+        }
+
+        if (transportProperties.getType() == TransportType.HTTP2) {
+            return new Http2Transport(transportProperties);
+        }
+
+        return new PooledHttp1Transport(transportProperties);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(WayflyerTransport wayflyerTransport, CircuitBreakerInterceptor circuitBreakerInterceptor,
+                                     AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter, WayflyerClientMetrics wayflyerClientMetrics,
+                                     ObjectProvider<RecordingInterceptor> recordingInterceptor) {
+        var restTemplate = new RestTemplate(wayflyerTransport.getRequestFactory());
+        restTemplate.getInterceptors().add(circuitBreakerInterceptor);
+        restTemplate.getInterceptors().add(adaptiveConcurrencyLimiter);
+        restTemplate.getInterceptors().add(wayflyerClientMetrics);
+        recordingInterceptor.ifAvailable(restTemplate.getInterceptors()::add);
+        return restTemplate;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "client.wayflyer.recording", name = "mode", havingValue = "record")
+    public RecordingInterceptor recordingInterceptor(RecordingProperties recordingProperties) throws IOException {
+        return new RecordingInterceptor(ApiRecordingWriter.create(recordingProperties.getPath()));
+    }
+
+    @Bean
+    public RequestHedger revenueRequestHedger(HedgingProperties hedgingProperties) {
+        return new RequestHedger(WayflyerEndpoint.REVENUES, hedgingProperties);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService billingLaneExecutor(@Value("${config.lanes}") int laneCount) {
+        var threadFactory = new CustomizableThreadFactory("billing-lane-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(Math.max(1, laneCount), threadFactory);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService wayflyerClientExecutor(@Value("${client.wayflyer.maxInFlightRequests}") int maxInFlightRequests) {
+        var threadFactory = new CustomizableThreadFactory("wayflyer-client-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(maxInFlightRequests, threadFactory);
     }
 }
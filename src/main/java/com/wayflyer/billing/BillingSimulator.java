@@ -15,24 +15,43 @@ public class BillingSimulator {
 
     private final LocalDate endDate;
 
+    private final LocalDate catchUpUntil;
+
     private final BillingService billingService;
 
+    public BillingSimulator(BillingService billingService, LocalDate startDate, LocalDate endDate) {
+        this(billingService, startDate, endDate, null);
+    }
+
     @Autowired
     public BillingSimulator(BillingService billingService,
                             @Value("#{T(java.time.LocalDate).parse('${simulator.startDate}')}") LocalDate startDate,
-                            @Value("#{T(java.time.LocalDate).parse('${simulator.endDate}')}") LocalDate endDate
+                            @Value("#{T(java.time.LocalDate).parse('${simulator.endDate}')}") LocalDate endDate,
+                            @Value("#{'${simulator.catchUpUntil:}'.isEmpty() ? null : T(java.time.LocalDate).parse('${simulator.catchUpUntil:}')}") LocalDate catchUpUntil
     ) {
         this.billingService = billingService;
         this.startDate = startDate;
         this.endDate = endDate;
+        this.catchUpUntil = catchUpUntil;
     }
 
     public void simulate() {
-        log.info("Simulating billing from {} to {}.", startDate, endDate);
+        LocalDate lastProcessedDate = billingService.restore();
+        LocalDate resumeDate = lastProcessedDate == null || lastProcessedDate.isBefore(startDate) ? startDate : lastProcessedDate.plusDays(1);
+        log.info("Simulating billing from {} to {}.", resumeDate, endDate);
+
+        LocalDate catchUpTo = catchUpUntil == null || catchUpUntil.isBefore(endDate) ? catchUpUntil : endDate.minusDays(1);
+        if (catchUpTo != null && catchUpTo.isAfter(resumeDate)) {
+            log.info("Starting catch-up for {} to {}.", resumeDate, catchUpTo);
+            billingService.catchUp(resumeDate, catchUpTo);
+            log.info("Finished catch-up for {} to {}\n", resumeDate, catchUpTo);
+            resumeDate = catchUpTo.plusDays(1);
+        }
 
-        for (LocalDate today = startDate; today.isBefore(endDate); today = today.plusDays(1)) {
+        for (LocalDate today = resumeDate; today.isBefore(endDate); today = today.plusDays(1)) {
             log.info("Starting simulation for {}.", today);
-            billingService.process(today);
+            LocalDate nextDay = today.plusDays(1);
+            billingService.process(today, nextDay.isBefore(endDate) ? nextDay : null);
             log.info("Finished simulation for {}\n", today);
         }
 
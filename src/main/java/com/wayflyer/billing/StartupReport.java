@@ -0,0 +1,30 @@
+package com.wayflyer.billing;
+
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+final class StartupReport {
+    private StartupReport() {
+    }
+
+    static String summarize(StartupTimeline timeline, int limit) {
+        var report = new StringJoiner("\n", "Slowest startup steps:\n", "");
+        timeline.getEvents()
+                .stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(limit)
+                .forEach(event -> report.add(String.format(Locale.ROOT, "%8d ms  %s%s",
+                        event.getDuration().toMillis(), event.getStartupStep().getName(), formatTags(event.getStartupStep()))));
+        return report.toString();
+    }
+
+    private static String formatTags(StartupStep step) {
+        var tags = new StringJoiner(", ", " [", "]").setEmptyValue("");
+        step.getTags().forEach(tag -> tags.add(tag.getKey() + "=" + tag.getValue()));
+        return tags.toString();
+    }
+}
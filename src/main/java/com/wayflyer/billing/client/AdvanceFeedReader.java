@@ -0,0 +1,100 @@
+package com.wayflyer.billing.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+public class AdvanceFeedReader {
+    private static final String ADVANCES_FIELD = "advances";
+
+    private static final String ID_FIELD = "id";
+
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private int skippedCount;
+
+    public AdvanceFeedReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Advances read(InputStream body, IntPredicate isKnownAdvance) throws IOException {
+        List<Advance> newAdvances = new ArrayList<>();
+        skippedCount = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected the advances feed to be a JSON object.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (ADVANCES_FIELD.equals(fieldName) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Advance advance = readAdvance(parser, isKnownAdvance);
+                        if (advance != null) {
+                            newAdvances.add(advance);
+                        } else {
+                            skippedCount++;
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return new Advances(newAdvances);
+    }
+
+    private Advance readAdvance(JsonParser parser, IntPredicate isKnownAdvance) throws IOException {
+        TokenBuffer buffer = null;
+        boolean idSeen = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+
+            if (!idSeen && ID_FIELD.equals(fieldName)) {
+                idSeen = true;
+                if (isKnownAdvance.test(parser.getIntValue())) {
+                    skipRemainingFields(parser);
+                    return null;
+                }
+            }
+
+            if (buffer == null) {
+                buffer = new TokenBuffer(parser);
+                buffer.writeStartObject();
+            }
+            buffer.writeFieldName(fieldName);
+            buffer.copyCurrentStructure(parser);
+        }
+
+        if (buffer == null) {
+            return null;
+        }
+
+        buffer.writeEndObject();
+        try (JsonParser advanceParser = buffer.asParser(objectMapper)) {
+            return objectMapper.readValue(advanceParser, Advance.class);
+        }
+    }
+
+    private static void skipRemainingFields(JsonParser parser) throws IOException {
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+            parser.skipChildren();
+        }
+    }
+}
@@ -1,45 +1,76 @@
 package com.wayflyer.billing.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.resilience.CircuitOpenException;
+import com.wayflyer.billing.client.resilience.RequestHedger;
 import com.wayflyer.billing.model.Advances;
 import com.wayflyer.billing.model.Charge;
 import com.wayflyer.billing.model.Revenue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.ws.rs.core.MediaType;
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntPredicate;
 
 @Component
 @Slf4j
 public class WayflyerClient {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    private final String scheme;
+
     private final String baseUrl;
 
     private final RestTemplate client;
 
     private final ObjectMapper objectMapper;
 
+    private final Executor executor;
+
+    private final RequestHedger revenueHedger;
+
+    private volatile String advancesETag;
+
+    private volatile long advancesLastModified = -1;
+
+    public WayflyerClient(String scheme, String baseUrl, RestTemplate restTemplate, ObjectMapper objectMapper, Executor executor) {
+        this(scheme, baseUrl, restTemplate, objectMapper, executor, RequestHedger.disabled(WayflyerEndpoint.REVENUES));
+    }
+
     @Autowired
-    public WayflyerClient(@Value("${client.wayflyer.baseUrl}") String baseUrl,
+    public WayflyerClient(@Value("${client.wayflyer.scheme}") String scheme,
+                          @Value("${client.wayflyer.baseUrl}") String baseUrl,
                           RestTemplate restTemplate,
-                          ObjectMapper objectMapper
+                          ObjectMapper objectMapper,
+                          @Qualifier("wayflyerClientExecutor") Executor executor,
+                          @Qualifier("revenueRequestHedger") RequestHedger revenueHedger
     ) {
+        this.scheme = scheme;
         this.baseUrl = baseUrl;
         this.client = restTemplate;
         this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.revenueHedger = revenueHedger;
     }
 
     public Advances getAdvances(LocalDate todayDate) {
@@ -47,9 +78,7 @@ public class WayflyerClient {
         httpHeaders.add("Today", FORMATTER.format(todayDate));
         var httpEntity = new HttpEntity<>(httpHeaders);
 
-        String url = UriComponentsBuilder.newInstance()
-                .scheme("https")
-                .host(baseUrl)
+        String url = baseUri()
                 .pathSegment("v2", "advances")
                 .toUriString();
 
@@ -68,14 +97,62 @@ public class WayflyerClient {
         }
     }
 
+    public CompletableFuture<Advances> getAdvancesAsync(LocalDate todayDate) {
+        return CompletableFuture.supplyAsync(() -> getAdvances(todayDate), executor);
+    }
+
+    public Advances getNewAdvances(LocalDate todayDate, IntPredicate isKnownAdvance) {
+        URI uri = baseUri()
+                .pathSegment("v2", "advances")
+                .build()
+                .toUri();
+
+        RequestCallback requestCallback = request -> {
+            HttpHeaders httpHeaders = request.getHeaders();
+            httpHeaders.add("Today", FORMATTER.format(todayDate));
+            if (advancesETag != null) {
+                httpHeaders.setIfNoneMatch(advancesETag);
+            }
+            if (advancesLastModified >= 0) {
+                httpHeaders.setIfModifiedSince(advancesLastModified);
+            }
+        };
+
+        ResponseExtractor<Advances> responseExtractor = response -> {
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                log.info("Advances have not been modified since the last retrieval.");
+                return new Advances(List.of());
+            } else if (!response.getStatusCode().is2xxSuccessful()) {
+                log.error("Invalid response received while streaming advances: {}", response.getRawStatusCode());
+                return null;
+            }
+
+            var feedReader = new AdvanceFeedReader(objectMapper);
+            Advances newAdvances = feedReader.read(response.getBody(), isKnownAdvance);
+            advancesETag = response.getHeaders().getETag();
+            advancesLastModified = response.getHeaders().getLastModified();
+            log.info("Streamed {} new advances and skipped {} known advances.", newAdvances.getAdvances().size(), feedReader.getSkippedCount());
+            return newAdvances;
+        };
+
+        try {
+            return client.execute(uri, HttpMethod.GET, requestCallback, responseExtractor);
+        } catch (Exception ex) {
+            log.error("Unexpected exception while streaming advances.", ex);
+            return null;
+        }
+    }
+
+    public CompletableFuture<Advances> getNewAdvancesAsync(LocalDate todayDate, IntPredicate isKnownAdvance) {
+        return CompletableFuture.supplyAsync(() -> getNewAdvances(todayDate, isKnownAdvance), executor);
+    }
+
     public Revenue getRevenue(LocalDate todayDate, int customerId, LocalDate forDate) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add("Today", FORMATTER.format(todayDate));
         var httpEntity = new HttpEntity<>(httpHeaders);
 
-        String url = UriComponentsBuilder.newInstance()
-                .scheme("https")
-                .host(baseUrl)
+        String url = baseUri()
                 .pathSegment("v2", "customers", String.valueOf(customerId), "revenues", FORMATTER.format(forDate))
                 .toUriString();
 
@@ -91,7 +168,9 @@ public class WayflyerClient {
                 throw new HttpServerErrorException(response.getStatusCode());
             }
         } catch (RestClientResponseException ex) {
-            log.warn("Revenue not available on {} for customer {} at {}.", todayDate, customerId, forDate);
+            log.debug("Revenue not available on {} for customer {} at {}.", todayDate, customerId, forDate);
+        } catch (CircuitOpenException ex) {
+            log.debug("Revenue lookups are failing fast, treating revenue on {} for customer {} at {} as delayed.", todayDate, customerId, forDate);
         } catch (Exception ex) {
             log.error("Unexpected exception while loading revenue.", ex);
         }
@@ -102,15 +181,17 @@ public class WayflyerClient {
                 .build();
     }
 
+    public CompletableFuture<Revenue> getRevenueAsync(LocalDate todayDate, int customerId, LocalDate forDate) {
+        return revenueHedger.supplyAsync(() -> getRevenue(todayDate, customerId, forDate), executor);
+    }
+
     public boolean charge(LocalDate todayDate, Charge charge) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add("Today", FORMATTER.format(todayDate));
         httpHeaders.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
         var httpEntity = new HttpEntity<>(charge, httpHeaders);
 
-        String url = UriComponentsBuilder.newInstance()
-                .scheme("https")
-                .host(baseUrl)
+        String url = baseUri()
                 .pathSegment("v2", "mandates", String.valueOf(charge.getAdvance().getMandateId()), "charge")
                 .toUriString();
 
@@ -118,13 +199,15 @@ public class WayflyerClient {
             ResponseEntity<String> response = client.exchange(url, HttpMethod.POST, httpEntity, String.class);
             if (response.getStatusCode().is2xxSuccessful()) {
                 charge.setDateCharged(todayDate);
-                log.info("Charged {}.", charge);
+                log.debug("Charged {}.", charge);
                 return true;
             } else if (response.getStatusCode().is5xxServerError()) {
                 throw new HttpServerErrorException(response.getStatusCode());
             }
         } catch (RestClientResponseException ex) {
-            log.warn("Could not charge for advance {} the amount of {}", charge.getAdvance().getId(), charge.getAmount());
+            log.debug("Could not charge for advance {} the amount of {}", charge.getAdvance().getId(), charge.getAmount());
+        } catch (CircuitOpenException ex) {
+            log.debug("Charges are failing fast, deferring the charge for advance {} of {}.", charge.getAdvance().getId(), charge.getAmount());
         } catch (Exception ex) {
             log.error("Unexpected exception while charging.", ex);
         }
@@ -132,15 +215,17 @@ public class WayflyerClient {
         return false;
     }
 
+    public CompletableFuture<Boolean> chargeAsync(LocalDate todayDate, Charge charge) {
+        return CompletableFuture.supplyAsync(() -> charge(todayDate, charge), executor);
+    }
+
     public boolean reportBillingComplete(LocalDate todayDate, int advanceId) {
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add("Today", FORMATTER.format(todayDate));
         httpHeaders.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
         var httpEntity = new HttpEntity<>(null, httpHeaders);
 
-        String url = UriComponentsBuilder.newInstance()
-                .scheme("https")
-                .host(baseUrl)
+        String url = baseUri()
                 .pathSegment("v2", "advances", String.valueOf(advanceId), "billing_complete")
                 .toUriString();
 
@@ -148,7 +233,7 @@ public class WayflyerClient {
             ResponseEntity<String> response = client.exchange(url, HttpMethod.POST, httpEntity, String.class);
 
             if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("Billing has been completed for advance {}.", advanceId);
+                log.debug("Billing has been completed for advance {}.", advanceId);
                 return true;
             } else {
                 log.error("Invalid response received while reporting billing complete: {}", response.getStatusCodeValue());
@@ -159,4 +244,12 @@ public class WayflyerClient {
             return false;
         }
     }
+
+    public CompletableFuture<Boolean> reportBillingCompleteAsync(LocalDate todayDate, int advanceId) {
+        return CompletableFuture.supplyAsync(() -> reportBillingComplete(todayDate, advanceId), executor);
+    }
+
+    private UriComponentsBuilder baseUri() {
+        return UriComponentsBuilder.fromUriString(scheme + "://" + baseUrl);
+    }
 }
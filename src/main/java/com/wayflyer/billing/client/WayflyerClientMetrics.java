@@ -0,0 +1,145 @@
+package com.wayflyer.billing.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class WayflyerClientMetrics implements ClientHttpRequestInterceptor {
+    private static final int NOT_AVAILABLE_STATUS = 530;
+
+    private static final int LATENCY_SIGNIFICANT_DIGITS = 3;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<WayflyerEndpoint, AtomicInteger> inFlightRequests = new EnumMap<>(WayflyerEndpoint.class);
+
+    private final Map<WayflyerEndpoint, Counter> notAvailableCounters = new EnumMap<>(WayflyerEndpoint.class);
+
+    private final Map<WayflyerEndpoint, Recorder> latencyRecorders = new EnumMap<>(WayflyerEndpoint.class);
+
+    private final Map<WayflyerEndpoint, Histogram> dayLatencies = new EnumMap<>(WayflyerEndpoint.class);
+
+    private final Map<WayflyerEndpoint, Long> dayStartNotAvailableCounts = new EnumMap<>(WayflyerEndpoint.class);
+
+    public WayflyerClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            var inFlight = new AtomicInteger();
+            inFlightRequests.put(endpoint, inFlight);
+            Gauge.builder("wayflyer.client.requests.in.flight", inFlight, AtomicInteger::get)
+                    .tag("endpoint", tag(endpoint))
+                    .register(meterRegistry);
+            notAvailableCounters.put(endpoint, Counter.builder("wayflyer.client.not.available")
+                    .description("Responses with status 530")
+                    .tag("endpoint", tag(endpoint))
+                    .register(meterRegistry));
+            latencyRecorders.put(endpoint, new Recorder(LATENCY_SIGNIFICANT_DIGITS));
+            dayLatencies.put(endpoint, new Histogram(LATENCY_SIGNIFICANT_DIGITS));
+            dayStartNotAvailableCounts.put(endpoint, 0L);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        WayflyerEndpoint endpoint = WayflyerEndpoint.fromUri(request.getURI());
+        if (endpoint == null) {
+            return execution.execute(request, body);
+        }
+
+        AtomicInteger inFlight = inFlightRequests.get(endpoint);
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getRawStatusCode();
+            outcome = outcome(status);
+            if (status == NOT_AVAILABLE_STATUS) {
+                notAvailableCounters.get(endpoint).increment();
+            } else if (status >= 400) {
+                errorCounter(endpoint, outcome).increment();
+            }
+            return response;
+        } catch (IOException | RuntimeException ex) {
+            errorCounter(endpoint, outcome).increment();
+            throw ex;
+        } finally {
+            inFlight.decrementAndGet();
+            long duration = System.nanoTime() - start;
+            requestTimer(endpoint, outcome).record(duration, TimeUnit.NANOSECONDS);
+            latencyRecorders.get(endpoint).recordValue(duration);
+        }
+    }
+
+    public synchronized void startDay() {
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            latencyRecorders.get(endpoint).reset();
+            dayLatencies.get(endpoint).reset();
+            dayStartNotAvailableCounts.put(endpoint, (long) notAvailableCounters.get(endpoint).count());
+        }
+    }
+
+    public synchronized String summarize() {
+        var summary = new StringJoiner(", ");
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            Histogram latencies = dayLatencies.get(endpoint);
+            latencies.add(latencyRecorders.get(endpoint).getIntervalHistogram());
+            long notAvailable = (long) notAvailableCounters.get(endpoint).count() - dayStartNotAvailableCounts.get(endpoint);
+            double p99Millis = latencies.getValueAtPercentile(99.0) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            summary.add(String.format(Locale.ROOT, "%s=%d (p99 %.1fms, %d x 530)", tag(endpoint), latencies.getTotalCount(), p99Millis, notAvailable));
+        }
+        return summary.toString();
+    }
+
+    private Timer requestTimer(WayflyerEndpoint endpoint, String outcome) {
+        return Timer.builder("wayflyer.client.requests")
+                .description("Requests to the Wayflyer API")
+                .tag("endpoint", tag(endpoint))
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter errorCounter(WayflyerEndpoint endpoint, String outcome) {
+        return Counter.builder("wayflyer.client.errors")
+                .tag("endpoint", tag(endpoint))
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String outcome(int status) {
+        if (status == NOT_AVAILABLE_STATUS) {
+            return "NOT_AVAILABLE";
+        } else if (status >= 500) {
+            return "SERVER_ERROR";
+        } else if (status >= 400) {
+            return "CLIENT_ERROR";
+        } else if (status >= 300) {
+            return "REDIRECTION";
+        }
+        return "SUCCESS";
+    }
+
+    private static String tag(WayflyerEndpoint endpoint) {
+        return endpoint.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
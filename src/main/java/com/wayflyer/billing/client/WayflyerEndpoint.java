@@ -0,0 +1,34 @@
+package com.wayflyer.billing.client;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+public enum WayflyerEndpoint {
+    ADVANCES,
+    REVENUES,
+    CHARGES,
+    BILLING_COMPLETE;
+
+    public static WayflyerEndpoint fromUri(URI uri) {
+        List<String> segments = UriComponentsBuilder.fromUri(uri).build().getPathSegments();
+        int apiIndex = segments.indexOf("v2");
+        if (apiIndex < 0) {
+            return null;
+        }
+
+        List<String> path = segments.subList(apiIndex + 1, segments.size());
+        if (path.size() == 1 && path.get(0).equals("advances")) {
+            return ADVANCES;
+        } else if (path.size() == 4 && path.get(0).equals("customers") && path.get(2).equals("revenues")) {
+            return REVENUES;
+        } else if (path.size() == 3 && path.get(0).equals("mandates") && path.get(2).equals("charge")) {
+            return CHARGES;
+        } else if (path.size() == 3 && path.get(0).equals("advances") && path.get(2).equals("billing_complete")) {
+            return BILLING_COMPLETE;
+        }
+
+        return null;
+    }
+}
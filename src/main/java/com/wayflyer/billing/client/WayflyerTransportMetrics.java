@@ -0,0 +1,34 @@
+package com.wayflyer.billing.client;
+
+import com.wayflyer.billing.client.transport.PoolStatistics;
+import com.wayflyer.billing.client.transport.WayflyerTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToIntFunction;
+
+@Component
+public class WayflyerTransportMetrics {
+    public WayflyerTransportMetrics(MeterRegistry meterRegistry, WayflyerTransport wayflyerTransport) {
+        PoolStatistics initialStatistics = wayflyerTransport.getPoolStatistics();
+
+        register(meterRegistry, wayflyerTransport, "total", "Open connections", PoolStatistics::getTotal);
+        register(meterRegistry, wayflyerTransport, "leased", "Connections serving a request", PoolStatistics::getLeased);
+        register(meterRegistry, wayflyerTransport, "idle", "Open connections waiting for a request", PoolStatistics::getIdle);
+        if (initialStatistics.getPending() != null) {
+            register(meterRegistry, wayflyerTransport, "pending", "Requests waiting for a connection", PoolStatistics::getPending);
+        }
+        if (initialStatistics.getMax() != null) {
+            register(meterRegistry, wayflyerTransport, "max", "Maximum open connections", PoolStatistics::getMax);
+        }
+    }
+
+    private static void register(MeterRegistry meterRegistry, WayflyerTransport wayflyerTransport, String name, String description,
+                                 ToIntFunction<PoolStatistics> statistic) {
+        Gauge.builder("wayflyer.client.pool." + name, wayflyerTransport, transport -> statistic.applyAsInt(transport.getPoolStatistics()))
+                .description(description)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,77 @@
+package com.wayflyer.billing.client.limit;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class AdaptiveConcurrencyLimiter implements ClientHttpRequestInterceptor {
+    private static final int NOT_AVAILABLE_STATUS = 530;
+
+    private final boolean enabled;
+
+    private final Map<WayflyerEndpoint, AimdLimiter> limiters = new EnumMap<>(WayflyerEndpoint.class);
+
+    public AdaptiveConcurrencyLimiter(AdaptiveLimitProperties properties, MeterRegistry meterRegistry) {
+        enabled = properties.isEnabled();
+
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            var limiter = new AimdLimiter(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(endpoint),
+                    properties.getBackoffRatio(), properties.getLatencyTolerance());
+            limiters.put(endpoint, limiter);
+
+            String tag = endpoint.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            Gauge.builder("wayflyer.client.concurrency.limit", limiter, AimdLimiter::getLimit)
+                    .description("Adaptive in-flight request limit")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("wayflyer.client.concurrency.limit.decreases", limiter, AimdLimiter::getDecreaseCount)
+                    .description("Times the in-flight request limit was cut back")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        WayflyerEndpoint endpoint = enabled ? WayflyerEndpoint.fromUri(request.getURI()) : null;
+        if (endpoint == null) {
+            return execution.execute(request, body);
+        }
+
+        AimdLimiter limiter = limiters.get(endpoint);
+        try {
+            limiter.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a " + endpoint + " request permit");
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getRawStatusCode();
+            dropped = status >= 500 && status != NOT_AVAILABLE_STATUS;
+            return response;
+        } finally {
+            limiter.release(dropped, System.nanoTime() - start);
+        }
+    }
+
+    public AimdLimiter getLimiter(WayflyerEndpoint endpoint) {
+        return limiters.get(endpoint);
+    }
+}
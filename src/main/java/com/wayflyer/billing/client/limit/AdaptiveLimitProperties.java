@@ -0,0 +1,30 @@
+package com.wayflyer.billing.client.limit;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "client.wayflyer.adaptive-limit")
+public class AdaptiveLimitProperties {
+    private boolean enabled = true;
+
+    private int initialLimit = 8;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 64;
+
+    private double backoffRatio = 0.7;
+
+    private double latencyTolerance = 2.0;
+
+    private Map<WayflyerEndpoint, Integer> maxLimits = new EnumMap<>(WayflyerEndpoint.class);
+
+    public int getMaxLimit(WayflyerEndpoint endpoint) {
+        return maxLimits.getOrDefault(endpoint, maxLimit);
+    }
+}
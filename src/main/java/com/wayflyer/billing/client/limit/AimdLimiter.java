@@ -0,0 +1,127 @@
+package com.wayflyer.billing.client.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+public class AimdLimiter {
+    private static final double BASELINE_SMOOTHING = 0.05;
+
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double latencyTolerance;
+
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+
+    private int inFlight;
+
+    private double baselineLatencyNanos = Double.NaN;
+
+    private long lastDecreaseNanos;
+
+    private long decreaseCount;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, System::nanoTime);
+    }
+
+    AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance, LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.nanoClock = nanoClock;
+        limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        lastDecreaseNanos = nanoClock.getAsLong() - MIN_DECREASE_INTERVAL_NANOS;
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(boolean dropped, long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= (int) limit;
+            inFlight--;
+
+            if (dropped) {
+                decrease();
+            } else if (!Double.isNaN(baselineLatencyNanos) && latencyNanos > baselineLatencyNanos * latencyTolerance) {
+                decrease();
+                baselineLatencyNanos += BASELINE_SMOOTHING * (latencyNanos - baselineLatencyNanos);
+            } else {
+                baselineLatencyNanos = Double.isNaN(baselineLatencyNanos)
+                        ? latencyNanos
+                        : baselineLatencyNanos + BASELINE_SMOOTHING * (latencyNanos - baselineLatencyNanos);
+                if (saturated) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        long now = nanoClock.getAsLong();
+        long interval = Double.isNaN(baselineLatencyNanos) ? MIN_DECREASE_INTERVAL_NANOS : Math.max(MIN_DECREASE_INTERVAL_NANOS, (long) baselineLatencyNanos);
+        if (now - lastDecreaseNanos < interval) {
+            return;
+        }
+
+        limit = Math.max(minLimit, limit * backoffRatio);
+        lastDecreaseNanos = now;
+        decreaseCount++;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDecreaseCount() {
+        lock.lock();
+        try {
+            return decreaseCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.wayflyer.billing.client.recording;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class ApiRecording implements Closeable {
+    static final int MAGIC = 0x57465250;
+
+    static final short VERSION = 2;
+
+    static final int INDEX_OFFSET_POSITION = Integer.BYTES + Short.BYTES;
+
+    static final int HEADER_SIZE = INDEX_OFFSET_POSITION + Long.BYTES;
+
+    static final int FAILURE_STATUS = 0;
+
+    private final MappedByteBuffer buffer;
+
+    private final Map<String, Entry> index;
+
+    private final AtomicLong servedCount = new AtomicLong();
+
+    private final AtomicLong missedCount = new AtomicLong();
+
+    private ApiRecording(MappedByteBuffer buffer, Map<String, Entry> index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    public static ApiRecording open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Recording " + path + " is too large to map");
+            }
+
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(Integer.BYTES) != VERSION) {
+                throw new IOException(path + " is not a Wayflyer API recording");
+            }
+
+            long start = System.nanoTime();
+            long indexOffset = buffer.getLong(INDEX_OFFSET_POSITION);
+            Map<String, Entry> index = indexOffset > 0 ? readIndex(buffer, (int) indexOffset) : scanRecords(buffer);
+            log.info("Loaded {} recorded Wayflyer API requests from {} in {} ms.", index.size(), path, (System.nanoTime() - start) / 1_000_000);
+            return new ApiRecording(buffer, index);
+        }
+    }
+
+    public static String key(HttpRequest request) {
+        URI uri = request.getURI();
+        String today = request.getHeaders().getFirst("Today");
+        return request.getMethodValue() + ' ' + uri.getRawPath()
+                + (uri.getRawQuery() == null ? "" : '?' + uri.getRawQuery())
+                + ' ' + (today == null ? "" : today);
+    }
+
+    RecordedResponse next(String key, byte[] requestBody) throws IOException {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            missedCount.incrementAndGet();
+            return null;
+        }
+
+        int call = entry.cursor.getAndIncrement();
+        int offset = entry.offsets[Math.min(call, entry.offsets.length - 1)];
+        var record = buffer.duplicate().position(offset + Integer.BYTES);
+        record.get();
+        skipString(record);
+        var recordedRequestBody = new byte[record.getInt()];
+        record.get(recordedRequestBody);
+        if (!Arrays.equals(recordedRequestBody, requestBody)) {
+            log.debug("Request body for {} differs from the recording, treating it as unrecorded.", key);
+            missedCount.incrementAndGet();
+            return null;
+        }
+
+        int status = Short.toUnsignedInt(record.getShort());
+        int headerCount = Short.toUnsignedInt(record.getShort());
+        var headers = new HttpHeaders();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(readString(record), readString(record));
+        }
+        var body = new byte[record.getInt()];
+        record.get(body);
+
+        if (status == FAILURE_STATUS) {
+            throw new IOException("Recorded failure: " + new String(body, StandardCharsets.UTF_8));
+        }
+        servedCount.incrementAndGet();
+        return new RecordedResponse(status, headers, body);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long getServedCount() {
+        return servedCount.get();
+    }
+
+    public long getMissedCount() {
+        return missedCount.get();
+    }
+
+    @Override
+    public void close() {
+        log.info("Replayed {} Wayflyer API responses, {} requests had no recording.", servedCount.get(), missedCount.get());
+    }
+
+    private static Map<String, Entry> readIndex(ByteBuffer buffer, int indexOffset) {
+        var input = buffer.duplicate().position(indexOffset + Integer.BYTES);
+        int keyCount = input.getInt();
+        Map<String, Entry> index = new HashMap<>(keyCount * 2);
+        for (int i = 0; i < keyCount; i++) {
+            String key = readString(input);
+            var offsets = new int[input.getInt()];
+            for (int j = 0; j < offsets.length; j++) {
+                offsets[j] = (int) input.getLong();
+            }
+            index.put(key, new Entry(offsets));
+        }
+        return index;
+    }
+
+    private static Map<String, Entry> scanRecords(ByteBuffer buffer) {
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        var input = buffer.duplicate().position(HEADER_SIZE);
+        try {
+            while (input.remaining() >= Integer.BYTES) {
+                int offset = input.position();
+                int length = input.getInt();
+                if (length <= 0 || length > input.remaining()) {
+                    break;
+                }
+                var record = input.slice().limit(length);
+                record.get();
+                offsets.computeIfAbsent(readString(record), k -> new ArrayList<>(1)).add(offset);
+                input.position(offset + Integer.BYTES + length);
+            }
+        } catch (BufferUnderflowException ex) {
+            log.warn("Recording ends with a truncated record, ignoring it.");
+        }
+
+        log.warn("Recording has no index, rebuilt it from {} requests.", offsets.size());
+        Map<String, Entry> index = new HashMap<>(offsets.size() * 2);
+        offsets.forEach((key, keyOffsets) -> index.put(key, new Entry(keyOffsets.stream().mapToInt(Integer::intValue).toArray())));
+        return index;
+    }
+
+    private static String readString(ByteBuffer input) {
+        var bytes = new byte[Short.toUnsignedInt(input.getShort())];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer input) {
+        int length = Short.toUnsignedInt(input.getShort());
+        input.position(input.position() + length);
+    }
+
+    private static final class Entry {
+        private final int[] offsets;
+
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private Entry(int[] offsets) {
+            this.offsets = offsets;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.wayflyer.billing.client.recording;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.wayflyer.billing.client.recording.ApiRecording.FAILURE_STATUS;
+import static com.wayflyer.billing.client.recording.ApiRecording.HEADER_SIZE;
+import static com.wayflyer.billing.client.recording.ApiRecording.INDEX_OFFSET_POSITION;
+import static com.wayflyer.billing.client.recording.ApiRecording.MAGIC;
+import static com.wayflyer.billing.client.recording.ApiRecording.VERSION;
+
+@Slf4j
+public class ApiRecordingWriter implements Closeable {
+    private static final Set<String> SKIPPED_HEADERS = Set.of("date", "connection", "keep-alive", "transfer-encoding");
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final Map<String, List<Long>> index = new HashMap<>();
+
+    private long position = HEADER_SIZE;
+
+    private int recordCount;
+
+    private ApiRecordingWriter(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static ApiRecordingWriter create(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putLong(0);
+        channel.write(header.flip(), 0);
+        log.info("Recording Wayflyer API traffic to {}.", path);
+        return new ApiRecordingWriter(path, channel);
+    }
+
+    public void record(WayflyerEndpoint endpoint, String key, byte[] requestBody, int status, HttpHeaders headers, byte[] body) {
+        try {
+            var bytes = new ByteArrayOutputStream(64 + requestBody.length + body.length);
+            var output = new DataOutputStream(bytes);
+            output.writeByte(endpoint == null ? -1 : endpoint.ordinal());
+            writeString(output, key);
+            output.writeInt(requestBody.length);
+            output.write(requestBody);
+            output.writeShort(status);
+            output.writeShort((int) headers.keySet().stream().filter(name -> !isSkipped(name)).count());
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (isSkipped(header.getKey())) {
+                    continue;
+                }
+                writeString(output, header.getKey());
+                writeString(output, String.join(",", header.getValue()));
+            }
+            output.writeInt(body.length);
+            output.write(body);
+            append(key, bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not record the response to " + key, ex);
+        }
+    }
+
+    public void recordFailure(WayflyerEndpoint endpoint, String key, byte[] requestBody, IOException failure) {
+        String message = String.valueOf(failure.getMessage());
+        record(endpoint, key, requestBody, FAILURE_STATUS, new HttpHeaders(), message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized void append(String key, byte[] record) throws IOException {
+        var buffer = ByteBuffer.allocate(Integer.BYTES + record.length).putInt(record.length).put(record).flip();
+        long recordStart = position;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(recordStart);
+        recordCount++;
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        long indexOffset = position;
+        var bytes = new ByteArrayOutputStream();
+        var output = new DataOutputStream(bytes);
+        output.writeInt(0);
+        output.writeInt(index.size());
+        for (Map.Entry<String, List<Long>> entry : index.entrySet()) {
+            writeString(output, entry.getKey());
+            output.writeInt(entry.getValue().size());
+            for (long offset : entry.getValue()) {
+                output.writeLong(offset);
+            }
+        }
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.write(ByteBuffer.allocate(Long.BYTES).putLong(indexOffset).flip(), INDEX_OFFSET_POSITION);
+        channel.force(true);
+        channel.close();
+        log.info("Recorded {} Wayflyer API exchanges for {} distinct requests to {}.", recordCount, index.size(), path);
+    }
+
+    private static boolean isSkipped(String headerName) {
+        return SKIPPED_HEADERS.contains(headerName.toLowerCase(Locale.ROOT));
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String of " + bytes.length + " bytes is too long to record");
+        }
+        output.writeShort(bytes.length);
+        output.write(bytes);
+    }
+}
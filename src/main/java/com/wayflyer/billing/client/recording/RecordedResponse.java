@@ -0,0 +1,56 @@
+package com.wayflyer.billing.client.recording;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+class RecordedResponse implements ClientHttpResponse {
+    private final int status;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    RecordedResponse(int status, HttpHeaders headers, byte[] body) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(status);
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return status;
+    }
+
+    @Override
+    public String getStatusText() {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        return httpStatus == null ? "" : httpStatus.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    byte[] getBodyBytes() {
+        return body;
+    }
+}
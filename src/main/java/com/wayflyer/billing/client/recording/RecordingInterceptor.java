@@ -0,0 +1,38 @@
+package com.wayflyer.billing.client.recording;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public class RecordingInterceptor implements ClientHttpRequestInterceptor, Closeable {
+    private final ApiRecordingWriter writer;
+
+    public RecordingInterceptor(ApiRecordingWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        WayflyerEndpoint endpoint = WayflyerEndpoint.fromUri(request.getURI());
+        String key = ApiRecording.key(request);
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            var recorded = new RecordedResponse(response.getRawStatusCode(), response.getHeaders(), StreamUtils.copyToByteArray(response.getBody()));
+            writer.record(endpoint, key, body, recorded.getRawStatusCode(), recorded.getHeaders(), recorded.getBodyBytes());
+            return recorded;
+        } catch (IOException ex) {
+            writer.recordFailure(endpoint, key, body, ex);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,7 @@
+package com.wayflyer.billing.client.recording;
+
+public enum RecordingMode {
+    NONE,
+    RECORD,
+    REPLAY
+}
@@ -0,0 +1,14 @@
+package com.wayflyer.billing.client.recording;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "client.wayflyer.recording")
+public class RecordingProperties {
+    private RecordingMode mode = RecordingMode.NONE;
+
+    private Path path = Path.of(System.getProperty("java.io.tmpdir"), "wayflyer-billing", "api-recording.bin");
+}
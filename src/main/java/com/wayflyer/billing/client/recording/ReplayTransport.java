@@ -0,0 +1,83 @@
+package com.wayflyer.billing.client.recording;
+
+import com.wayflyer.billing.client.transport.PoolStatistics;
+import com.wayflyer.billing.client.transport.WayflyerTransport;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+
+public class ReplayTransport implements WayflyerTransport {
+    private final ApiRecording recording;
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    public ReplayTransport(ApiRecording recording) {
+        this.recording = recording;
+        this.requestFactory = (uri, httpMethod) -> new ReplayRequest(uri, httpMethod);
+    }
+
+    public static ReplayTransport open(Path path) throws IOException {
+        return new ReplayTransport(ApiRecording.open(path));
+    }
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        return PoolStatistics.builder().build();
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+
+    private class ReplayRequest extends AbstractClientHttpRequest {
+        private final URI uri;
+
+        private final HttpMethod method;
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private ReplayRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            String key = ApiRecording.key(this);
+            ClientHttpResponse response = recording.next(key, body.toByteArray());
+            if (response == null) {
+                throw new IOException("No recorded response for " + key);
+            }
+            return response;
+        }
+    }
+}
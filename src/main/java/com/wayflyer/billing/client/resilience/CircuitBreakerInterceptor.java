@@ -0,0 +1,84 @@
+package com.wayflyer.billing.client.resilience;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class CircuitBreakerInterceptor implements ClientHttpRequestInterceptor {
+    private static final int NOT_AVAILABLE_STATUS = 530;
+
+    private final boolean enabled;
+
+    private final Map<WayflyerEndpoint, CircuitBreaker> circuitBreakers = new EnumMap<>(WayflyerEndpoint.class);
+
+    public CircuitBreakerInterceptor(CircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        enabled = properties.isEnabled();
+
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            var circuitBreaker = new CircuitBreaker(properties.getFailureRateThreshold(), properties.getWindowSize(), properties.getMinimumCalls(),
+                    properties.getOpenDuration().toNanos(), properties.getHalfOpenCalls());
+            circuitBreakers.put(endpoint, circuitBreaker);
+
+            String tag = endpoint.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            Gauge.builder("wayflyer.client.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 half-open, 2 open")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            FunctionCounter.builder("wayflyer.client.circuit.rejected", circuitBreaker, CircuitBreaker::getRejectedCount)
+                    .description("Requests failed fast while the circuit was open")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        WayflyerEndpoint endpoint = enabled ? WayflyerEndpoint.fromUri(request.getURI()) : null;
+        if (endpoint == null) {
+            return execution.execute(request, body);
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CircuitOpenException(endpoint);
+        }
+
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            int status = response.getRawStatusCode();
+            failed = status >= 500 && status != NOT_AVAILABLE_STATUS;
+            return response;
+        } finally {
+            CircuitBreaker.State previousState = circuitBreaker.getState();
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+
+            CircuitBreaker.State state = circuitBreaker.getState();
+            if (state != previousState) {
+                log.warn("Circuit for {} requests is now {}.", endpoint, state);
+            }
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker(WayflyerEndpoint endpoint) {
+        return circuitBreakers.get(endpoint);
+    }
+}
@@ -0,0 +1,22 @@
+package com.wayflyer.billing.client.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "client.wayflyer.circuit-breaker")
+public class CircuitBreakerProperties {
+    private boolean enabled = true;
+
+    private double failureRateThreshold = 0.5;
+
+    private int windowSize = 100;
+
+    private int minimumCalls = 20;
+
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    private int halfOpenCalls = 5;
+}
@@ -0,0 +1,17 @@
+package com.wayflyer.billing.client.resilience;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.Getter;
+import org.springframework.web.client.RestClientException;
+
+@Getter
+public class CircuitOpenException extends RestClientException {
+    private static final long serialVersionUID = 1L;
+
+    private final WayflyerEndpoint endpoint;
+
+    public CircuitOpenException(WayflyerEndpoint endpoint) {
+        super("Circuit for " + endpoint + " requests is open");
+        this.endpoint = endpoint;
+    }
+}
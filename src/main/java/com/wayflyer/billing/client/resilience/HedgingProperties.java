@@ -0,0 +1,22 @@
+package com.wayflyer.billing.client.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "client.wayflyer.hedging")
+public class HedgingProperties {
+    private boolean enabled = false;
+
+    private double percentile = 0.95;
+
+    private Duration minDelay = Duration.ofMillis(10);
+
+    private Duration maxDelay = Duration.ofSeconds(1);
+
+    private int windowSize = 1000;
+
+    private int minSamples = 50;
+}
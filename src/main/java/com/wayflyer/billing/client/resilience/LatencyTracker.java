@@ -0,0 +1,53 @@
+package com.wayflyer.billing.client.resilience;
+
+import java.util.Arrays;
+
+class LatencyTracker {
+    private final long[] samples;
+
+    private final int minSamples;
+
+    private final int refreshInterval;
+
+    private int nextSample;
+
+    private int sampleCount;
+
+    private int samplesSinceRefresh;
+
+    private double cachedPercentile = Double.NaN;
+
+    private long cachedValue = -1;
+
+    LatencyTracker(int windowSize, int minSamples) {
+        this.samples = new long[Math.max(1, windowSize)];
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+        this.refreshInterval = Math.max(1, samples.length / 10);
+    }
+
+    synchronized void record(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % samples.length;
+        if (sampleCount < samples.length) {
+            sampleCount++;
+        }
+        samplesSinceRefresh++;
+    }
+
+    synchronized long percentile(double percentile) {
+        if (sampleCount < minSamples) {
+            return -1;
+        }
+
+        if (cachedValue < 0 || percentile != cachedPercentile || samplesSinceRefresh >= refreshInterval) {
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            cachedValue = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+            cachedPercentile = percentile;
+            samplesSinceRefresh = 0;
+        }
+
+        return cachedValue;
+    }
+}
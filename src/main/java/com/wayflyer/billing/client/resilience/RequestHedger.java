@@ -0,0 +1,104 @@
+package com.wayflyer.billing.client.resilience;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class RequestHedger implements MeterBinder {
+    private final WayflyerEndpoint endpoint;
+
+    private final boolean enabled;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private final LatencyTracker latencyTracker;
+
+    private final AtomicLong hedgeCount = new AtomicLong();
+
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    public RequestHedger(WayflyerEndpoint endpoint, HedgingProperties properties) {
+        this.endpoint = endpoint;
+        this.enabled = properties.isEnabled();
+        this.percentile = properties.getPercentile();
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+        this.maxDelayNanos = Math.max(minDelayNanos, properties.getMaxDelay().toNanos());
+        this.latencyTracker = new LatencyTracker(properties.getWindowSize(), properties.getMinSamples());
+    }
+
+    public static RequestHedger disabled(WayflyerEndpoint endpoint) {
+        return new RequestHedger(endpoint, new HedgingProperties());
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> request, Executor executor) {
+        if (!enabled) {
+            return CompletableFuture.supplyAsync(request, executor);
+        }
+
+        var result = new CompletableFuture<T>();
+        executor.execute(() -> attempt(request, result, false));
+        if (!result.isDone()) {
+            CompletableFuture.delayedExecutor(getHedgeDelayNanos(), TimeUnit.NANOSECONDS, executor).execute(() -> {
+                if (!result.isDone()) {
+                    hedgeCount.incrementAndGet();
+                    attempt(request, result, true);
+                }
+            });
+        }
+        return result;
+    }
+
+    private <T> void attempt(Supplier<T> request, CompletableFuture<T> result, boolean hedge) {
+        long start = System.nanoTime();
+        try {
+            T value = request.get();
+            latencyTracker.record(System.nanoTime() - start);
+            if (result.complete(value) && hedge) {
+                hedgeWinCount.incrementAndGet();
+            }
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    public long getHedgeDelayNanos() {
+        long observed = latencyTracker.percentile(percentile);
+        if (observed < 0) {
+            return maxDelayNanos;
+        }
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, observed));
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        String tag = endpoint.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        FunctionCounter.builder("wayflyer.client.hedged.requests", this, RequestHedger::getHedgeCount)
+                .description("Duplicate requests sent because the first one was slower than the hedge delay")
+                .tag("endpoint", tag)
+                .register(meterRegistry);
+        FunctionCounter.builder("wayflyer.client.hedged.wins", this, RequestHedger::getHedgeWinCount)
+                .description("Hedged requests that answered before the original one")
+                .tag("endpoint", tag)
+                .register(meterRegistry);
+    }
+}
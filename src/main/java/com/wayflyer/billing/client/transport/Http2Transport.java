@@ -0,0 +1,63 @@
+package com.wayflyer.billing.client.transport;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class Http2Transport implements WayflyerTransport {
+    private final ConnectionPool connectionPool;
+
+    private final OkHttpClient httpClient;
+
+    private final OkHttp3ClientHttpRequestFactory requestFactory;
+
+    public Http2Transport(TransportProperties properties) {
+        connectionPool = new ConnectionPool(properties.getMaxConnections(), properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+
+        httpClient = new OkHttpClient.Builder()
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(connectionPool)
+                .connectTimeout(properties.getConnectTimeout())
+                .readTimeout(properties.getReadTimeout())
+                .writeTimeout(properties.getReadTimeout())
+                .addInterceptor(chain -> {
+                    var endpoint = WayflyerEndpoint.fromUri(chain.request().url().uri());
+                    int timeoutMillis = (int) properties.getReadTimeout(endpoint).toMillis();
+                    return chain
+                            .withReadTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                            .withWriteTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                            .proceed(chain.request());
+                })
+                .build();
+
+        requestFactory = new OkHttp3ClientHttpRequestFactory(httpClient);
+    }
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        int total = connectionPool.connectionCount();
+        int idle = connectionPool.idleConnectionCount();
+        return PoolStatistics.builder()
+                .total(total)
+                .leased(total - idle)
+                .idle(idle)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        httpClient.dispatcher().executorService().shutdown();
+        connectionPool.evictAll();
+    }
+}
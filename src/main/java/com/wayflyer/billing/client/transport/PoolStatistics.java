@@ -0,0 +1,18 @@
+package com.wayflyer.billing.client.transport;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PoolStatistics {
+    int total;
+
+    int leased;
+
+    int idle;
+
+    Integer pending;
+
+    Integer max;
+}
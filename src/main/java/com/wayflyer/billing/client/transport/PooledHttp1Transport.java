@@ -0,0 +1,103 @@
+package com.wayflyer.billing.client.transport;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class PooledHttp1Transport implements WayflyerTransport {
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+
+    private final Map<WayflyerEndpoint, RequestConfig> endpointRequestConfigs;
+
+    private final RequestConfig defaultRequestConfig;
+
+    public PooledHttp1Transport(TransportProperties properties) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+
+        long keepAliveMillis = properties.getKeepAlive().toMillis();
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAliveMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAliveMillis > 0 ? Math.min(serverKeepAliveMillis, keepAliveMillis) : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .build();
+
+        defaultRequestConfig = createRequestConfig(properties, null);
+        endpointRequestConfigs = new EnumMap<>(WayflyerEndpoint.class);
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            endpointRequestConfigs.put(endpoint, createRequestConfig(properties, endpoint));
+        }
+
+        requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setHttpContextFactory((httpMethod, uri) -> {
+            var context = HttpClientContext.create();
+            context.setRequestConfig(getRequestConfig(WayflyerEndpoint.fromUri(uri)));
+            return context;
+        });
+    }
+
+    private static RequestConfig createRequestConfig(TransportProperties properties, WayflyerEndpoint endpoint) {
+        return RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout(endpoint).toMillis())
+                .build();
+    }
+
+    RequestConfig getRequestConfig(WayflyerEndpoint endpoint) {
+        if (endpoint == null) {
+            return defaultRequestConfig;
+        }
+
+        return endpointRequestConfigs.get(endpoint);
+    }
+
+    @Override
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    @Override
+    public PoolStatistics getPoolStatistics() {
+        PoolStats totalStats = connectionManager.getTotalStats();
+        return PoolStatistics.builder()
+                .total(totalStats.getLeased() + totalStats.getAvailable())
+                .leased(totalStats.getLeased())
+                .idle(totalStats.getAvailable())
+                .pending(totalStats.getPending())
+                .max(totalStats.getMax())
+                .build();
+    }
+
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException ex) {
+            log.warn("Could not close the HTTP/1.1 connection pool.", ex);
+        }
+    }
+}
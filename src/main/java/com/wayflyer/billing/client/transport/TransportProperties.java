@@ -0,0 +1,37 @@
+package com.wayflyer.billing.client.transport;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "client.wayflyer.transport")
+public class TransportProperties {
+    private TransportType type = TransportType.HTTP1_POOLED;
+
+    private int maxConnections = 64;
+
+    private int maxConnectionsPerRoute = 64;
+
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    private Map<WayflyerEndpoint, Duration> readTimeouts = new EnumMap<>(WayflyerEndpoint.class);
+
+    public Duration getReadTimeout(WayflyerEndpoint endpoint) {
+        if (endpoint == null) {
+            return readTimeout;
+        }
+
+        return readTimeouts.getOrDefault(endpoint, readTimeout);
+    }
+}
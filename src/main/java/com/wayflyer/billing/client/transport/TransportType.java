@@ -0,0 +1,6 @@
+package com.wayflyer.billing.client.transport;
+
+public enum TransportType {
+    HTTP1_POOLED,
+    HTTP2
+}
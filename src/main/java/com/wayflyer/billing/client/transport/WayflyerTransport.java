@@ -0,0 +1,11 @@
+package com.wayflyer.billing.client.transport;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+public interface WayflyerTransport {
+    ClientHttpRequestFactory getRequestFactory();
+
+    PoolStatistics getPoolStatistics();
+
+    void close();
+}
@@ -0,0 +1,30 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("fake-api")
+@EnableConfigurationProperties(FakeApiProperties.class)
+public class FakeApiConfiguration {
+    @Bean
+    public FakeDataset fakeDataset(FakeApiProperties fakeApiProperties) {
+        return new FakeDataset(fakeApiProperties);
+    }
+
+    @Bean
+    public FakeApiLedger fakeApiLedger() {
+        return new FakeApiLedger();
+    }
+
+    @Bean
+    public ResourceConfig fakeApiResourceConfig(FakeApiProperties fakeApiProperties, FakeDataset fakeDataset, FakeApiLedger fakeApiLedger, ObjectMapper objectMapper) {
+        var resourceConfig = new ResourceConfig();
+        resourceConfig.register(new FakeWayflyerResource(fakeApiProperties, fakeDataset, fakeApiLedger, objectMapper));
+        return resourceConfig;
+    }
+}
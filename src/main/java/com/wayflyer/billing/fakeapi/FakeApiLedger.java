@@ -0,0 +1,123 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import com.wayflyer.billing.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextStoppedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+public class FakeApiLedger {
+    private static final long MAX_DAILY_CHARGE_CENTS = 10_000_00L;
+
+    private final Map<WayflyerEndpoint, Map<Integer, LongAdder>> responses = new EnumMap<>(WayflyerEndpoint.class);
+
+    private final Map<Integer, MandateCharges> chargesByMandate = new ConcurrentHashMap<>();
+
+    private final Set<Integer> completedAdvances = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder totalChargedCents = new LongAdder();
+
+    private final AtomicLong dailyLimitBreaches = new AtomicLong();
+
+    public FakeApiLedger() {
+        for (WayflyerEndpoint endpoint : WayflyerEndpoint.values()) {
+            responses.put(endpoint, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void recordResponse(WayflyerEndpoint endpoint, int status) {
+        responses.get(endpoint).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    public void recordCharge(LocalDate today, int mandateId, Money amount) {
+        totalChargedCents.add(amount.getCents());
+        MandateCharges mandateCharges = chargesByMandate.computeIfAbsent(mandateId, key -> new MandateCharges());
+        synchronized (mandateCharges) {
+            mandateCharges.totalCents += amount.getCents();
+            if (!today.equals(mandateCharges.day)) {
+                mandateCharges.day = today;
+                mandateCharges.dayCents = 0;
+            }
+            mandateCharges.dayCents += amount.getCents();
+            if (mandateCharges.dayCents > MAX_DAILY_CHARGE_CENTS && mandateCharges.dayCents - amount.getCents() <= MAX_DAILY_CHARGE_CENTS) {
+                dailyLimitBreaches.incrementAndGet();
+            }
+        }
+    }
+
+    public void recordBillingComplete(int advanceId) {
+        completedAdvances.add(advanceId);
+    }
+
+    public long getResponseCount(WayflyerEndpoint endpoint, int status) {
+        LongAdder count = responses.get(endpoint).get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    public Money getTotalCharged() {
+        return Money.ofCents(totalChargedCents.sum());
+    }
+
+    public Money getTotalCharged(int mandateId) {
+        MandateCharges mandateCharges = chargesByMandate.get(mandateId);
+        if (mandateCharges == null) {
+            return Money.ZERO;
+        }
+
+        synchronized (mandateCharges) {
+            return Money.ofCents(mandateCharges.totalCents);
+        }
+    }
+
+    public boolean isBillingComplete(int advanceId) {
+        return completedAdvances.contains(advanceId);
+    }
+
+    public int getCompletedCount() {
+        return completedAdvances.size();
+    }
+
+    public long getDailyLimitBreaches() {
+        return dailyLimitBreaches.get();
+    }
+
+    public Map<String, Object> getSummary() {
+        Map<String, Object> responseCounts = new LinkedHashMap<>();
+        responses.forEach((endpoint, counts) -> {
+            Map<Integer, Long> statusCounts = new LinkedHashMap<>();
+            counts.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            responseCounts.put(endpoint.name(), statusCounts);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("responses", responseCounts);
+        summary.put("totalCharged", getTotalCharged().toString());
+        summary.put("chargedMandates", chargesByMandate.size());
+        summary.put("completedAdvances", getCompletedCount());
+        summary.put("dailyLimitBreaches", getDailyLimitBreaches());
+        return summary;
+    }
+
+    @EventListener(ContextStoppedEvent.class)
+    public void logSummary() {
+        log.info("Fake API ledger: {}", getSummary());
+    }
+
+    private static class MandateCharges {
+        private long totalCents;
+
+        private LocalDate day;
+
+        private long dayCents;
+    }
+}
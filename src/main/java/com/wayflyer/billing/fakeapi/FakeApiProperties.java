@@ -0,0 +1,42 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "fake-api")
+public class FakeApiProperties {
+    private long seed = 42;
+
+    private int advanceCount = 10_000;
+
+    private int customerCount = 5_000;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate = LocalDate.of(2022, 1, 1);
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate = LocalDate.of(2022, 7, 1);
+
+    private double revenueDelayRate = 0.1;
+
+    private int maxRevenueDelayDays = 5;
+
+    private double revenueUnavailableRate = 0.0;
+
+    private double chargeFailureRate = 0.05;
+
+    private double serverErrorRate = 0.0;
+
+    private Map<WayflyerEndpoint, LatencyProperties> latency = new EnumMap<>(WayflyerEndpoint.class);
+
+    public LatencyProperties getLatency(WayflyerEndpoint endpoint) {
+        return latency.getOrDefault(endpoint, new LatencyProperties());
+    }
+}
@@ -0,0 +1,84 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public class FakeDataset {
+    private static final int FIRST_ADVANCE_ID = 1;
+
+    private final FakeApiProperties properties;
+
+    private final long days;
+
+    public FakeDataset(FakeApiProperties properties) {
+        this.properties = properties;
+        this.days = Math.max(1, ChronoUnit.DAYS.between(properties.getStartDate(), properties.getEndDate()));
+    }
+
+    public int getAdvanceCount() {
+        return properties.getAdvanceCount();
+    }
+
+    public int getVisibleAdvanceCount(LocalDate today) {
+        long day = ChronoUnit.DAYS.between(properties.getStartDate(), today);
+        if (day < 0) {
+            return 0;
+        }
+        if (day >= days) {
+            return getAdvanceCount();
+        }
+
+        return (int) Math.min(getAdvanceCount(), ((day + 1) * getAdvanceCount() + days - 1) / days);
+    }
+
+    public Advance getAdvance(int index) {
+        int id = FIRST_ADVANCE_ID + index;
+        LocalDate created = properties.getStartDate().plusDays(index * days / getAdvanceCount());
+
+        return Advance.builder()
+                .id(id)
+                .customerId(1 + (int) (mix(id, 1) % properties.getCustomerCount()))
+                .mandateId(id)
+                .created(created)
+                .totalAdvanced(Money.ofCents(1_000_000L + mix(id, 2) % 19_000_000L))
+                .fee(Money.ofCents(50_000L + mix(id, 3) % 950_000L))
+                .repaymentStartDate(created.plusDays(1 + mix(id, 4) % 7))
+                .repaymentPercentage(BigDecimal.valueOf(1 + mix(id, 5) % 20))
+                .build();
+    }
+
+    public int getAdvanceIndex(int advanceId) {
+        int index = advanceId - FIRST_ADVANCE_ID;
+        return index >= 0 && index < getAdvanceCount() ? index : -1;
+    }
+
+    public Money getRevenue(int customerId, LocalDate forDate) {
+        return Money.ofCents(mix(customerId, forDate.toEpochDay()) % 10_000_000L);
+    }
+
+    public LocalDate getRevenueAvailableDate(int customerId, LocalDate forDate) {
+        long seed = forDate.toEpochDay() * 31;
+        LocalDate availableDate = forDate.plusDays(1);
+        if (fraction(customerId, seed + 1) < properties.getRevenueDelayRate()) {
+            availableDate = availableDate.plusDays(1 + mix(customerId, seed + 2) % Math.max(1, properties.getMaxRevenueDelayDays()));
+        }
+
+        return availableDate;
+    }
+
+    private double fraction(long value, long salt) {
+        return (mix(value, salt) & 0xFFFFFF) / (double) 0x1000000;
+    }
+
+    private long mix(long value, long salt) {
+        long hash = (value + properties.getSeed() * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L + salt * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return hash & Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,197 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Path("/")
+@Produces(MediaType.APPLICATION_JSON)
+@Slf4j
+public class FakeWayflyerResource {
+    private static final int REVENUE_NOT_AVAILABLE = 530;
+
+    private final FakeApiProperties properties;
+
+    private final FakeDataset dataset;
+
+    private final FakeApiLedger ledger;
+
+    private final ObjectMapper objectMapper;
+
+    public FakeWayflyerResource(FakeApiProperties properties, FakeDataset dataset, FakeApiLedger ledger, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.dataset = dataset;
+        this.ledger = ledger;
+        this.objectMapper = objectMapper;
+    }
+
+    @GET
+    @Path("advances")
+    public Response getAdvances(@HeaderParam("Today") String todayHeader, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        LocalDate today = parseDate(todayHeader);
+        if (today == null) {
+            return respond(WayflyerEndpoint.ADVANCES, Response.status(Response.Status.BAD_REQUEST));
+        }
+        Response failure = simulateRequest(WayflyerEndpoint.ADVANCES);
+        if (failure != null) {
+            return failure;
+        }
+
+        int visibleAdvanceCount = dataset.getVisibleAdvanceCount(today);
+        EntityTag entityTag = new EntityTag(String.valueOf(visibleAdvanceCount));
+        if (ifNoneMatch != null && ifNoneMatch.equals(entityTag.toString())) {
+            return respond(WayflyerEndpoint.ADVANCES, Response.notModified(entityTag));
+        }
+
+        StreamingOutput body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("advances");
+                for (int index = 0; index < visibleAdvanceCount; index++) {
+                    writeAdvance(generator, dataset.getAdvance(index));
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+
+        return respond(WayflyerEndpoint.ADVANCES, Response.ok(body).tag(entityTag));
+    }
+
+    @GET
+    @Path("customers/{customerId}/revenues/{forDate}")
+    public Response getRevenue(@HeaderParam("Today") String todayHeader, @PathParam("customerId") int customerId, @PathParam("forDate") String forDateParam) {
+        LocalDate today = parseDate(todayHeader);
+        LocalDate forDate = parseDate(forDateParam);
+        if (today == null || forDate == null) {
+            return respond(WayflyerEndpoint.REVENUES, Response.status(Response.Status.BAD_REQUEST));
+        }
+        Response failure = simulateRequest(WayflyerEndpoint.REVENUES);
+        if (failure != null) {
+            return failure;
+        }
+
+        if (today.isBefore(dataset.getRevenueAvailableDate(customerId, forDate))
+                || ThreadLocalRandom.current().nextDouble() < properties.getRevenueUnavailableRate()) {
+            return respond(WayflyerEndpoint.REVENUES, Response.status(REVENUE_NOT_AVAILABLE).entity("Revenue not yet available").type(MediaType.TEXT_PLAIN));
+        }
+
+        Money amount = dataset.getRevenue(customerId, forDate);
+        return respond(WayflyerEndpoint.REVENUES, Response.ok(Map.of("amount", amount.toString())));
+    }
+
+    @POST
+    @Path("mandates/{mandateId}/charge")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response charge(@HeaderParam("Today") String todayHeader, @PathParam("mandateId") int mandateId, JsonNode body) {
+        LocalDate today = parseDate(todayHeader);
+        JsonNode amountNode = body == null ? null : body.get("amount");
+        if (today == null || amountNode == null || !amountNode.isTextual()) {
+            return respond(WayflyerEndpoint.CHARGES, Response.status(Response.Status.BAD_REQUEST));
+        }
+        Response failure = simulateRequest(WayflyerEndpoint.CHARGES);
+        if (failure != null) {
+            return failure;
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < properties.getChargeFailureRate()) {
+            return respond(WayflyerEndpoint.CHARGES, Response.status(REVENUE_NOT_AVAILABLE).entity("Charging not possible at this time").type(MediaType.TEXT_PLAIN));
+        }
+
+        ledger.recordCharge(today, mandateId, Money.parse(amountNode.asText()));
+        return respond(WayflyerEndpoint.CHARGES, Response.ok(Map.of()));
+    }
+
+    @POST
+    @Path("advances/{advanceId}/billing_complete")
+    public Response reportBillingComplete(@HeaderParam("Today") String todayHeader, @PathParam("advanceId") int advanceId) {
+        if (parseDate(todayHeader) == null || dataset.getAdvanceIndex(advanceId) < 0) {
+            return respond(WayflyerEndpoint.BILLING_COMPLETE, Response.status(Response.Status.BAD_REQUEST));
+        }
+        Response failure = simulateRequest(WayflyerEndpoint.BILLING_COMPLETE);
+        if (failure != null) {
+            return failure;
+        }
+
+        ledger.recordBillingComplete(advanceId);
+        return respond(WayflyerEndpoint.BILLING_COMPLETE, Response.ok(Map.of()));
+    }
+
+    @GET
+    @Path("ledger")
+    public Map<String, Object> getLedger() {
+        return ledger.getSummary();
+    }
+
+    private Response simulateRequest(WayflyerEndpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyMillis = properties.getLatency(endpoint).sampleMillis(random);
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (random.nextDouble() < properties.getServerErrorRate()) {
+            return respond(endpoint, Response.serverError());
+        }
+
+        return null;
+    }
+
+    private Response respond(WayflyerEndpoint endpoint, Response.ResponseBuilder responseBuilder) {
+        Response response = responseBuilder.build();
+        ledger.recordResponse(endpoint, response.getStatus());
+        return response;
+    }
+
+    private static void writeAdvance(JsonGenerator generator, Advance advance) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", advance.getId());
+        generator.writeNumberField("customer_id", advance.getCustomerId());
+        generator.writeStringField("created", advance.getCreated().toString());
+        generator.writeStringField("total_advanced", advance.getTotalAdvanced().toString());
+        generator.writeStringField("fee", advance.getFee().toString());
+        generator.writeNumberField("mandate_id", advance.getMandateId());
+        generator.writeStringField("repayment_start_date", advance.getRepaymentStartDate().toString());
+        generator.writeNumberField("repayment_percentage", advance.getRepaymentPercentage());
+        generator.writeEndObject();
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            log.warn("Invalid date {} received.", date);
+            return null;
+        }
+    }
+}
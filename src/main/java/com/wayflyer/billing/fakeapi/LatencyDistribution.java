@@ -0,0 +1,8 @@
+package com.wayflyer.billing.fakeapi;
+
+public enum LatencyDistribution {
+    NONE,
+    FIXED,
+    UNIFORM,
+    LOG_NORMAL
+}
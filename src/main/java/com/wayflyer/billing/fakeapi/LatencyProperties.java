@@ -0,0 +1,37 @@
+package com.wayflyer.billing.fakeapi;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Random;
+
+@Data
+public class LatencyProperties {
+    private LatencyDistribution distribution = LatencyDistribution.NONE;
+
+    private Duration median = Duration.ZERO;
+
+    private Duration max = Duration.ofSeconds(1);
+
+    private double sigma = 0.5;
+
+    public long sampleMillis(Random random) {
+        long medianMillis = median.toMillis();
+        double sample;
+        switch (distribution) {
+            case FIXED:
+                sample = medianMillis;
+                break;
+            case UNIFORM:
+                sample = random.nextDouble() * 2 * medianMillis;
+                break;
+            case LOG_NORMAL:
+                sample = medianMillis * Math.exp(sigma * random.nextGaussian());
+                break;
+            default:
+                return 0;
+        }
+
+        return Math.min(max.toMillis(), Math.round(sample));
+    }
+}
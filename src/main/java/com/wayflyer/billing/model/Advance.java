@@ -1,6 +1,5 @@
 package com.wayflyer.billing.model;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -17,13 +16,20 @@ import lombok.Setter;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Advance {
+    private static final AtomicReferenceFieldUpdater<Advance, Money> OUTSTANDING_AMOUNT =
+            AtomicReferenceFieldUpdater.newUpdater(Advance.class, Money.class, "outstandingAmount");
+
     @JsonProperty("id")
     private int id;
 
@@ -36,12 +42,10 @@ public class Advance {
     private LocalDate created;
 
     @JsonProperty("total_advanced")
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal totalAdvanced;
+    private Money totalAdvanced;
 
     @JsonProperty("fee")
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal fee;
+    private Money fee;
 
     @JsonProperty("mandate_id")
     private int mandateId;
@@ -55,37 +59,89 @@ public class Advance {
     private BigDecimal repaymentPercentage;
 
     @JsonIgnore
-    private boolean completed;
+    @Setter(AccessLevel.PRIVATE)
+    private volatile RepaymentRate repaymentRate;
+
+    @JsonIgnore
+    private volatile boolean completed;
 
     @JsonIgnore
     @Setter(AccessLevel.PRIVATE)
-    private BigDecimal outstandingAmount;
+    private volatile Money outstandingAmount;
+
+    @JsonIgnore
+    public Money getOutstandingAmount() {
+        Money amount = outstandingAmount;
+        if (amount == null) {
+            OUTSTANDING_AMOUNT.compareAndSet(this, null, totalAdvanced.plus(fee));
+            amount = outstandingAmount;
+        }
+
+        return amount;
+    }
+
+    public void setRepaymentPercentage(BigDecimal repaymentPercentage) {
+        this.repaymentPercentage = repaymentPercentage;
+        this.repaymentRate = null;
+    }
+
+    @JsonIgnore
+    public RepaymentRate getRepaymentRate() {
+        if (repaymentRate == null) {
+            repaymentRate = RepaymentRate.ofPercentage(repaymentPercentage);
+        }
+
+        return repaymentRate;
+    }
 
     @JsonIgnore
-    public BigDecimal getOutstandingAmount() {
-        if (outstandingAmount == null) {
-            outstandingAmount = totalAdvanced.add(fee);
+    @Setter(AccessLevel.PRIVATE)
+    private volatile LocalDate lastBilledRevenueDate;
+
+    public void markRevenueBilled(LocalDate revenueDate) {
+        if (lastBilledRevenueDate == null || revenueDate.isAfter(lastBilledRevenueDate)) {
+            lastBilledRevenueDate = revenueDate;
         }
+    }
 
-        return outstandingAmount;
+    @JsonIgnore
+    public boolean isRevenueBilled(LocalDate revenueDate) {
+        return lastBilledRevenueDate != null && !revenueDate.isAfter(lastBilledRevenueDate);
     }
 
     @JsonIgnore
     @Builder.Default
-    private List<Charge> chargesApplied = new ArrayList<>();
+    private boolean chargeLedgerEnabled = true;
+
+    @JsonIgnore
+    @Builder.Default
+    private List<Charge> chargesApplied = Collections.synchronizedList(new ArrayList<>());
+
+    @JsonIgnore
+    @Builder.Default
+    @Setter(AccessLevel.PRIVATE)
+    private Map<LocalDate, Money> amountChargedByDate = new ConcurrentHashMap<>();
 
     public void applyCharge(Charge charge) {
-        setOutstandingAmount(getOutstandingAmount().subtract(charge.getAmount()));
-        getChargesApplied().add(charge);
+        Money outstanding;
+        do {
+            outstanding = getOutstandingAmount();
+        } while (!OUTSTANDING_AMOUNT.compareAndSet(this, outstanding, outstanding.minus(charge.getAmount())));
+        getAmountChargedByDate().merge(charge.getDateCharged(), charge.getAmount(), Money::plus);
+
+        if (isChargeLedgerEnabled()) {
+            getChargesApplied().add(charge);
+        }
     }
 
     @JsonIgnore
-    public BigDecimal getAmountChargedOnDate(LocalDate date) {
-        return getChargesApplied()
-                .stream()
-                .filter(charge -> charge.getDateCharged().equals(date))
-                .map(Charge::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public Money getAmountChargedOnDate(LocalDate date) {
+        return getAmountChargedByDate().getOrDefault(date, Money.ZERO);
+    }
+
+    public void compactChargeLedger(LocalDate before) {
+        getChargesApplied().removeIf(charge -> charge.getDateCharged().isBefore(before));
+        getAmountChargedByDate().keySet().removeIf(date -> date.isBefore(before));
     }
 
     @Override
@@ -1,6 +1,5 @@
 package com.wayflyer.billing.model;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -8,8 +7,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Data
 @NoArgsConstructor
@@ -26,8 +28,78 @@ public class Charge {
     private LocalDate dateCharged;
 
     @JsonProperty("amount")
-    @JsonFormat(shape = JsonFormat.Shape.STRING)
-    private BigDecimal amount;
+    private Money amount;
+
+    @JsonIgnore
+    private List<ChargeComponent> components;
+
+    public Charge(Advance advance, LocalDate dateFor, LocalDate dateCharged, Money amount) {
+        this(advance, dateFor, dateCharged, amount, null);
+    }
+
+    @JsonIgnore
+    public boolean isCarryForward() {
+        return components != null;
+    }
+
+    @JsonIgnore
+    public LocalDate getLatestDateFor() {
+        return components == null || components.isEmpty() ? dateFor : components.get(components.size() - 1).getDateFor();
+    }
+
+    public Charge asCarryForward() {
+        if (components == null) {
+            components = List.of(new ChargeComponent(dateFor, amount));
+        }
+
+        return this;
+    }
+
+    public Charge combine(Charge other) {
+        Map<LocalDate, Money> amountsByDate = new TreeMap<>();
+        for (ChargeComponent component : breakdown()) {
+            amountsByDate.merge(component.getDateFor(), component.getAmount(), Money::plus);
+        }
+        for (ChargeComponent component : other.breakdown()) {
+            amountsByDate.merge(component.getDateFor(), component.getAmount(), Money::plus);
+        }
+
+        var combinedComponents = new ArrayList<ChargeComponent>(amountsByDate.size());
+        amountsByDate.forEach((date, componentAmount) -> combinedComponents.add(new ChargeComponent(date, componentAmount)));
+        LocalDate oldestDateFor = dateFor.isAfter(other.getDateFor()) ? other.getDateFor() : dateFor;
+        return new Charge(advance, oldestDateFor, null, amount.plus(other.getAmount()), combinedComponents);
+    }
+
+    public Charge split(Money keptAmount) {
+        var kept = new ArrayList<ChargeComponent>();
+        var remaining = new ArrayList<ChargeComponent>();
+        Money amountToKeep = keptAmount;
+        for (ChargeComponent component : breakdown()) {
+            if (!amountToKeep.isLessThan(component.getAmount())) {
+                kept.add(component);
+                amountToKeep = amountToKeep.minus(component.getAmount());
+            } else {
+                if (!amountToKeep.isZero()) {
+                    kept.add(new ChargeComponent(component.getDateFor(), amountToKeep));
+                }
+                remaining.add(new ChargeComponent(component.getDateFor(), component.getAmount().minus(amountToKeep)));
+                amountToKeep = Money.ZERO;
+            }
+        }
+
+        LocalDate remainderDateFor = remaining.isEmpty() ? dateFor : remaining.get(0).getDateFor();
+        var remainder = new Charge(advance, remainderDateFor, null, amount.minus(keptAmount), remaining);
+        amount = keptAmount;
+        if (components != null) {
+            components = kept;
+        }
+
+        return remainder;
+    }
+
+    private List<ChargeComponent> breakdown() {
+        return components == null ? List.of(new ChargeComponent(dateFor, amount)) : components;
+    }
 
     @Override
     public String toString() {
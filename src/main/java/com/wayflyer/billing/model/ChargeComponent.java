@@ -0,0 +1,15 @@
+package com.wayflyer.billing.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+@Value
+public class ChargeComponent {
+    @JsonSerialize(using = ToStringSerializer.class)
+    LocalDate dateFor;
+
+    Money amount;
+}
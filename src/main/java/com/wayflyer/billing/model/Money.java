@@ -0,0 +1,133 @@
+package com.wayflyer.billing.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int CENTS_PER_UNIT = 100;
+
+    private static final int MAX_FAST_PARSE_DIGITS = 16;
+
+    private final long cents;
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    @JsonCreator
+    public static Money parse(String amount) {
+        long cents = parseCents(amount);
+        if (cents == Long.MIN_VALUE) {
+            return of(new BigDecimal(amount.trim()));
+        }
+
+        return ofCents(cents);
+    }
+
+    private static long parseCents(String amount) {
+        int length = amount.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (amount.charAt(0) == '-' || amount.charAt(0) == '+')) {
+            negative = amount.charAt(0) == '-';
+            index++;
+        }
+
+        long units = 0;
+        int digits = 0;
+        while (index < length && Character.isDigit(amount.charAt(index))) {
+            units = units * 10 + (amount.charAt(index++) - '0');
+            digits++;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (index < length && amount.charAt(index) == '.') {
+            index++;
+            while (index < length && Character.isDigit(amount.charAt(index))) {
+                fraction = fraction * 10 + (amount.charAt(index++) - '0');
+                fractionDigits++;
+            }
+        }
+
+        if (index != length || digits == 0 || digits > MAX_FAST_PARSE_DIGITS || fractionDigits > SCALE) {
+            return Long.MIN_VALUE;
+        }
+
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+
+        long cents = units * CENTS_PER_UNIT + fraction;
+        return negative ? -cents : cents;
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money min(Money other) {
+        return cents <= other.cents ? this : other;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return cents > other.cents;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        if (cents == Long.MIN_VALUE) {
+            return toBigDecimal().toPlainString();
+        }
+
+        long absoluteCents = Math.abs(cents);
+        long fraction = absoluteCents % CENTS_PER_UNIT;
+        return (cents < 0 ? "-" : "") + absoluteCents / CENTS_PER_UNIT + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
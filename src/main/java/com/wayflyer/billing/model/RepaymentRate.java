@@ -0,0 +1,56 @@
+package com.wayflyer.billing.model;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class RepaymentRate {
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    @EqualsAndHashCode.Exclude
+    private final BigDecimal percentage;
+
+    private final long numerator;
+
+    private final long denominator;
+
+    public static RepaymentRate ofPercentage(BigDecimal percentage) {
+        BigDecimal normalised = percentage.stripTrailingZeros();
+        int scale = Math.max(normalised.scale(), 0);
+
+        long numerator = normalised.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        long denominator = ONE_HUNDRED.movePointRight(scale).longValueExact();
+        return new RepaymentRate(percentage, numerator, denominator);
+    }
+
+    public Money apply(Money amount) {
+        long dividend;
+        try {
+            dividend = Math.multiplyExact(amount.getCents(), numerator);
+        } catch (ArithmeticException ex) {
+            return Money.of(amount.toBigDecimal().multiply(percentage).divide(ONE_HUNDRED, Money.SCALE, RoundingMode.HALF_UP));
+        }
+
+        return Money.ofCents(divideHalfUp(dividend, denominator));
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(dividend);
+        }
+
+        return quotient;
+    }
+
+    @Override
+    public String toString() {
+        return percentage.toPlainString() + "%";
+    }
+}
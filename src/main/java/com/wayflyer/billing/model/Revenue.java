@@ -1,13 +1,11 @@
 package com.wayflyer.billing.model;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Data
@@ -20,6 +18,5 @@ public class Revenue {
     private LocalDate date;
 
     @JsonProperty("amount")
-    @JsonFormat(shape= JsonFormat.Shape.STRING)
-    private BigDecimal amount;
+    private Money amount;
 }
@@ -0,0 +1,45 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Revenue;
+
+import java.time.LocalDate;
+
+public interface BillingJournal {
+    BillingJournal DISABLED = new BillingJournal() {
+    };
+
+    default void dayStarted(LocalDate today) {
+    }
+
+    default void advanceRegistered(LocalDate today, Advance advance) {
+    }
+
+    default void revenueMatched(Revenue revenue) {
+    }
+
+    default void readyChargesDrained() {
+    }
+
+    default void readyChargeTaken(Charge charge) {
+    }
+
+    default void chargeApplied(Charge charge) {
+    }
+
+    default void chargeDeferred(Charge charge) {
+    }
+
+    default void chargeSplit(Charge charge, Charge remainder) {
+    }
+
+    default void chargeCancelled(Charge charge) {
+    }
+
+    default void advanceCompleted(Advance advance) {
+    }
+
+    default void dayCompleted(LocalDate today) {
+    }
+}
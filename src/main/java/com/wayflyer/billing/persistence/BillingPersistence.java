@@ -0,0 +1,112 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.service.AdvanceRegistry;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.function.BiFunction;
+
+@Component
+@Slf4j
+public class BillingPersistence {
+    private final PersistenceProperties properties;
+
+    private final Path snapshotPath;
+
+    private final Path journalPath;
+
+    private volatile MappedBillingJournal journal;
+
+    private long generation;
+
+    private LocalDate snapshotDate;
+
+    public BillingPersistence(PersistenceProperties properties) {
+        this.properties = properties;
+        snapshotPath = properties.getPath().resolve("snapshot.bin");
+        journalPath = properties.getPath().resolve("journal.bin");
+    }
+
+    public BillingJournal getJournal() {
+        return journal == null ? BillingJournal.DISABLED : journal;
+    }
+
+    public synchronized LocalDate recover(AdvanceRegistry advances, OutstandingChargeStore outstandingCharges, BiFunction<Advance, Revenue, Money> chargeCalculator) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+
+        try {
+            long startTime = System.nanoTime();
+            if (Files.exists(snapshotPath)) {
+                var snapshot = BillingSnapshot.read(snapshotPath, advances, outstandingCharges);
+                generation = snapshot.getGeneration();
+                snapshotDate = snapshot.getDate();
+            }
+
+            var replay = new JournalReplay(advances, outstandingCharges, chargeCalculator);
+            long journalEnd = MappedBillingJournal.replay(journalPath, generation, replay::apply);
+            replay.finish();
+
+            long regionSize = properties.getJournalRegionSize().toBytes();
+            journal = journalEnd < 0
+                    ? MappedBillingJournal.create(journalPath, generation, regionSize)
+                    : MappedBillingJournal.open(journalPath, journalEnd, regionSize);
+
+            LocalDate lastProcessedDate = replay.getLastCompletedDate() != null ? replay.getLastCompletedDate() : snapshotDate;
+            log.info("Recovered {} advances and {} outstanding charges up to {} from snapshot {} and {} journal records in {} ms.",
+                    advances.size(), outstandingCharges.size(), lastProcessedDate, snapshotDate, replay.getRecordCount(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+            return lastProcessedDate;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not recover the billing state from " + properties.getPath(), ex);
+        }
+    }
+
+    public synchronized void checkpoint(LocalDate today, AdvanceRegistry advances, OutstandingChargeStore outstandingCharges) {
+        if (journal == null) {
+            return;
+        }
+
+        journal.dayCompleted(today);
+        if (snapshotDate != null && today.isBefore(snapshotDate.plusDays(properties.getSnapshotIntervalDays()))) {
+            return;
+        }
+
+        try {
+            BillingSnapshot.write(snapshotPath, generation + 1, today, advances, outstandingCharges);
+            generation++;
+            snapshotDate = today;
+
+            journal.close();
+            journal = MappedBillingJournal.create(journalPath, generation, properties.getJournalRegionSize().toBytes());
+            log.info("Wrote billing state snapshot {} for {} to {}.", generation, today, snapshotPath);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write a billing state snapshot to " + snapshotPath, ex);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            log.warn("Could not close the billing journal.", ex);
+        }
+        journal = null;
+    }
+}
@@ -0,0 +1,97 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.service.AdvanceRegistry;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import lombok.Value;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.wayflyer.billing.persistence.BillingStateCodec.readAdvanceState;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readComponents;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readDate;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readMoney;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeAdvanceState;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeComponents;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeDate;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeMoney;
+
+@Value
+public class BillingSnapshot {
+    private static final int FORMAT_VERSION = 2;
+
+    long generation;
+
+    LocalDate date;
+
+    public static void write(Path path, long generation, LocalDate date, AdvanceRegistry advances, OutstandingChargeStore outstandingCharges) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(generation);
+            writeDate(output, date);
+
+            output.writeInt(advances.size());
+            for (Advance advance : advances.getNotStarted()) {
+                writeAdvanceState(output, advance);
+            }
+            for (Advance advance : advances.getActive()) {
+                writeAdvanceState(output, advance);
+            }
+            for (Advance advance : advances.getCompleted()) {
+                writeAdvanceState(output, advance);
+            }
+
+            List<Charge> charges = new ArrayList<>(outstandingCharges.size());
+            outstandingCharges.forEachCharge(charges::add);
+            output.writeInt(charges.size());
+            for (Charge charge : charges) {
+                output.writeInt(charge.getAdvance().getId());
+                writeDate(output, charge.getDateFor());
+                writeMoney(output, charge.getAmount());
+                writeComponents(output, charge.getComponents());
+            }
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static BillingSnapshot read(Path path, AdvanceRegistry advances, OutstandingChargeStore outstandingCharges) throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + version + " in " + path);
+            }
+            long generation = input.readLong();
+            LocalDate date = readDate(input);
+
+            int advanceCount = input.readInt();
+            for (int i = 0; i < advanceCount; i++) {
+                Advance advance = readAdvanceState(input);
+                advances.register(date, advance);
+                if (advance.isCompleted()) {
+                    advances.complete(advance);
+                }
+            }
+
+            int chargeCount = input.readInt();
+            for (int i = 0; i < chargeCount; i++) {
+                Advance advance = advances.get(input.readInt());
+                outstandingCharges.add(new Charge(advance, readDate(input), null, readMoney(input), readComponents(input)));
+            }
+
+            return new BillingSnapshot(generation, date);
+        }
+    }
+}
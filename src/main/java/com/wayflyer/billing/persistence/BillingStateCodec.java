@@ -0,0 +1,142 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.ChargeComponent;
+import com.wayflyer.billing.model.Money;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class BillingStateCodec {
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private BillingStateCodec() {
+    }
+
+    static void writeAdvance(DataOutput output, Advance advance) throws IOException {
+        output.writeInt(advance.getId());
+        output.writeInt(advance.getCustomerId());
+        output.writeInt(advance.getMandateId());
+        writeDate(output, advance.getCreated());
+        writeMoney(output, advance.getTotalAdvanced());
+        writeMoney(output, advance.getFee());
+        writeDate(output, advance.getRepaymentStartDate());
+        output.writeUTF(advance.getRepaymentPercentage().toPlainString());
+        output.writeBoolean(advance.isChargeLedgerEnabled());
+    }
+
+    static Advance readAdvance(DataInput input) throws IOException {
+        return readAdvanceBuilder(input).build();
+    }
+
+    private static Advance.AdvanceBuilder readAdvanceBuilder(DataInput input) throws IOException {
+        return Advance.builder()
+                .id(input.readInt())
+                .customerId(input.readInt())
+                .mandateId(input.readInt())
+                .created(readDate(input))
+                .totalAdvanced(readMoney(input))
+                .fee(readMoney(input))
+                .repaymentStartDate(readDate(input))
+                .repaymentPercentage(new BigDecimal(input.readUTF()))
+                .chargeLedgerEnabled(input.readBoolean());
+    }
+
+    static void writeAdvanceState(DataOutput output, Advance advance) throws IOException {
+        writeAdvance(output, advance);
+        writeMoney(output, advance.getOutstandingAmount());
+        output.writeBoolean(advance.isCompleted());
+
+        Map<LocalDate, Money> amountChargedByDate = advance.getAmountChargedByDate();
+        output.writeInt(amountChargedByDate.size());
+        for (Map.Entry<LocalDate, Money> amountCharged : amountChargedByDate.entrySet()) {
+            writeDate(output, amountCharged.getKey());
+            writeMoney(output, amountCharged.getValue());
+        }
+
+        List<Charge> chargesApplied = advance.getChargesApplied();
+        synchronized (chargesApplied) {
+            output.writeInt(chargesApplied.size());
+            for (Charge charge : chargesApplied) {
+                writeDate(output, charge.getDateFor());
+                writeDate(output, charge.getDateCharged());
+                writeMoney(output, charge.getAmount());
+                writeComponents(output, charge.getComponents());
+            }
+        }
+    }
+
+    static Advance readAdvanceState(DataInput input) throws IOException {
+        Advance.AdvanceBuilder builder = readAdvanceBuilder(input)
+                .outstandingAmount(readMoney(input))
+                .completed(input.readBoolean());
+
+        int dateCount = input.readInt();
+        Map<LocalDate, Money> amountChargedByDate = new ConcurrentHashMap<>(dateCount);
+        for (int i = 0; i < dateCount; i++) {
+            amountChargedByDate.put(readDate(input), readMoney(input));
+        }
+        Advance advance = builder.amountChargedByDate(amountChargedByDate).build();
+
+        int chargeCount = input.readInt();
+        for (int i = 0; i < chargeCount; i++) {
+            advance.getChargesApplied().add(new Charge(advance, readDate(input), readDate(input), readMoney(input), readComponents(input)));
+        }
+
+        return advance;
+    }
+
+    static void writeComponents(DataOutput output, List<ChargeComponent> components) throws IOException {
+        if (components == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(components.size());
+        for (ChargeComponent component : components) {
+            writeDate(output, component.getDateFor());
+            writeMoney(output, component.getAmount());
+        }
+    }
+
+    static List<ChargeComponent> readComponents(DataInput input) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            return null;
+        }
+
+        var components = new ArrayList<ChargeComponent>(count);
+        for (int i = 0; i < count; i++) {
+            components.add(new ChargeComponent(readDate(input), readMoney(input)));
+        }
+        return components;
+    }
+
+    static void writeDate(DataOutput output, LocalDate date) throws IOException {
+        output.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    static LocalDate readDate(DataInput input) throws IOException {
+        long epochDay = input.readLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    static void writeMoney(DataOutput output, Money amount) throws IOException {
+        output.writeLong(amount == null ? NO_AMOUNT : amount.getCents());
+    }
+
+    static Money readMoney(DataInput input) throws IOException {
+        long cents = input.readLong();
+        return cents == NO_AMOUNT ? null : Money.ofCents(cents);
+    }
+}
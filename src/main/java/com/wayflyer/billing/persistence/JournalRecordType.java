@@ -0,0 +1,21 @@
+package com.wayflyer.billing.persistence;
+
+public enum JournalRecordType {
+    DAY_STARTED,
+    ADVANCE_REGISTERED,
+    REVENUE_MATCHED,
+    READY_CHARGES_DRAINED,
+    CHARGE_APPLIED,
+    CHARGE_DEFERRED,
+    CHARGE_CANCELLED,
+    ADVANCE_COMPLETED,
+    DAY_COMPLETED,
+    READY_CHARGE_TAKEN,
+    CHARGE_SPLIT;
+
+    private static final JournalRecordType[] VALUES = values();
+
+    public static JournalRecordType of(int code) {
+        return VALUES[code];
+    }
+}
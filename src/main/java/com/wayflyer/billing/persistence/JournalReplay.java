@@ -0,0 +1,162 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.service.AdvanceRegistry;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import lombok.Getter;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static com.wayflyer.billing.persistence.BillingStateCodec.readAdvance;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readComponents;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readDate;
+import static com.wayflyer.billing.persistence.BillingStateCodec.readMoney;
+
+class JournalReplay {
+    private final AdvanceRegistry advances;
+
+    private final OutstandingChargeStore outstandingCharges;
+
+    private final BiFunction<Advance, Revenue, Money> chargeCalculator;
+
+    private final Map<Pair<Integer, LocalDate>, Deque<Charge>> inFlightCharges = new HashMap<>();
+
+    @Getter
+    private LocalDate lastCompletedDate;
+
+    @Getter
+    private int recordCount;
+
+    JournalReplay(AdvanceRegistry advances, OutstandingChargeStore outstandingCharges, BiFunction<Advance, Revenue, Money> chargeCalculator) {
+        this.advances = advances;
+        this.outstandingCharges = outstandingCharges;
+        this.chargeCalculator = chargeCalculator;
+    }
+
+    void apply(JournalRecordType type, DataInput payload) throws IOException {
+        recordCount++;
+        switch (type) {
+            case DAY_STARTED:
+                restoreInFlightCharges();
+                advances.activate(readDate(payload));
+                break;
+            case ADVANCE_REGISTERED:
+                LocalDate today = readDate(payload);
+                Advance advance = readAdvance(payload);
+                if (!advances.contains(advance.getId())) {
+                    advances.register(today, advance);
+                }
+                break;
+            case REVENUE_MATCHED:
+                var revenue = new Revenue(payload.readInt(), readDate(payload), readMoney(payload));
+                outstandingCharges.matchRevenue(revenue, charge -> chargeCalculator.apply(charge.getAdvance(), revenue));
+                break;
+            case READY_CHARGES_DRAINED:
+                for (Charge charge : outstandingCharges.drainReadyCharges()) {
+                    addInFlightCharge(charge);
+                }
+                break;
+            case READY_CHARGE_TAKEN:
+                Charge takenCharge = outstandingCharges.takeReadyCharge(payload.readInt());
+                if (takenCharge != null) {
+                    addInFlightCharge(takenCharge);
+                }
+                break;
+            case CHARGE_APPLIED:
+                Charge appliedCharge = readCharge(payload);
+                consumeInFlightCharge(appliedCharge);
+                markRevenueBilled(appliedCharge);
+                appliedCharge.getAdvance().applyCharge(appliedCharge);
+                break;
+            case CHARGE_DEFERRED:
+                Charge deferredCharge = readCharge(payload);
+                if (deferredCharge.getAmount() != null) {
+                    consumeInFlightCharge(deferredCharge);
+                }
+                markRevenueBilled(deferredCharge);
+                deferredCharge.setDateCharged(null);
+                outstandingCharges.add(deferredCharge);
+                break;
+            case CHARGE_SPLIT:
+                Advance splitAdvance = advances.get(payload.readInt());
+                var keptCharge = new Charge(splitAdvance, readDate(payload), null, readMoney(payload), readComponents(payload));
+                var remainder = new Charge(splitAdvance, readDate(payload), null, readMoney(payload), readComponents(payload));
+                splitInFlightCharge(keptCharge);
+                markRevenueBilled(remainder);
+                outstandingCharges.add(remainder);
+                break;
+            case CHARGE_CANCELLED:
+                Charge cancelledCharge = readCharge(payload);
+                consumeInFlightCharge(cancelledCharge);
+                markRevenueBilled(cancelledCharge);
+                break;
+            case ADVANCE_COMPLETED:
+                Advance completedAdvance = advances.get(payload.readInt());
+                completedAdvance.setCompleted(true);
+                outstandingCharges.removeCharges(completedAdvance);
+                advances.complete(completedAdvance);
+                break;
+            case DAY_COMPLETED:
+                lastCompletedDate = readDate(payload);
+                inFlightCharges.clear();
+                break;
+            default:
+                throw new IOException("Unknown journal record " + type);
+        }
+    }
+
+    void finish() {
+        restoreInFlightCharges();
+    }
+
+    private Charge readCharge(DataInput payload) throws IOException {
+        Advance advance = advances.get(payload.readInt());
+        return new Charge(advance, readDate(payload), readDate(payload), readMoney(payload), readComponents(payload));
+    }
+
+    private void addInFlightCharge(Charge charge) {
+        inFlightCharges.computeIfAbsent(inFlightKey(charge), key -> new ArrayDeque<>()).add(charge);
+    }
+
+    private void consumeInFlightCharge(Charge charge) {
+        var key = inFlightKey(charge);
+        Deque<Charge> charges = inFlightCharges.get(key);
+        if (charges != null) {
+            charges.poll();
+            if (charges.isEmpty()) {
+                inFlightCharges.remove(key);
+            }
+        }
+    }
+
+    private void splitInFlightCharge(Charge keptCharge) {
+        consumeInFlightCharge(keptCharge);
+        if (!keptCharge.getAmount().isZero()) {
+            addInFlightCharge(keptCharge);
+        }
+    }
+
+    private static void markRevenueBilled(Charge charge) {
+        charge.getAdvance().markRevenueBilled(charge.getLatestDateFor());
+    }
+
+    private void restoreInFlightCharges() {
+        inFlightCharges.values().forEach(charges -> charges.forEach(outstandingCharges::add));
+        inFlightCharges.clear();
+    }
+
+    private static Pair<Integer, LocalDate> inFlightKey(Charge charge) {
+        return Pair.of(charge.getAdvance().getId(), charge.getDateFor());
+    }
+}
@@ -0,0 +1,228 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Revenue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeAdvance;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeComponents;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeDate;
+import static com.wayflyer.billing.persistence.BillingStateCodec.writeMoney;
+
+public class MappedBillingJournal implements BillingJournal, Closeable {
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    private final FileChannel channel;
+
+    private final long regionSize;
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    private MappedBillingJournal(FileChannel channel, long regionSize, long position) throws IOException {
+        this.channel = channel;
+        this.regionSize = regionSize;
+        map(position, 0);
+    }
+
+    public static MappedBillingJournal create(Path path, long generation, long regionSize) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        var journal = new MappedBillingJournal(channel, regionSize, 0);
+        journal.region.putLong(generation);
+        return journal;
+    }
+
+    public static MappedBillingJournal open(Path path, long position, long regionSize) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new MappedBillingJournal(channel, regionSize, position);
+    }
+
+    public static long replay(Path path, long generation, RecordHandler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return -1;
+        }
+
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readLong() != generation) {
+                return -1;
+            }
+
+            long position = HEADER_SIZE;
+            while (true) {
+                int length;
+                byte[] record;
+                try {
+                    length = input.readInt();
+                    if (length <= 0) {
+                        break;
+                    }
+                    record = new byte[length];
+                    input.readFully(record);
+                } catch (EOFException ex) {
+                    break;
+                }
+
+                var payload = new DataInputStream(new ByteArrayInputStream(record));
+                handler.handle(JournalRecordType.of(payload.readUnsignedByte()), payload);
+                position += Integer.BYTES + length;
+            }
+
+            return position;
+        } catch (EOFException ex) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void dayStarted(LocalDate today) {
+        append(JournalRecordType.DAY_STARTED, output -> writeDate(output, today));
+    }
+
+    @Override
+    public void advanceRegistered(LocalDate today, Advance advance) {
+        append(JournalRecordType.ADVANCE_REGISTERED, output -> {
+            writeDate(output, today);
+            writeAdvance(output, advance);
+        });
+    }
+
+    @Override
+    public void revenueMatched(Revenue revenue) {
+        append(JournalRecordType.REVENUE_MATCHED, output -> {
+            output.writeInt(revenue.getCustomerId());
+            writeDate(output, revenue.getDate());
+            writeMoney(output, revenue.getAmount());
+        });
+    }
+
+    @Override
+    public void readyChargesDrained() {
+        append(JournalRecordType.READY_CHARGES_DRAINED, output -> {
+        });
+    }
+
+    @Override
+    public void readyChargeTaken(Charge charge) {
+        append(JournalRecordType.READY_CHARGE_TAKEN, output -> output.writeInt(charge.getAdvance().getId()));
+    }
+
+    @Override
+    public void chargeApplied(Charge charge) {
+        appendCharge(JournalRecordType.CHARGE_APPLIED, charge);
+    }
+
+    @Override
+    public void chargeDeferred(Charge charge) {
+        appendCharge(JournalRecordType.CHARGE_DEFERRED, charge);
+    }
+
+    @Override
+    public void chargeSplit(Charge charge, Charge remainder) {
+        append(JournalRecordType.CHARGE_SPLIT, output -> {
+            output.writeInt(charge.getAdvance().getId());
+            writeDate(output, charge.getDateFor());
+            writeMoney(output, charge.getAmount());
+            writeComponents(output, charge.getComponents());
+            writeDate(output, remainder.getDateFor());
+            writeMoney(output, remainder.getAmount());
+            writeComponents(output, remainder.getComponents());
+        });
+    }
+
+    @Override
+    public void chargeCancelled(Charge charge) {
+        appendCharge(JournalRecordType.CHARGE_CANCELLED, charge);
+    }
+
+    @Override
+    public void advanceCompleted(Advance advance) {
+        append(JournalRecordType.ADVANCE_COMPLETED, output -> output.writeInt(advance.getId()));
+    }
+
+    @Override
+    public void dayCompleted(LocalDate today) {
+        append(JournalRecordType.DAY_COMPLETED, output -> writeDate(output, today));
+        synchronized (this) {
+            region.force();
+        }
+    }
+
+    private void appendCharge(JournalRecordType type, Charge charge) {
+        append(type, output -> {
+            output.writeInt(charge.getAdvance().getId());
+            writeDate(output, charge.getDateFor());
+            writeDate(output, charge.getDateCharged());
+            writeMoney(output, charge.getAmount());
+            writeComponents(output, charge.getComponents());
+        });
+    }
+
+    private void append(JournalRecordType type, RecordWriter writer) {
+        try {
+            var bytes = new ByteArrayOutputStream(64);
+            var output = new DataOutputStream(bytes);
+            output.writeByte(type.ordinal());
+            writer.write(output);
+            append(bytes.toByteArray());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not journal " + type, ex);
+        }
+    }
+
+    private synchronized void append(byte[] record) throws IOException {
+        if (region.remaining() < Integer.BYTES + record.length + Integer.BYTES) {
+            region.force();
+            map(regionStart + region.position(), Integer.BYTES + record.length + Integer.BYTES);
+        }
+
+        int position = region.position();
+        region.position(position + Integer.BYTES);
+        region.put(record);
+        region.putInt(position, record.length);
+    }
+
+    private void map(long position, int minimumSize) throws IOException {
+        regionStart = position;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(regionSize, minimumSize));
+    }
+
+    public synchronized long getPosition() {
+        return regionStart + region.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        region.force();
+        channel.close();
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(JournalRecordType type, DataInput payload) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+}
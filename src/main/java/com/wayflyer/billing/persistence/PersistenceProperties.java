@@ -0,0 +1,19 @@
+package com.wayflyer.billing.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "config.persistence")
+public class PersistenceProperties {
+    private boolean enabled = false;
+
+    private Path path = Path.of(System.getProperty("java.io.tmpdir"), "wayflyer-billing", "state");
+
+    private DataSize journalRegionSize = DataSize.ofMegabytes(64);
+
+    private int snapshotIntervalDays = 7;
+}
@@ -0,0 +1,127 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+
+class ScenarioClient extends WayflyerClient {
+    private final ScenarioDataset dataset;
+
+    private final ScenarioDefinition definition;
+
+    private final double chargeFailureRate;
+
+    ScenarioClient(ScenarioDataset dataset, ScenarioDefinition definition) {
+        this(dataset, definition, 0.0);
+    }
+
+    ScenarioClient(ScenarioDataset dataset, ScenarioDefinition definition, double chargeFailureRate) {
+        super("scenario", definition.getName(), null, null, Runnable::run);
+        this.dataset = dataset;
+        this.definition = definition;
+        this.chargeFailureRate = chargeFailureRate;
+    }
+
+    @Override
+    public Advances getAdvances(LocalDate todayDate) {
+        return getNewAdvances(todayDate, advanceId -> false);
+    }
+
+    @Override
+    public CompletableFuture<Advances> getAdvancesAsync(LocalDate todayDate) {
+        return CompletableFuture.completedFuture(getAdvances(todayDate));
+    }
+
+    @Override
+    public Advances getNewAdvances(LocalDate todayDate, IntPredicate isKnownAdvance) {
+        var newAdvances = new ArrayList<Advance>();
+        for (Advance advance : dataset.getAdvances()) {
+            if (advance.getCreated().isAfter(todayDate)) {
+                break;
+            }
+            if (!isKnownAdvance.test(advance.getId())) {
+                newAdvances.add(copy(advance));
+            }
+        }
+
+        return new Advances(newAdvances);
+    }
+
+    @Override
+    public CompletableFuture<Advances> getNewAdvancesAsync(LocalDate todayDate, IntPredicate isKnownAdvance) {
+        return CompletableFuture.completedFuture(getNewAdvances(todayDate, isKnownAdvance));
+    }
+
+    @Override
+    public Revenue getRevenue(LocalDate todayDate, int customerId, LocalDate forDate) {
+        Money amount = dataset.getRevenue(customerId, forDate, todayDate);
+        return Revenue.builder()
+                .customerId(customerId)
+                .date(forDate)
+                .amount(amount == null ? null : scale(amount, definition.getRevenueFactor()))
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Revenue> getRevenueAsync(LocalDate todayDate, int customerId, LocalDate forDate) {
+        return CompletableFuture.completedFuture(getRevenue(todayDate, customerId, forDate));
+    }
+
+    @Override
+    public boolean charge(LocalDate todayDate, Charge charge) {
+        if (chargeFailureRate > 0 && new SplittableRandom(Objects.hash(charge.getAdvance().getId(), todayDate)).nextDouble() < chargeFailureRate) {
+            return false;
+        }
+
+        charge.setDateCharged(todayDate);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> chargeAsync(LocalDate todayDate, Charge charge) {
+        return CompletableFuture.completedFuture(charge(todayDate, charge));
+    }
+
+    @Override
+    public boolean reportBillingComplete(LocalDate todayDate, int advanceId) {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reportBillingCompleteAsync(LocalDate todayDate, int advanceId) {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    private Advance copy(Advance advance) {
+        return Advance.builder()
+                .id(advance.getId())
+                .customerId(advance.getCustomerId())
+                .created(advance.getCreated())
+                .totalAdvanced(advance.getTotalAdvanced())
+                .fee(advance.getFee())
+                .mandateId(advance.getMandateId())
+                .repaymentStartDate(advance.getRepaymentStartDate())
+                .repaymentPercentage(advance.getRepaymentPercentage().multiply(definition.getRepaymentFactor()))
+                .build();
+    }
+
+    private static Money scale(Money amount, BigDecimal factor) {
+        if (factor.compareTo(BigDecimal.ONE) == 0) {
+            return amount;
+        }
+
+        return Money.ofCents(BigDecimal.valueOf(amount.getCents()).multiply(factor).setScale(0, RoundingMode.HALF_EVEN).longValueExact());
+    }
+}
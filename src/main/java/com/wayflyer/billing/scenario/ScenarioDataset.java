@@ -0,0 +1,148 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class ScenarioDataset {
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    private final List<Advance> advances;
+
+    private final LocalDate firstRevenueDate;
+
+    private final Map<Integer, long[]> revenueCentsByCustomer;
+
+    private final Map<Integer, int[]> availabilityDelaysByCustomer;
+
+    ScenarioDataset(List<Advance> advances, LocalDate firstRevenueDate, Map<Integer, long[]> revenueCentsByCustomer) {
+        this(advances, firstRevenueDate, revenueCentsByCustomer, Map.of());
+    }
+
+    ScenarioDataset(List<Advance> advances, LocalDate firstRevenueDate, Map<Integer, long[]> revenueCentsByCustomer,
+                    Map<Integer, int[]> availabilityDelaysByCustomer) {
+        this.advances = advances
+                .stream()
+                .sorted(Comparator.comparing(Advance::getCreated).thenComparingInt(Advance::getId))
+                .collect(Collectors.toUnmodifiableList());
+        this.firstRevenueDate = firstRevenueDate;
+        this.revenueCentsByCustomer = Map.copyOf(revenueCentsByCustomer);
+        this.availabilityDelaysByCustomer = Map.copyOf(availabilityDelaysByCustomer);
+    }
+
+    public static ScenarioDataset fetch(WayflyerClient wayflyerClient, LocalDate startDate, LocalDate endDate, int unavailableRetries) {
+        long startTime = System.nanoTime();
+        LocalDate lastDay = endDate.minusDays(1);
+        Advances fetchedAdvances = wayflyerClient.getAdvances(lastDay);
+        if (fetchedAdvances == null) {
+            throw new IllegalStateException("Could not fetch the advances for the scenarios as of " + lastDay);
+        }
+
+        LocalDate firstRevenueDate = startDate.minusDays(1);
+        Map<Integer, LocalDate> firstRevenueDateByCustomer = new HashMap<>();
+        for (Advance advance : fetchedAdvances.getAdvances()) {
+            LocalDate customerFirstDate = advance.getRepaymentStartDate().minusDays(1);
+            firstRevenueDateByCustomer.merge(advance.getCustomerId(), customerFirstDate.isBefore(firstRevenueDate) ? firstRevenueDate : customerFirstDate,
+                    (date, other) -> date.isBefore(other) ? date : other);
+        }
+
+        int days = (int) Math.max(0, ChronoUnit.DAYS.between(firstRevenueDate, lastDay));
+        Map<Integer, long[]> revenueCentsByCustomer = new HashMap<>();
+        Map<Integer, int[]> availabilityDelaysByCustomer = new HashMap<>();
+        for (Integer customerId : firstRevenueDateByCustomer.keySet()) {
+            var revenueCents = new long[days];
+            Arrays.fill(revenueCents, MISSING);
+            revenueCentsByCustomer.put(customerId, revenueCents);
+            availabilityDelaysByCustomer.put(customerId, new int[days]);
+        }
+
+        var lookups = new ArrayList<Pair<Integer, LocalDate>>();
+        int revenueCount = 0;
+        int lookupCount = 0;
+        for (LocalDate today = startDate; !today.isAfter(lastDay); today = today.plusDays(1)) {
+            LocalDate forDate = today.minusDays(1);
+            firstRevenueDateByCustomer.forEach((customerId, customerFirstDate) -> {
+                if (!forDate.isBefore(customerFirstDate)) {
+                    lookups.add(Pair.of(customerId, forDate));
+                }
+            });
+
+            int attempts = today.equals(lastDay) ? 1 + Math.max(0, unavailableRetries) : 1;
+            for (int attempt = 0; attempt < attempts && !lookups.isEmpty(); attempt++) {
+                lookupCount += lookups.size();
+                revenueCount += lookUpRevenues(wayflyerClient, today, firstRevenueDate, lookups, revenueCentsByCustomer, availabilityDelaysByCustomer);
+            }
+        }
+
+        log.info("Fetched {} advances and {} revenues for {} customers for the scenarios with {} lookups in {} ms, {} revenues were never available.",
+                fetchedAdvances.getAdvances().size(), revenueCount, firstRevenueDateByCustomer.size(), lookupCount,
+                (System.nanoTime() - startTime) / 1_000_000, lookups.size());
+        return new ScenarioDataset(fetchedAdvances.getAdvances(), firstRevenueDate, revenueCentsByCustomer, availabilityDelaysByCustomer);
+    }
+
+    private static int lookUpRevenues(WayflyerClient wayflyerClient, LocalDate today, LocalDate firstRevenueDate, List<Pair<Integer, LocalDate>> lookups,
+                                      Map<Integer, long[]> revenueCentsByCustomer, Map<Integer, int[]> availabilityDelaysByCustomer) {
+        var pendingLookups = new ArrayList<>(lookups);
+        lookups.clear();
+
+        int revenueCount = 0;
+        for (int from = 0; from < pendingLookups.size(); from += LOOKUP_BATCH_SIZE) {
+            List<CompletableFuture<Revenue>> revenueFutures = pendingLookups.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, pendingLookups.size()))
+                    .stream()
+                    .map(lookup -> wayflyerClient.getRevenueAsync(today, lookup.getLeft(), lookup.getRight()))
+                    .collect(Collectors.toList());
+
+            for (CompletableFuture<Revenue> revenueFuture : revenueFutures) {
+                Revenue revenue = revenueFuture.join();
+                if (revenue.getAmount() == null) {
+                    lookups.add(Pair.of(revenue.getCustomerId(), revenue.getDate()));
+                } else {
+                    int index = (int) ChronoUnit.DAYS.between(firstRevenueDate, revenue.getDate());
+                    revenueCentsByCustomer.get(revenue.getCustomerId())[index] = revenue.getAmount().getCents();
+                    availabilityDelaysByCustomer.get(revenue.getCustomerId())[index] = (int) ChronoUnit.DAYS.between(revenue.getDate().plusDays(1), today);
+                    revenueCount++;
+                }
+            }
+        }
+
+        return revenueCount;
+    }
+
+    public List<Advance> getAdvances() {
+        return advances;
+    }
+
+    public Money getRevenue(int customerId, LocalDate forDate, LocalDate today) {
+        long[] revenueCents = revenueCentsByCustomer.get(customerId);
+        long index = ChronoUnit.DAYS.between(firstRevenueDate, forDate);
+        if (revenueCents == null || index < 0 || index >= revenueCents.length || revenueCents[(int) index] == MISSING) {
+            return null;
+        }
+
+        int[] availabilityDelays = availabilityDelaysByCustomer.get(customerId);
+        int availabilityDelay = availabilityDelays == null ? 0 : availabilityDelays[(int) index];
+        if (today.isBefore(forDate.plusDays(1 + availabilityDelay))) {
+            return null;
+        }
+
+        return Money.ofCents(revenueCents[(int) index]);
+    }
+}
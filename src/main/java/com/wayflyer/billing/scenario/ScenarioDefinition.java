@@ -0,0 +1,16 @@
+package com.wayflyer.billing.scenario;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ScenarioDefinition {
+    private String name;
+
+    private BigDecimal maxDailyCharge;
+
+    private BigDecimal repaymentFactor = BigDecimal.ONE;
+
+    private BigDecimal revenueFactor = BigDecimal.ONE;
+}
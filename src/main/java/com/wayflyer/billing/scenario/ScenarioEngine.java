@@ -0,0 +1,140 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.client.WayflyerClientMetrics;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.persistence.BillingPersistence;
+import com.wayflyer.billing.persistence.PersistenceProperties;
+import com.wayflyer.billing.service.AdvanceArchive;
+import com.wayflyer.billing.service.BillingLanes;
+import com.wayflyer.billing.service.BillingMetrics;
+import com.wayflyer.billing.service.BillingService;
+import com.wayflyer.billing.service.DelayedRevenueProperties;
+import com.wayflyer.billing.service.PipelineProperties;
+import com.wayflyer.billing.service.RevenueCache;
+import com.wayflyer.billing.service.RevenueCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ScenarioEngine {
+    private final WayflyerClient wayflyerClient;
+
+    private final ScenarioProperties properties;
+
+    private final LocalDate startDate;
+
+    private final LocalDate endDate;
+
+    private final BigDecimal defaultMaxDailyCharge;
+
+    public ScenarioEngine(WayflyerClient wayflyerClient,
+                          ScenarioProperties properties,
+                          @Value("#{T(java.time.LocalDate).parse('${simulator.startDate}')}") LocalDate startDate,
+                          @Value("#{T(java.time.LocalDate).parse('${simulator.endDate}')}") LocalDate endDate,
+                          @Value("${config.maxDailyCharge}") BigDecimal defaultMaxDailyCharge
+    ) {
+        this.wayflyerClient = wayflyerClient;
+        this.properties = properties;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.defaultMaxDailyCharge = defaultMaxDailyCharge;
+    }
+
+    public List<ScenarioResult> run() {
+        validateDefinitions();
+        log.info("Running {} scenarios from {} to {}.", properties.getDefinitions().size(), startDate, endDate);
+
+        var dataset = ScenarioDataset.fetch(wayflyerClient, startDate, endDate, properties.getUnavailableRetries());
+        List<ScenarioResult> results = run(dataset);
+
+        var summary = new ScenarioSummary(results);
+        log.info("Scenario repayment curves (repaid share and amount charged):\n{}", summary.formatTable());
+        summary.writeCsv(properties.getPath().resolve("summary.csv"));
+        return results;
+    }
+
+    List<ScenarioResult> run(ScenarioDataset dataset) {
+        validateDefinitions();
+
+        var threadFactory = new CustomizableThreadFactory("scenario-");
+        threadFactory.setDaemon(true);
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(properties.getParallelism(), properties.getDefinitions().size())), threadFactory);
+        try {
+            List<CompletableFuture<ScenarioResult>> resultFutures = properties.getDefinitions()
+                    .stream()
+                    .map(definition -> CompletableFuture.supplyAsync(() -> runScenario(dataset, definition), executor))
+                    .collect(Collectors.toList());
+
+            return resultFutures
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private ScenarioResult runScenario(ScenarioDataset dataset, ScenarioDefinition definition) {
+        long startTime = System.nanoTime();
+        var reports = new ScenarioReportCollector();
+        var advanceArchive = new AdvanceArchive(properties.getPath().resolve(definition.getName()).resolve("completed-advances.bin"));
+        try {
+            BillingService billingService = createBillingService(new ScenarioClient(dataset, definition, properties.getChargeFailureRate()), advanceArchive, reports);
+            billingService.setMaxDailyCharge(Money.of(definition.getMaxDailyCharge() == null ? defaultMaxDailyCharge : definition.getMaxDailyCharge()));
+            billingService.setStreamAdvances(true);
+
+            for (LocalDate today = startDate; today.isBefore(endDate); today = today.plusDays(1)) {
+                billingService.process(today);
+            }
+        } finally {
+            advanceArchive.close();
+        }
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        log.info("Scenario {} finished in {} ms.", definition.getName(), elapsedMillis);
+        return new ScenarioResult(definition.getName(), reports.getReports(), elapsedMillis);
+    }
+
+    private BillingService createBillingService(ScenarioClient client, AdvanceArchive advanceArchive, ScenarioReportCollector reports) {
+        var revenueCacheProperties = new RevenueCacheProperties();
+        revenueCacheProperties.setEnabled(false);
+        var meterRegistry = new SimpleMeterRegistry();
+
+        return new BillingService(client,
+                new RevenueCache(client, revenueCacheProperties),
+                advanceArchive,
+                new DelayedRevenueProperties(),
+                new BillingMetrics(meterRegistry, new WayflyerClientMetrics(meterRegistry)),
+                reports,
+                new BillingLanes(1, Runnable::run),
+                new BillingPersistence(new PersistenceProperties()),
+                new PipelineProperties());
+    }
+
+    private void validateDefinitions() {
+        List<ScenarioDefinition> definitions = properties.getDefinitions();
+        if (definitions.isEmpty()) {
+            throw new IllegalStateException("No scenarios are defined under simulator.scenarios.definitions");
+        }
+
+        var names = new HashSet<String>();
+        for (ScenarioDefinition definition : definitions) {
+            if (definition.getName() == null || definition.getName().isBlank() || !names.add(definition.getName())) {
+                throw new IllegalStateException("Every scenario needs a unique name, got '" + definition.getName() + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.wayflyer.billing.scenario;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "simulator.scenarios")
+public class ScenarioProperties {
+    private boolean enabled = false;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int unavailableRetries = 3;
+
+    private double chargeFailureRate = 0.0;
+
+    private Path path = Path.of(System.getProperty("java.io.tmpdir"), "wayflyer-billing", "scenarios");
+
+    private List<ScenarioDefinition> definitions = new ArrayList<>();
+}
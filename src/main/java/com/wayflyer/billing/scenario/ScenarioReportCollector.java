@@ -0,0 +1,32 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.service.DailyReport;
+import com.wayflyer.billing.service.DailyReportWriter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class ScenarioReportCollector extends DailyReportWriter {
+    private final List<DailyReport> reports = new ArrayList<>();
+
+    ScenarioReportCollector() {
+        super(null);
+    }
+
+    @Override
+    public void write(DailyReport report, Collection<Advance> activeAdvances) {
+        reports.add(report);
+    }
+
+    @Override
+    public void writeCarryForwardCharge(LocalDate today, Charge charge) {
+    }
+
+    List<DailyReport> getReports() {
+        return reports;
+    }
+}
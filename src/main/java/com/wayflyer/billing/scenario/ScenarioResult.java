@@ -0,0 +1,15 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.service.DailyReport;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ScenarioResult {
+    String name;
+
+    List<DailyReport> reports;
+
+    long elapsedMillis;
+}
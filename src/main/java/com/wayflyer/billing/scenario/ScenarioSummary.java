@@ -0,0 +1,114 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.service.DailyReport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+public class ScenarioSummary {
+    private static final int MIN_COLUMN_WIDTH = 24;
+
+    private final List<ScenarioResult> results;
+
+    private final List<LocalDate> dates;
+
+    private final long[][] chargedCents;
+
+    private final long[][] outstandingCents;
+
+    private final int[][] completedCounts;
+
+    public ScenarioSummary(List<ScenarioResult> results) {
+        this.results = results;
+        dates = new ArrayList<>();
+        if (!results.isEmpty()) {
+            results.get(0).getReports().forEach(report -> dates.add(report.getDate()));
+        }
+
+        chargedCents = new long[results.size()][dates.size()];
+        outstandingCents = new long[results.size()][dates.size()];
+        completedCounts = new int[results.size()][dates.size()];
+        for (int scenario = 0; scenario < results.size(); scenario++) {
+            List<DailyReport> reports = results.get(scenario).getReports();
+            long charged = 0;
+            for (int day = 0; day < dates.size() && day < reports.size(); day++) {
+                DailyReport report = reports.get(day);
+                charged += report.getAmountChargedCents();
+                chargedCents[scenario][day] = charged;
+                outstandingCents[scenario][day] = report.getOutstandingBalanceCents();
+                completedCounts[scenario][day] = report.getCompletedCount();
+            }
+        }
+    }
+
+    public String formatTable() {
+        int width = results.stream().mapToInt(result -> result.getName().length()).max().orElse(0);
+        String cellFormat = " | %" + Math.max(width, MIN_COLUMN_WIDTH) + "s";
+
+        var table = new StringBuilder(String.format(Locale.ROOT, "%-10s", "date"));
+        results.forEach(result -> table.append(String.format(Locale.ROOT, cellFormat, result.getName())));
+        for (int day = 0; day < dates.size(); day++) {
+            LocalDate date = dates.get(day);
+            if (day != dates.size() - 1 && date.getMonth() == date.plusDays(1).getMonth()) {
+                continue;
+            }
+
+            table.append('\n').append(date);
+            for (int scenario = 0; scenario < results.size(); scenario++) {
+                table.append(String.format(Locale.ROOT, cellFormat, String.format(Locale.ROOT, "%.1f%% %s", repaidPercentage(scenario, day), Money.ofCents(chargedCents[scenario][day]))));
+            }
+        }
+
+        if (!dates.isEmpty()) {
+            int last = dates.size() - 1;
+            table.append('\n').append(String.format(Locale.ROOT, "%-10s", "completed"));
+            for (int scenario = 0; scenario < results.size(); scenario++) {
+                table.append(String.format(Locale.ROOT, cellFormat, completedCounts[scenario][last]));
+            }
+            table.append('\n').append(String.format(Locale.ROOT, "%-10s", "run ms"));
+            results.forEach(result -> table.append(String.format(Locale.ROOT, cellFormat, result.getElapsedMillis())));
+        }
+
+        return table.toString();
+    }
+
+    public void writeCsv(Path path) {
+        var lines = new ArrayList<String>(dates.size() + 1);
+        var header = new StringJoiner(",").add("date");
+        for (ScenarioResult result : results) {
+            header.add(result.getName() + " charged").add(result.getName() + " outstanding").add(result.getName() + " completed");
+        }
+        lines.add(header.toString());
+
+        for (int day = 0; day < dates.size(); day++) {
+            var line = new StringJoiner(",").add(dates.get(day).toString());
+            for (int scenario = 0; scenario < results.size(); scenario++) {
+                line.add(Money.ofCents(chargedCents[scenario][day]).toString())
+                        .add(Money.ofCents(outstandingCents[scenario][day]).toString())
+                        .add(String.valueOf(completedCounts[scenario][day]));
+            }
+            lines.add(line.toString());
+        }
+
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.write(path, lines);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the scenario summary to " + path, ex);
+        }
+    }
+
+    private double repaidPercentage(int scenario, int day) {
+        long charged = chargedCents[scenario][day];
+        long total = charged + outstandingCents[scenario][day];
+        return total == 0 ? 0 : 100.0 * charged / total;
+    }
+}
@@ -0,0 +1,135 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class AdvanceArchive {
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Path path;
+
+    private final Map<Integer, Long> offsets = new HashMap<>();
+
+    private RandomAccessFile file;
+
+    public AdvanceArchive(@Value("${config.archive.path}") Path path) {
+        this.path = path;
+    }
+
+    public synchronized void write(Advance advance) {
+        try {
+            var record = new ByteArrayOutputStream(64);
+            var output = new DataOutputStream(record);
+            output.writeInt(advance.getId());
+            output.writeInt(advance.getCustomerId());
+            output.writeInt(advance.getMandateId());
+            writeDate(output, advance.getCreated());
+            output.writeLong(advance.getTotalAdvanced().getCents());
+            output.writeLong(advance.getFee().getCents());
+            writeDate(output, advance.getRepaymentStartDate());
+            output.writeUTF(advance.getRepaymentPercentage().toPlainString());
+            output.writeLong(advance.getOutstandingAmount().getCents());
+            output.writeBoolean(advance.isCompleted());
+
+            RandomAccessFile archiveFile = getFile();
+            long offset = archiveFile.length();
+            archiveFile.seek(offset);
+            archiveFile.write(record.toByteArray());
+            offsets.put(advance.getId(), offset);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not archive advance " + advance.getId(), ex);
+        }
+    }
+
+    public synchronized Advance read(int advanceId) {
+        Long offset = offsets.get(advanceId);
+        if (offset == null) {
+            return null;
+        }
+
+        try {
+            RandomAccessFile archiveFile = getFile();
+            archiveFile.seek(offset);
+            return Advance.builder()
+                    .id(archiveFile.readInt())
+                    .customerId(archiveFile.readInt())
+                    .mandateId(archiveFile.readInt())
+                    .created(readDate(archiveFile))
+                    .totalAdvanced(Money.ofCents(archiveFile.readLong()))
+                    .fee(Money.ofCents(archiveFile.readLong()))
+                    .repaymentStartDate(readDate(archiveFile))
+                    .repaymentPercentage(new BigDecimal(archiveFile.readUTF()))
+                    .outstandingAmount(Money.ofCents(archiveFile.readLong()))
+                    .completed(archiveFile.readBoolean())
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read archived advance " + advanceId, ex);
+        }
+    }
+
+    public synchronized List<Integer> getAdvanceIds() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    public synchronized boolean contains(int advanceId) {
+        return offsets.containsKey(advanceId);
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    private RandomAccessFile getFile() throws IOException {
+        if (file == null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.deleteIfExists(path);
+            file = new RandomAccessFile(path.toFile(), "rw");
+            log.info("Archiving completed advances to {}.", path);
+        }
+
+        return file;
+    }
+
+    private static void writeDate(DataOutputStream output, LocalDate date) throws IOException {
+        output.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(RandomAccessFile input) throws IOException {
+        long epochDay = input.readLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            file.close();
+        } catch (IOException ex) {
+            log.warn("Could not close the advance archive.", ex);
+        }
+        file = null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class AdvanceRegistry {
+    private static final Comparator<Advance> REPAYMENT_ORDER = Comparator
+            .comparing(Advance::getRepaymentStartDate)
+            .thenComparingInt(Advance::getId);
+
+    private final Map<Integer, Advance> advancesById = new ConcurrentHashMap<>();
+
+    private final NavigableSet<Advance> notStartedAdvances = new ConcurrentSkipListSet<>(REPAYMENT_ORDER);
+
+    private final NavigableSet<Advance> activeAdvances = new ConcurrentSkipListSet<>(REPAYMENT_ORDER);
+
+    private final AtomicInteger notStartedCount = new AtomicInteger();
+
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final AdvanceArchive completedAdvances;
+
+    public AdvanceRegistry(AdvanceArchive completedAdvances) {
+        this.completedAdvances = completedAdvances;
+    }
+
+    public boolean contains(int advanceId) {
+        return advancesById.containsKey(advanceId) || completedAdvances.contains(advanceId);
+    }
+
+    public Advance get(int advanceId) {
+        Advance advance = advancesById.get(advanceId);
+        if (advance == null) {
+            advance = completedAdvances.read(advanceId);
+        }
+
+        return advance;
+    }
+
+    public void register(LocalDate today, Advance advance) {
+        if (advancesById.putIfAbsent(advance.getId(), advance) != null) {
+            return;
+        }
+
+        if (today.isBefore(advance.getRepaymentStartDate())) {
+            notStartedAdvances.add(advance);
+            notStartedCount.incrementAndGet();
+        } else {
+            activeAdvances.add(advance);
+            activeCount.incrementAndGet();
+        }
+    }
+
+    public void activate(LocalDate today) {
+        for (Advance advance : notStartedAdvances) {
+            if (today.isBefore(advance.getRepaymentStartDate())) {
+                break;
+            }
+
+            if (notStartedAdvances.remove(advance)) {
+                notStartedCount.decrementAndGet();
+                activeAdvances.add(advance);
+                activeCount.incrementAndGet();
+            }
+        }
+    }
+
+    public void complete(Advance advance) {
+        if (activeAdvances.remove(advance)) {
+            activeCount.decrementAndGet();
+            completedAdvances.write(advance);
+            advancesById.remove(advance.getId(), advance);
+        }
+    }
+
+    public Collection<Advance> getActive() {
+        return Collections.unmodifiableCollection(activeAdvances);
+    }
+
+    public Collection<Advance> getNotStarted() {
+        return Collections.unmodifiableCollection(notStartedAdvances);
+    }
+
+    public Collection<Advance> getCompleted() {
+        return completedAdvances.getAdvanceIds()
+                .stream()
+                .map(completedAdvances::read)
+                .collect(Collectors.toList());
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getNotStartedCount() {
+        return notStartedCount.get();
+    }
+
+    public int getCompletedCount() {
+        return completedAdvances.size();
+    }
+
+    public int size() {
+        return getActiveCount() + getNotStartedCount() + getCompletedCount();
+    }
+}
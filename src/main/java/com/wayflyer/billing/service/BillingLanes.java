@@ -0,0 +1,64 @@
+package com.wayflyer.billing.service;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+@Component
+public class BillingLanes {
+    @Getter
+    private final int laneCount;
+
+    private final Executor executor;
+
+    @Autowired
+    public BillingLanes(@Value("${config.lanes}") int laneCount, @Qualifier("billingLaneExecutor") Executor executor) {
+        this.laneCount = Math.max(1, laneCount);
+        this.executor = executor;
+    }
+
+    public <T> List<LaneResult> run(LocalDate today, Collection<T> items, ToIntFunction<T> partitionKey, BiConsumer<T, LaneResult> task) {
+        if (laneCount == 1 || items.size() <= 1) {
+            return List.of(runLane(today, items, task));
+        }
+
+        List<List<T>> lanes = new ArrayList<>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            lanes.add(new ArrayList<>(items.size() / laneCount + 1));
+        }
+        for (T item : items) {
+            lanes.get(Math.floorMod(partitionKey.applyAsInt(item), laneCount)).add(item);
+        }
+
+        List<CompletableFuture<LaneResult>> laneFutures = lanes
+                .stream()
+                .filter(lane -> !lane.isEmpty())
+                .map(lane -> CompletableFuture.supplyAsync(() -> runLane(today, lane, task), executor))
+                .collect(Collectors.toList());
+
+        return laneFutures
+                .stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private <T> LaneResult runLane(LocalDate today, Collection<T> items, BiConsumer<T, LaneResult> task) {
+        var laneResult = new LaneResult(today);
+        for (T item : items) {
+            task.accept(item, laneResult);
+        }
+        return laneResult;
+    }
+}
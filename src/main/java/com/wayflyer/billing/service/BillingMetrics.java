@@ -0,0 +1,88 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.client.WayflyerClientMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class BillingMetrics {
+    private final WayflyerClientMetrics clientMetrics;
+
+    private final Map<BillingPhase, Timer> phaseTimers = new EnumMap<>(BillingPhase.class);
+
+    private final Map<BillingPhase, Counter> phaseItemCounters = new EnumMap<>(BillingPhase.class);
+
+    private final Map<BillingPhase, Long> dayPhaseNanos = new EnumMap<>(BillingPhase.class);
+
+    private final Map<BillingPhase, Long> dayPhaseItems = new EnumMap<>(BillingPhase.class);
+
+    public BillingMetrics(MeterRegistry meterRegistry, WayflyerClientMetrics clientMetrics) {
+        this.clientMetrics = clientMetrics;
+
+        for (BillingPhase phase : BillingPhase.values()) {
+            String phaseTag = phase.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            phaseTimers.put(phase, Timer.builder("billing.process.phase")
+                    .description("Time spent in each phase of a daily billing run")
+                    .tag("phase", phaseTag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            phaseItemCounters.put(phase, Counter.builder("billing.process.items")
+                    .description("Items handled in each phase of a daily billing run")
+                    .tag("phase", phaseTag)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void startDay() {
+        clientMetrics.startDay();
+        dayPhaseNanos.clear();
+        dayPhaseItems.clear();
+    }
+
+    public void time(BillingPhase phase, Runnable runnable) {
+        time(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public <T> T time(BillingPhase phase, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            long duration = System.nanoTime() - start;
+            phaseTimers.get(phase).record(duration, TimeUnit.NANOSECONDS);
+            dayPhaseNanos.merge(phase, duration, Long::sum);
+        }
+    }
+
+    public void count(BillingPhase phase, long items) {
+        phaseItemCounters.get(phase).increment(items);
+        dayPhaseItems.merge(phase, items, Long::sum);
+    }
+
+    public String summarizePhases() {
+        var summary = new StringJoiner(", ");
+        for (BillingPhase phase : BillingPhase.values()) {
+            summary.add(String.format(Locale.ROOT, "%s=%dms/%d",
+                    phase.name().toLowerCase(Locale.ROOT),
+                    TimeUnit.NANOSECONDS.toMillis(dayPhaseNanos.getOrDefault(phase, 0L)),
+                    dayPhaseItems.getOrDefault(phase, 0L)));
+        }
+        return summary.toString();
+    }
+
+    public String summarizeRequests() {
+        return clientMetrics.summarize();
+    }
+}
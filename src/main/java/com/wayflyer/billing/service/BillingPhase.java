@@ -0,0 +1,9 @@
+package com.wayflyer.billing.service;
+
+public enum BillingPhase {
+    OUTSTANDING_CHARGES,
+    ADVANCES,
+    REVENUES,
+    BILLING,
+    COMPLETION
+}
@@ -4,174 +4,447 @@ import com.wayflyer.billing.client.WayflyerClient;
 import com.wayflyer.billing.model.Advance;
 import com.wayflyer.billing.model.Advances;
 import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
 import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.persistence.BillingPersistence;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class BillingService {
-    @Value("${config.maxDailyCharge}")
-    private BigDecimal maxDailyCharge;
+    @Setter
+    @Value("#{T(com.wayflyer.billing.model.Money).parse('${config.maxDailyCharge}')}")
+    private Money maxDailyCharge;
+
+    @Setter
+    @Value("${config.streamAdvances}")
+    private boolean streamAdvances;
+
+    @Setter
+    @Value("${config.chargeLedger.enabled}")
+    private boolean chargeLedgerEnabled;
+
+    @Value("${config.chargeLedger.retentionDays}")
+    private int chargeLedgerRetentionDays;
 
     private final WayflyerClient wayflyerClient;
 
     @Getter
-    private final Map<Integer, Advance> advances;
+    private final RevenueCache revenueCache;
+
+    @Getter
+    private final AdvanceRegistry advances;
+
+    private final OutstandingChargeStore outstandingCharges;
+
+    @Getter
+    private final DelayedRevenueScheduler delayedRevenueScheduler;
+
+    private final BillingMetrics metrics;
+
+    private final DailyReportWriter dailyReportWriter;
+
+    private final BillingLanes lanes;
+
+    private final BillingPersistence persistence;
+
+    private final PipelineProperties pipeline;
+
+    @Getter
+    private DailyReport dailyReport;
 
-    private final List<Charge> outstandingCharges;
+    private long outstandingBalanceCents;
+
+    private LocalDate prefetchedAdvancesDate;
+
+    private CompletableFuture<Advances> prefetchedAdvances;
 
     @Autowired
-    public BillingService(WayflyerClient wayflyerClient) {
+    public BillingService(WayflyerClient wayflyerClient,
+                          RevenueCache revenueCache,
+                          AdvanceArchive advanceArchive,
+                          DelayedRevenueProperties delayedRevenueProperties,
+                          BillingMetrics metrics,
+                          DailyReportWriter dailyReportWriter,
+                          BillingLanes lanes,
+                          BillingPersistence persistence,
+                          PipelineProperties pipeline
+    ) {
         this.wayflyerClient = wayflyerClient;
+        this.revenueCache = revenueCache;
+        this.metrics = metrics;
+        this.dailyReportWriter = dailyReportWriter;
+        this.lanes = lanes;
+        this.persistence = persistence;
+        this.pipeline = pipeline;
+
+        advances = new AdvanceRegistry(advanceArchive);
+        outstandingCharges = new OutstandingChargeStore();
+        delayedRevenueScheduler = new DelayedRevenueScheduler(delayedRevenueProperties);
+    }
+
+    public LocalDate restore() {
+        LocalDate lastProcessedDate = persistence.recover(advances, outstandingCharges, this::calculateCharge);
+        outstandingBalanceCents = Stream.concat(advances.getNotStarted().stream(), advances.getActive().stream())
+                .mapToLong(advance -> advance.getOutstandingAmount().getCents())
+                .sum();
 
-        advances = new HashMap<>();
-        outstandingCharges = new ArrayList<>();
+        return lastProcessedDate;
     }
 
     public void process(LocalDate today) {
-        processOutstandingCharges(today);
+        process(today, null);
+    }
+
+    public void process(LocalDate today, LocalDate nextDay) {
+        metrics.startDay();
+        dailyReport = new DailyReport(today);
+        persistence.getJournal().dayStarted(today);
 
-        retrieveAdvances(today);
+        metrics.time(BillingPhase.OUTSTANDING_CHARGES, () -> metrics.count(BillingPhase.OUTSTANDING_CHARGES, processOutstandingCharges(today)));
 
-        Map<Integer, Revenue> revenueMap = retrieveRevenues(today, advances.values());
+        metrics.time(BillingPhase.ADVANCES, () -> {
+            metrics.count(BillingPhase.ADVANCES, retrieveAdvances(today));
+            advances.activate(today);
+        });
+
+        if (pipeline.isEnabled()) {
+            if (nextDay != null) {
+                prefetchAdvances(nextDay);
+            }
 
-        for (Advance advance : advances.values()) {
-            billBasedOnRevenue(today, advance, revenueMap.getOrDefault(advance.getCustomerId(), null));
+            metrics.count(BillingPhase.REVENUES, billInBatches(today));
+
+            metrics.time(BillingPhase.BILLING, () -> compactChargeLedgers(today));
+        } else {
+            Map<Integer, Revenue> revenueMap = metrics.time(BillingPhase.REVENUES, () -> retrieveRevenues(today, advances.getActive()));
+            metrics.count(BillingPhase.REVENUES, revenueMap.size());
+
+            metrics.time(BillingPhase.BILLING, () -> {
+                mergeLaneResults(lanes.run(today, advances.getActive(), Advance::getCustomerId,
+                        (advance, lane) -> billBasedOnRevenue(today, advance, revenueMap.getOrDefault(advance.getCustomerId(), null), lane)));
+
+                compactChargeLedgers(today);
+            });
         }
+        metrics.count(BillingPhase.BILLING, advances.getActiveCount());
 
-        processCompletedAdvances(today, advances.values());
-        log.info("End of day outstanding advance amounts report: {}", advances.values());
+        finishDay(today);
     }
 
-    private void billBasedOnRevenue(LocalDate today, Advance advance, Revenue revenue) {
-        if (advance.isCompleted()) {
+    public void catchUp(LocalDate from, LocalDate to) {
+        metrics.startDay();
+        dailyReport = new DailyReport(to);
+        persistence.getJournal().dayStarted(to);
+        log.info("Catching up on billing from {} to {}.", from, to);
+
+        metrics.time(BillingPhase.OUTSTANDING_CHARGES, () -> calculateChargesForDelayedRevenues(to));
+
+        metrics.time(BillingPhase.ADVANCES, () -> {
+            metrics.count(BillingPhase.ADVANCES, retrieveAdvances(to));
+            advances.activate(to);
+        });
+
+        Map<Integer, List<Advance>> advancesByMandate = advances.getActive()
+                .stream()
+                .filter(advance -> !advance.isCompleted())
+                .collect(Collectors.groupingBy(Advance::getMandateId, LinkedHashMap::new, Collectors.toList()));
+        Map<Pair<Integer, LocalDate>, CompletableFuture<Revenue>> revenueFutures = metrics.time(BillingPhase.REVENUES,
+                () -> retrieveRevenuesForRange(from, to, advancesByMandate.values()));
+        metrics.count(BillingPhase.REVENUES, revenueFutures.size());
+
+        metrics.time(BillingPhase.BILLING, () -> {
+            mergeLaneResults(lanes.run(to, advancesByMandate.values(), mandateAdvances -> mandateAdvances.get(0).getCustomerId(),
+                    (mandateAdvances, lane) -> catchUpMandate(from, to, mandateAdvances, revenueFutures, lane)));
+
+            compactChargeLedgers(to);
+        });
+        metrics.count(BillingPhase.BILLING, advances.getActiveCount());
+
+        finishDay(to);
+    }
+
+    private void finishDay(LocalDate today) {
+        metrics.time(BillingPhase.COMPLETION, () -> metrics.count(BillingPhase.COMPLETION, processCompletedAdvances(today, advances.getActive())));
+
+        log.info("End of day {} summary: phases [{}], requests [{}], revenue cache {} hits ({} negative) / {} misses / {} evictions.",
+                today, metrics.summarizePhases(), metrics.summarizeRequests(),
+                revenueCache.getHitCount(), revenueCache.getNegativeHitCount(), revenueCache.getMissCount(), revenueCache.getEvictionCount());
+
+        persistence.checkpoint(today, advances, outstandingCharges);
+
+        dailyReport.close(advances, outstandingCharges, outstandingBalanceCents);
+        dailyReportWriter.write(dailyReport, advances.getActive());
+    }
+
+    private void compactChargeLedgers(LocalDate today) {
+        if (chargeLedgerRetentionDays <= 0) {
             return;
         }
 
-        if (today.isBefore(advance.getRepaymentStartDate())) {
-            return;
+        LocalDate retainFrom = today.minusDays(chargeLedgerRetentionDays);
+        for (Advance advance : advances.getActive()) {
+            advance.compactChargeLedger(retainFrom);
         }
+    }
 
-        if (revenue == null) {
-            outstandingCharges.add(new Charge(advance, today, null, null));
+    private int billInBatches(LocalDate today) {
+        Map<Integer, List<Advance>> advancesByCustomer = advances.getActive()
+                .stream()
+                .filter(advance -> !advance.isCompleted())
+                .collect(Collectors.groupingBy(Advance::getCustomerId, LinkedHashMap::new, Collectors.toList()));
+        List<Integer> customerIds = new ArrayList<>(advancesByCustomer.keySet());
+
+        Deque<Pair<List<Integer>, CompletableFuture<Map<Integer, Revenue>>>> batchesInFlight = new ArrayDeque<>(pipeline.getMaxBatchesInFlight());
+        int nextCustomer = 0;
+        int revenueCount = 0;
+        while (nextCustomer < customerIds.size() || !batchesInFlight.isEmpty()) {
+            while (nextCustomer < customerIds.size() && batchesInFlight.size() < pipeline.getMaxBatchesInFlight()) {
+                List<Integer> batch = customerIds.subList(nextCustomer, Math.min(nextCustomer + pipeline.getRevenueBatchSize(), customerIds.size()));
+                batchesInFlight.add(Pair.of(batch, retrieveRevenuesAsync(today, batch)));
+                nextCustomer += batch.size();
+            }
+
+            var batch = batchesInFlight.poll();
+            Map<Integer, Revenue> revenueMap = metrics.time(BillingPhase.REVENUES, () -> batch.getRight().join());
+            revenueCount += revenueMap.size();
+
+            List<Advance> batchAdvances = batch.getLeft()
+                    .stream()
+                    .flatMap(customerId -> advancesByCustomer.get(customerId).stream())
+                    .collect(Collectors.toList());
+            metrics.time(BillingPhase.BILLING, () -> mergeLaneResults(lanes.run(today, batchAdvances, Advance::getCustomerId,
+                    (advance, lane) -> billBasedOnRevenue(today, advance, revenueMap.get(advance.getCustomerId()), lane))));
+        }
+
+        return revenueCount;
+    }
+
+    private void billBasedOnRevenue(LocalDate today, Advance advance, Revenue revenue, LaneResult lane) {
+        if (advance.isCompleted()) {
             return;
         }
 
-        BigDecimal chargeAmount = calculateCharge(advance, revenue);
+        Charge carryForward = outstandingCharges.takeReadyCharge(advance.getId());
+        if (carryForward != null) {
+            persistence.getJournal().readyChargeTaken(carryForward);
+        }
+
+        LocalDate revenueDate = today.minusDays(1);
+        Charge charge = carryForward;
+        if (advance.isRevenueBilled(revenueDate)) {
+            log.debug("Advance {} was already billed for the revenue of {}, only settling its carry-forward charge.", advance.getId(), revenueDate);
+        } else if (revenue == null || revenue.getAmount() == null) {
+            advance.markRevenueBilled(revenueDate);
+            deferCharge(new Charge(advance, revenueDate, null, null));
+        } else {
+            advance.markRevenueBilled(revenueDate);
+            var revenueCharge = new Charge(advance, revenueDate, null, calculateCharge(advance, revenue));
+            charge = carryForward == null ? revenueCharge : carryForward.combine(revenueCharge);
+        }
+
+        if (charge != null) {
+            applyCharge(today, charge, lane);
+        }
+    }
 
-        var charge = new Charge(advance, today, null, chargeAmount);
+    private Map<Pair<Integer, LocalDate>, CompletableFuture<Revenue>> retrieveRevenuesForRange(LocalDate from, LocalDate to, Collection<List<Advance>> advanceGroups) {
+        var revenueFutures = new HashMap<Pair<Integer, LocalDate>, CompletableFuture<Revenue>>();
+        for (List<Advance> advanceGroup : advanceGroups) {
+            for (Advance advance : advanceGroup) {
+                LocalDate firstDay = advance.getRepaymentStartDate().isAfter(from) ? advance.getRepaymentStartDate() : from;
+                for (LocalDate day = firstDay; !day.isAfter(to); day = day.plusDays(1)) {
+                    revenueFutures.computeIfAbsent(Pair.of(advance.getCustomerId(), day.minusDays(1)),
+                            key -> revenueCache.getRevenueAsync(to, key.getLeft(), key.getRight()));
+                }
+            }
+        }
 
-        applyCharge(today, charge);
+        return revenueFutures;
     }
 
-    private void processOutstandingCharges(LocalDate today) {
-        calculateChargesForDelayedRevenues(today);
+    private void catchUpMandate(LocalDate from, LocalDate to, List<Advance> mandateAdvances,
+                                Map<Pair<Integer, LocalDate>, CompletableFuture<Revenue>> revenueFutures, LaneResult lane) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (Advance advance : mandateAdvances) {
+                if (day.isBefore(advance.getRepaymentStartDate()) || advance.getOutstandingAmount().isZero()) {
+                    continue;
+                }
 
-        var chargesToProcess = new ArrayList<>(outstandingCharges);
-        for (Charge charge : chargesToProcess) {
-            if (charge.getAmount() != null) {
-                outstandingCharges.remove(charge);
-                applyCharge(today, charge);
+                Revenue revenue = revenueFutures.get(Pair.of(advance.getCustomerId(), day.minusDays(1))).join();
+                billBasedOnRevenue(day, advance, revenue, lane);
             }
         }
     }
 
-    private void calculateChargesForDelayedRevenues(LocalDate today) {
-        List<Revenue> delayedRevenues = retrieveDelayedRevenues(today);
+    private int processOutstandingCharges(LocalDate today) {
+        calculateChargesForDelayedRevenues(today);
 
-        for (Charge charge : outstandingCharges) {
-            if (charge.getAmount() == null) {
-                Revenue revenue = delayedRevenues
-                        .stream()
-                        .filter(rev -> charge.getAdvance().getCustomerId() == rev.getCustomerId() && charge.getDateFor().equals(rev.getDate()))
-                        .findFirst()
-                        .orElse(null);
-                if (revenue != null) {
-                    BigDecimal chargeAmount = calculateCharge(charge.getAdvance(), revenue);
-                    charge.setAmount(chargeAmount);
-                }
-            }
+        return outstandingCharges.getReadyCount();
+    }
+
+    private void mergeLaneResults(List<LaneResult> laneResults) {
+        for (LaneResult laneResult : laneResults) {
+            dailyReport.merge(laneResult.getReport());
+            outstandingBalanceCents -= laneResult.getReport().getAmountChargedCents();
+        }
+    }
+
+    private void calculateChargesForDelayedRevenues(LocalDate today) {
+        for (Revenue revenue : retrieveDelayedRevenues(today)) {
+            persistence.getJournal().revenueMatched(revenue);
+            outstandingCharges.matchRevenue(revenue, charge -> calculateCharge(charge.getAdvance(), revenue));
         }
     }
 
     private List<Revenue> retrieveDelayedRevenues(LocalDate today) {
-        return outstandingCharges
-                .stream()
-                .filter(charge -> charge.getAmount() == null)
-                .map(charge -> Pair.of(charge.getAdvance().getCustomerId(), charge.getDateFor()))
-                .collect(Collectors.toSet())
-                .stream()
-                .map(pair -> retrieveRevenues(today, Set.of(pair.getLeft()), pair.getRight()))
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        var pendingRevenueKeys = outstandingCharges.getPendingRevenueKeys();
+        var dueDatesByCustomer = delayedRevenueScheduler.selectDue(today, pendingRevenueKeys);
+
+        var revenueFutures = new ArrayList<CompletableFuture<Revenue>>();
+        dueDatesByCustomer.forEach((customerId, dates) -> {
+            for (LocalDate forDate : dates) {
+                revenueFutures.add(revenueCache.getRevenueAsync(today, customerId, forDate));
+            }
+        });
+        log.info("Looking up {} of {} delayed revenues on {}, {} lookups saved so far by backing off.", revenueFutures.size(), pendingRevenueKeys.size(), today, delayedRevenueScheduler.getLookupsSaved());
+
+        var revenues = new ArrayList<Revenue>(revenueFutures.size());
+        for (CompletableFuture<Revenue> revenueFuture : revenueFutures) {
+            Revenue revenue = revenueFuture.join();
+            if (revenue.getAmount() == null) {
+                delayedRevenueScheduler.recordMissing(today, revenue.getCustomerId(), revenue.getDate());
+            } else {
+                delayedRevenueScheduler.recordAvailable(revenue.getCustomerId(), revenue.getDate());
+                revenues.add(revenue);
+            }
+        }
+
+        return revenues;
     }
 
-    private void applyCharge(LocalDate today, Charge charge) {
+    private void applyCharge(LocalDate today, Charge charge, LaneResult lane) {
         var advance = charge.getAdvance();
 
-        if (advance.isCompleted() || advance.getOutstandingAmount().compareTo(BigDecimal.ZERO) == 0) {
-            log.info("Advance {} has been fully repaid so cancelling charge {}.", advance.getId(), charge);
+        if (advance.isCompleted() || advance.getOutstandingAmount().isZero()) {
+            log.debug("Advance {} has been fully repaid so cancelling charge {}.", advance.getId(), charge);
+            lane.getReport().recordChargeCancelled();
+            persistence.getJournal().chargeCancelled(charge);
             return;
         }
 
-        if (advance.getOutstandingAmount().compareTo(charge.getAmount()) < 0) {
-            log.info("Advance {} has outstanding amount {}, which is less than the charge of {}. Will charge the outstanding amount instead.", advance.getId(), advance.getOutstandingAmount(), charge.getAmount());
-            charge.setAmount(advance.getOutstandingAmount());
+        if (advance.getOutstandingAmount().isLessThan(charge.getAmount())) {
+            log.debug("Advance {} has outstanding amount {}, which is less than the charge of {}. Will charge the outstanding amount instead.", advance.getId(), advance.getOutstandingAmount(), charge.getAmount());
+            charge.split(advance.getOutstandingAmount());
         }
 
-        BigDecimal maxAmountChargeableToday = maxDailyCharge.subtract(advance.getAmountChargedOnDate(today));
-        if (maxAmountChargeableToday.compareTo(charge.getAmount()) < 0) {
-            log.info("We're splitting {} in order to avoid charging more than the {} daily limit.", charge, maxDailyCharge);
-            var outstandingCharge = new Charge(charge.getAdvance(), charge.getDateFor(), null, charge.getAmount().subtract(maxAmountChargeableToday));
+        Money maxAmountChargeableToday = maxDailyCharge.minus(advance.getAmountChargedOnDate(today));
+        if (maxAmountChargeableToday.isLessThan(charge.getAmount())) {
+            log.debug("We're splitting {} in order to avoid charging more than the {} daily limit.", charge, maxDailyCharge);
+            lane.getReport().recordChargeSplit();
+            var outstandingCharge = charge.split(maxAmountChargeableToday);
+            persistence.getJournal().chargeSplit(charge, outstandingCharge);
             outstandingCharges.add(outstandingCharge);
-            charge.setAmount(maxAmountChargeableToday);
 
-            if (charge.getAmount().compareTo(BigDecimal.ZERO) == 0) {
-                log.info("We'll charge the entire amount of {} in the future as we've already reached the daily limit.", outstandingCharge.getAmount());
+            if (charge.getAmount().isZero()) {
+                log.debug("We'll charge the entire amount of {} in the future as we've already reached the daily limit.", outstandingCharge.getAmount());
                 return;
             } else {
-                log.info("We're charging {} today and creating an outstanding charge of {}.", charge.getAmount(), outstandingCharge.getAmount());
+                log.debug("We're charging {} today and creating an outstanding charge of {}.", charge.getAmount(), outstandingCharge.getAmount());
             }
         }
 
         boolean chargeSuccessful = wayflyerClient.charge(today, charge);
         if (chargeSuccessful) {
             advance.applyCharge(charge);
+            persistence.getJournal().chargeApplied(charge);
+            lane.getReport().recordChargeApplied(charge.getAmount());
+            if (charge.isCarryForward()) {
+                lane.getReport().recordCarryForwardChargeApplied(charge.getAmount());
+                dailyReportWriter.writeCarryForwardCharge(today, charge);
+            }
         } else {
-            outstandingCharges.add(charge);
+            deferCharge(charge);
+            lane.getReport().recordChargeFailed();
         }
     }
 
-    private void retrieveAdvances(LocalDate today) {
-        Advances retrievedAdvances = wayflyerClient.getAdvances(today);
+    private void deferCharge(Charge charge) {
+        persistence.getJournal().chargeDeferred(charge);
+        outstandingCharges.add(charge);
+    }
+
+    private void prefetchAdvances(LocalDate day) {
+        prefetchedAdvancesDate = day;
+        prefetchedAdvances = streamAdvances
+                ? wayflyerClient.getNewAdvancesAsync(day, advances::contains)
+                : wayflyerClient.getAdvancesAsync(day);
+    }
+
+    private Advances takePrefetchedAdvances(LocalDate today) {
+        LocalDate prefetchedDate = prefetchedAdvancesDate;
+        CompletableFuture<Advances> prefetched = prefetchedAdvances;
+        prefetchedAdvancesDate = null;
+        prefetchedAdvances = null;
+
+        if (prefetched == null || !today.equals(prefetchedDate)) {
+            return null;
+        }
+
+        return prefetched.join();
+    }
+
+    private int retrieveAdvances(LocalDate today) {
+        Advances retrievedAdvances = takePrefetchedAdvances(today);
+        if (retrievedAdvances == null) {
+            retrievedAdvances = streamAdvances
+                    ? wayflyerClient.getNewAdvances(today, advances::contains)
+                    : wayflyerClient.getAdvances(today);
+        }
+        if (retrievedAdvances == null) {
+            log.warn("Could not retrieve advances on {}, continuing with the {} known advances.", today, advances.size());
+            return 0;
+        }
+
+        int registered = 0;
         for (Advance advance : retrievedAdvances.getAdvances()) {
-            if (!advances.containsKey(advance.getId())) {
-                advances.put(advance.getId(), advance);
+            if (!advances.contains(advance.getId())) {
+                advance.setChargeLedgerEnabled(chargeLedgerEnabled);
+                advances.register(today, advance);
+                persistence.getJournal().advanceRegistered(today, advance);
+                dailyReport.recordAdvanceRegistered();
+                outstandingBalanceCents += advance.getOutstandingAmount().getCents();
+                registered++;
             }
         }
+
+        return registered;
     }
 
     private Map<Integer, Revenue> retrieveRevenues(LocalDate today, Collection<Advance> advances) {
         var customerIds = advances
                 .stream()
                 .filter(advance -> !advance.isCompleted())
-                .filter(advance -> !today.isBefore(advance.getRepaymentStartDate()))
                 .map(Advance::getCustomerId)
                 .collect(Collectors.toSet());
 
@@ -184,32 +457,61 @@ public class BillingService {
     }
 
     private List<Revenue> retrieveRevenues(LocalDate today, Set<Integer> customerIds, LocalDate forDate) {
-        return customerIds
-                .parallelStream()
-                .map(customerId -> wayflyerClient.getRevenue(today, customerId, forDate))
+        var revenueFutures = customerIds
+                .stream()
+                .map(customerId -> revenueCache.getRevenueAsync(today, customerId, forDate))
+                .collect(Collectors.toList());
+
+        return joinRevenues(revenueFutures);
+    }
+
+    private CompletableFuture<Map<Integer, Revenue>> retrieveRevenuesAsync(LocalDate today, List<Integer> customerIds) {
+        LocalDate forDate = today.minusDays(1);
+        var revenueFutures = customerIds
+                .stream()
+                .map(customerId -> revenueCache.getRevenueAsync(today, customerId, forDate))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(revenueFutures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> joinRevenues(revenueFutures)
+                        .stream()
+                        .collect(Collectors.toMap(Revenue::getCustomerId, revenue -> revenue)));
+    }
+
+    private List<Revenue> joinRevenues(List<CompletableFuture<Revenue>> revenueFutures) {
+        return revenueFutures
+                .stream()
+                .map(CompletableFuture::join)
                 .filter(revenue -> revenue.getAmount() != null)
                 .collect(Collectors.toList());
     }
 
-    private BigDecimal calculateCharge(Advance advance, Revenue revenue) {
-        return revenue
-                .getAmount()
-                .multiply(advance.getRepaymentPercentage())
-                .divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
+    private Money calculateCharge(Advance advance, Revenue revenue) {
+        return advance.getRepaymentRate().apply(revenue.getAmount());
     }
 
-    private void processCompletedAdvances(LocalDate today, Collection<Advance> advances) {
-        advances
+    private int processCompletedAdvances(LocalDate today, Collection<Advance> activeAdvances) {
+        var reportCompleteFutures = activeAdvances
                 .stream()
                 .filter(advance -> !advance.isCompleted())
-                .filter(advance -> advance.getOutstandingAmount().compareTo(BigDecimal.ZERO) == 0)
-                .collect(Collectors.toList())
-                .parallelStream()
-                .forEach(advance -> {
-                    boolean reportCompleteSuccessful = wayflyerClient.reportBillingComplete(today, advance.getId());
-                    if (reportCompleteSuccessful) {
-                        advance.setCompleted(true);
-                    }
-                });
+                .filter(advance -> advance.getOutstandingAmount().isZero())
+                .map(advance -> Pair.of(advance, wayflyerClient.reportBillingCompleteAsync(today, advance.getId())))
+                .collect(Collectors.toList());
+
+        int completed = 0;
+        for (var reportCompleteFuture : reportCompleteFutures) {
+            boolean reportCompleteSuccessful = reportCompleteFuture.getRight().join();
+            if (reportCompleteSuccessful) {
+                var advance = reportCompleteFuture.getLeft();
+                advance.setCompleted(true);
+                persistence.getJournal().advanceCompleted(advance);
+                outstandingCharges.removeCharges(advance);
+                advances.complete(advance);
+                dailyReport.recordAdvanceCompleted();
+                completed++;
+            }
+        }
+
+        return completed;
     }
 }
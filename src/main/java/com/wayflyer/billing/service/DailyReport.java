@@ -0,0 +1,119 @@
+package com.wayflyer.billing.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.wayflyer.billing.model.Money;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@JsonPropertyOrder({"date", "advancesRegistered", "advancesCompleted", "notStartedCount", "activeCount", "completedCount",
+        "chargesApplied", "amountCharged", "chargesSplit", "chargesFailed", "chargesCancelled",
+        "carryForwardChargesApplied", "carryForwardAmountCharged", "pendingRevenueCount", "readyChargeCount", "outstandingBalance"})
+public class DailyReport {
+    @JsonSerialize(using = ToStringSerializer.class)
+    private final LocalDate date;
+
+    private int advancesRegistered;
+
+    private int advancesCompleted;
+
+    private int notStartedCount;
+
+    private int activeCount;
+
+    private int completedCount;
+
+    private int chargesApplied;
+
+    @JsonIgnore
+    private long amountChargedCents;
+
+    private int chargesSplit;
+
+    private int chargesFailed;
+
+    private int chargesCancelled;
+
+    private int carryForwardChargesApplied;
+
+    @JsonIgnore
+    private long carryForwardAmountChargedCents;
+
+    private int pendingRevenueCount;
+
+    private int readyChargeCount;
+
+    @JsonIgnore
+    private long outstandingBalanceCents;
+
+    public DailyReport(LocalDate date) {
+        this.date = date;
+    }
+
+    public void recordAdvanceRegistered() {
+        advancesRegistered++;
+    }
+
+    public void recordAdvanceCompleted() {
+        advancesCompleted++;
+    }
+
+    public void recordChargeApplied(Money amount) {
+        chargesApplied++;
+        amountChargedCents += amount.getCents();
+    }
+
+    public void recordCarryForwardChargeApplied(Money amount) {
+        carryForwardChargesApplied++;
+        carryForwardAmountChargedCents += amount.getCents();
+    }
+
+    public void recordChargeSplit() {
+        chargesSplit++;
+    }
+
+    public void recordChargeFailed() {
+        chargesFailed++;
+    }
+
+    public void recordChargeCancelled() {
+        chargesCancelled++;
+    }
+
+    public void merge(DailyReport other) {
+        advancesRegistered += other.advancesRegistered;
+        advancesCompleted += other.advancesCompleted;
+        chargesApplied += other.chargesApplied;
+        amountChargedCents += other.amountChargedCents;
+        chargesSplit += other.chargesSplit;
+        chargesFailed += other.chargesFailed;
+        chargesCancelled += other.chargesCancelled;
+        carryForwardChargesApplied += other.carryForwardChargesApplied;
+        carryForwardAmountChargedCents += other.carryForwardAmountChargedCents;
+    }
+
+    public void close(AdvanceRegistry advances, OutstandingChargeStore outstandingCharges, long outstandingBalanceCents) {
+        notStartedCount = advances.getNotStartedCount();
+        activeCount = advances.getActiveCount();
+        completedCount = advances.getCompletedCount();
+        pendingRevenueCount = outstandingCharges.getPendingRevenueCount();
+        readyChargeCount = outstandingCharges.getReadyCount();
+        this.outstandingBalanceCents = outstandingBalanceCents;
+    }
+
+    public Money getAmountCharged() {
+        return Money.ofCents(amountChargedCents);
+    }
+
+    public Money getCarryForwardAmountCharged() {
+        return Money.ofCents(carryForwardAmountChargedCents);
+    }
+
+    public Money getOutstandingBalance() {
+        return Money.ofCents(outstandingBalanceCents);
+    }
+}
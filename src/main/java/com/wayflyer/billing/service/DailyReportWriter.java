@@ -0,0 +1,59 @@
+package com.wayflyer.billing.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.ChargeComponent;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+@Component
+@Slf4j
+public class DailyReportWriter {
+    private static final Logger REPORT_LOG = LoggerFactory.getLogger("billing.report");
+
+    private static final Logger ADVANCE_LOG = LoggerFactory.getLogger("billing.report.advances");
+
+    private final ObjectMapper objectMapper;
+
+    public DailyReportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(DailyReport report, Collection<Advance> activeAdvances) {
+        if (REPORT_LOG.isInfoEnabled()) {
+            try {
+                REPORT_LOG.info(objectMapper.writeValueAsString(report));
+            } catch (JsonProcessingException ex) {
+                log.error("Could not write the daily report for {}.", report.getDate(), ex);
+            }
+        }
+
+        if (ADVANCE_LOG.isDebugEnabled()) {
+            for (Advance advance : activeAdvances) {
+                ADVANCE_LOG.debug("{\"date\":\"{}\",\"id\":{},\"customerId\":{},\"outstandingAmount\":\"{}\"}",
+                        report.getDate(), advance.getId(), advance.getCustomerId(), advance.getOutstandingAmount());
+            }
+        }
+    }
+
+    public void writeCarryForwardCharge(LocalDate today, Charge charge) {
+        if (!ADVANCE_LOG.isDebugEnabled()) {
+            return;
+        }
+
+        var components = new StringJoiner(",", "[", "]");
+        for (ChargeComponent component : charge.getComponents()) {
+            components.add("{\"dateFor\":\"" + component.getDateFor() + "\",\"amount\":\"" + component.getAmount() + "\"}");
+        }
+        ADVANCE_LOG.debug("{\"date\":\"{}\",\"id\":{},\"customerId\":{},\"carryForwardAmountCharged\":\"{}\",\"components\":{}}",
+                today, charge.getAdvance().getId(), charge.getAdvance().getCustomerId(), charge.getAmount(), components);
+    }
+}
@@ -0,0 +1,16 @@
+package com.wayflyer.billing.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "config.delayed-revenue")
+public class DelayedRevenueProperties {
+    private int initialBackoffDays = 1;
+
+    private double backoffMultiplier = 2.0;
+
+    private int maxBackoffDays = 7;
+
+    private int maxLookupsPerRun = 0;
+}
@@ -0,0 +1,91 @@
+package com.wayflyer.billing.service;
+
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DelayedRevenueScheduler {
+    private static final Comparator<Pair<Integer, LocalDate>> OLDEST_FIRST = Comparator
+            .comparing((Pair<Integer, LocalDate> key) -> key.getRight())
+            .thenComparing(Pair::getLeft);
+
+    private final DelayedRevenueProperties properties;
+
+    private final Map<Pair<Integer, LocalDate>, RetryState> retries = new HashMap<>();
+
+    private long lookupsMade;
+
+    private long lookupsSaved;
+
+    public DelayedRevenueScheduler(DelayedRevenueProperties properties) {
+        this.properties = properties;
+    }
+
+    public Map<Integer, List<LocalDate>> selectDue(LocalDate today, Set<Pair<Integer, LocalDate>> pendingKeys) {
+        retries.keySet().retainAll(pendingKeys);
+
+        List<Pair<Integer, LocalDate>> dueKeys = new ArrayList<>();
+        for (Pair<Integer, LocalDate> key : pendingKeys) {
+            RetryState retryState = retries.get(key);
+            if (retryState == null || !today.isBefore(retryState.nextAttempt)) {
+                dueKeys.add(key);
+            }
+        }
+
+        dueKeys.sort(OLDEST_FIRST);
+        if (properties.getMaxLookupsPerRun() > 0 && dueKeys.size() > properties.getMaxLookupsPerRun()) {
+            dueKeys = dueKeys.subList(0, properties.getMaxLookupsPerRun());
+        }
+
+        Map<Integer, List<LocalDate>> dueDatesByCustomer = new LinkedHashMap<>();
+        for (Pair<Integer, LocalDate> key : dueKeys) {
+            dueDatesByCustomer.computeIfAbsent(key.getLeft(), customerId -> new ArrayList<>()).add(key.getRight());
+        }
+
+        lookupsMade += dueKeys.size();
+        lookupsSaved += pendingKeys.size() - dueKeys.size();
+        return dueDatesByCustomer;
+    }
+
+    public void recordMissing(LocalDate today, int customerId, LocalDate date) {
+        RetryState retryState = retries.computeIfAbsent(Pair.of(customerId, date), key -> new RetryState(0, today));
+        retryState.attempts++;
+        retryState.nextAttempt = today.plusDays(getBackoffDays(retryState.attempts));
+    }
+
+    public void recordAvailable(int customerId, LocalDate date) {
+        retries.remove(Pair.of(customerId, date));
+    }
+
+    long getBackoffDays(int attempts) {
+        double backoffDays = properties.getInitialBackoffDays() * Math.pow(properties.getBackoffMultiplier(), attempts - 1);
+        return (long) Math.min(properties.getMaxBackoffDays(), Math.ceil(backoffDays));
+    }
+
+    public long getLookupsMade() {
+        return lookupsMade;
+    }
+
+    public long getLookupsSaved() {
+        return lookupsSaved;
+    }
+
+    public int size() {
+        return retries.size();
+    }
+
+    @AllArgsConstructor
+    private static class RetryState {
+        private int attempts;
+
+        private LocalDate nextAttempt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.wayflyer.billing.service;
+
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+public class LaneResult {
+    private final DailyReport report;
+
+    public LaneResult(LocalDate today) {
+        report = new DailyReport(today);
+    }
+}
@@ -0,0 +1,155 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class OutstandingChargeStore {
+    private final Map<Pair<Integer, LocalDate>, List<Charge>> pendingRevenueCharges = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Set<LocalDate>> pendingRevenueDatesByAdvance = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Charge> carryForwardByAdvance = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pendingRevenueCount = new AtomicInteger();
+
+    private final AtomicInteger readyCount = new AtomicInteger();
+
+    public void add(Charge charge) {
+        if (charge.getAmount() == null) {
+            addPendingRevenue(charge);
+        } else {
+            addReady(charge);
+        }
+    }
+
+    private void addPendingRevenue(Charge charge) {
+        var advance = charge.getAdvance();
+        pendingRevenueCharges.compute(Pair.of(advance.getCustomerId(), charge.getDateFor()), (key, charges) -> {
+            var updatedCharges = charges == null ? new ArrayList<Charge>() : charges;
+            updatedCharges.add(charge);
+            return updatedCharges;
+        });
+        pendingRevenueDatesByAdvance.compute(advance.getId(), (advanceId, dates) -> {
+            var updatedDates = dates == null ? ConcurrentHashMap.<LocalDate>newKeySet() : dates;
+            updatedDates.add(charge.getDateFor());
+            return updatedDates;
+        });
+        pendingRevenueCount.incrementAndGet();
+    }
+
+    private void addReady(Charge charge) {
+        carryForwardByAdvance.compute(charge.getAdvance().getId(), (advanceId, carryForward) -> {
+            if (carryForward == null) {
+                readyCount.incrementAndGet();
+                return charge.asCarryForward();
+            }
+
+            return carryForward.combine(charge);
+        });
+    }
+
+    public Set<Pair<Integer, LocalDate>> getPendingRevenueKeys() {
+        return Collections.unmodifiableSet(pendingRevenueCharges.keySet());
+    }
+
+    public void matchRevenue(Revenue revenue, Function<Charge, Money> chargeCalculator) {
+        List<Charge> charges = pendingRevenueCharges.remove(Pair.of(revenue.getCustomerId(), revenue.getDate()));
+        if (charges == null) {
+            return;
+        }
+
+        for (Charge charge : charges) {
+            removePendingRevenueDate(charge.getAdvance().getId(), charge.getDateFor());
+            pendingRevenueCount.decrementAndGet();
+
+            charge.setAmount(chargeCalculator.apply(charge));
+            addReady(charge);
+        }
+    }
+
+    private void removePendingRevenueDate(int advanceId, LocalDate dateFor) {
+        pendingRevenueDatesByAdvance.computeIfPresent(advanceId, (key, dates) -> {
+            dates.remove(dateFor);
+            return dates.isEmpty() ? null : dates;
+        });
+    }
+
+    public List<Charge> drainReadyCharges() {
+        var charges = new ArrayList<Charge>(readyCount.get());
+        for (Integer advanceId : carryForwardByAdvance.keySet()) {
+            Charge carryForward = carryForwardByAdvance.remove(advanceId);
+            if (carryForward != null) {
+                charges.add(carryForward);
+                readyCount.decrementAndGet();
+            }
+        }
+        return charges;
+    }
+
+    public Charge takeReadyCharge(int advanceId) {
+        Charge carryForward = carryForwardByAdvance.remove(advanceId);
+        if (carryForward != null) {
+            readyCount.decrementAndGet();
+        }
+        return carryForward;
+    }
+
+    public List<Charge> getReadyCharges(int advanceId) {
+        Charge carryForward = carryForwardByAdvance.get(advanceId);
+        return carryForward == null ? List.of() : List.of(carryForward);
+    }
+
+    public Set<LocalDate> getPendingRevenueDates(int advanceId) {
+        return Collections.unmodifiableSet(pendingRevenueDatesByAdvance.getOrDefault(advanceId, Set.of()));
+    }
+
+    public void forEachCharge(Consumer<Charge> action) {
+        pendingRevenueCharges.values().forEach(charges -> charges.forEach(action));
+        carryForwardByAdvance.values().forEach(action);
+    }
+
+    public void removeCharges(Advance advance) {
+        int advanceId = advance.getId();
+        Set<LocalDate> dates = pendingRevenueDatesByAdvance.remove(advanceId);
+        if (dates != null) {
+            for (LocalDate dateFor : dates) {
+                pendingRevenueCharges.computeIfPresent(Pair.of(advance.getCustomerId(), dateFor), (key, charges) -> {
+                    int sizeBefore = charges.size();
+                    charges.removeIf(charge -> charge.getAdvance().getId() == advanceId);
+                    pendingRevenueCount.addAndGet(charges.size() - sizeBefore);
+                    return charges.isEmpty() ? null : charges;
+                });
+            }
+        }
+
+        if (carryForwardByAdvance.remove(advanceId) != null) {
+            readyCount.decrementAndGet();
+        }
+    }
+
+    public int getPendingRevenueCount() {
+        return pendingRevenueCount.get();
+    }
+
+    public int getReadyCount() {
+        return readyCount.get();
+    }
+
+    public int size() {
+        return getPendingRevenueCount() + getReadyCount();
+    }
+}
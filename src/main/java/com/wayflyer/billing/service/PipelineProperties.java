@@ -0,0 +1,14 @@
+package com.wayflyer.billing.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "config.pipeline")
+public class PipelineProperties {
+    private boolean enabled = false;
+
+    private int revenueBatchSize = 1000;
+
+    private int maxBatchesInFlight = 4;
+}
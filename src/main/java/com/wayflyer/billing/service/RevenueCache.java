@@ -0,0 +1,101 @@
+package com.wayflyer.billing.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Revenue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class RevenueCache {
+    private final WayflyerClient wayflyerClient;
+
+    private final boolean enabled;
+
+    private final Cache<Pair<Integer, LocalDate>, Revenue> revenues;
+
+    private final Cache<Triple<Integer, LocalDate, LocalDate>, Boolean> unavailableRevenues;
+
+    @Autowired
+    public RevenueCache(WayflyerClient wayflyerClient, RevenueCacheProperties properties) {
+        this(wayflyerClient, properties, Ticker.systemTicker());
+    }
+
+    RevenueCache(WayflyerClient wayflyerClient, RevenueCacheProperties properties, Ticker ticker) {
+        this.wayflyerClient = wayflyerClient;
+        this.enabled = properties.isEnabled();
+
+        revenues = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .executor(Runnable::run)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        unavailableRevenues = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeMaxSize())
+                .expireAfterWrite(properties.getNegativeTtl())
+                .executor(Runnable::run)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    public CompletableFuture<Revenue> getRevenueAsync(LocalDate todayDate, int customerId, LocalDate forDate) {
+        if (!enabled) {
+            return wayflyerClient.getRevenueAsync(todayDate, customerId, forDate);
+        }
+
+        Revenue revenue = revenues.getIfPresent(Pair.of(customerId, forDate));
+        if (revenue != null) {
+            return CompletableFuture.completedFuture(revenue);
+        }
+
+        var unavailableKey = Triple.of(customerId, forDate, todayDate);
+        if (unavailableRevenues.getIfPresent(unavailableKey) != null) {
+            return CompletableFuture.completedFuture(Revenue.builder()
+                    .customerId(customerId)
+                    .date(forDate)
+                    .build());
+        }
+
+        return wayflyerClient
+                .getRevenueAsync(todayDate, customerId, forDate)
+                .thenApply(retrievedRevenue -> {
+                    if (retrievedRevenue.getAmount() == null) {
+                        unavailableRevenues.put(unavailableKey, Boolean.TRUE);
+                    } else {
+                        revenues.put(Pair.of(customerId, forDate), retrievedRevenue);
+                    }
+                    return retrievedRevenue;
+                });
+    }
+
+    public long getHitCount() {
+        return revenues.stats().hitCount() + unavailableRevenues.stats().hitCount();
+    }
+
+    public long getNegativeHitCount() {
+        return unavailableRevenues.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return unavailableRevenues.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return revenues.stats().evictionCount() + unavailableRevenues.stats().evictionCount();
+    }
+
+    public long size() {
+        revenues.cleanUp();
+        return revenues.estimatedSize();
+    }
+}
@@ -0,0 +1,20 @@
+package com.wayflyer.billing.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "config.revenue-cache")
+public class RevenueCacheProperties {
+    private boolean enabled = true;
+
+    private long maxSize = 1_000_000;
+
+    private Duration ttl = Duration.ofHours(1);
+
+    private long negativeMaxSize = 100_000;
+
+    private Duration negativeTtl = Duration.ofSeconds(30);
+}
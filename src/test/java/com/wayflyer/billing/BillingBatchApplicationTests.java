@@ -0,0 +1,27 @@
+package com.wayflyer.billing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BillingBatchApplicationTests {
+    @Test
+    public void givenBatchLauncher_whenStarted_thenNoWebServerRunsAndBillingBeansAreCreatedOnlyForTheJob() {
+        var startup = new BufferingApplicationStartup(10_000);
+
+        try (var context = BillingBatchApplication.createApplication(startup).run()) {
+            assertFalse(context instanceof WebServerApplicationContext);
+            assertFalse(context.getBeanFactory().containsSingleton("billingService"));
+
+            BillingApplication.createJob(context);
+
+            assertTrue(context.getBeanFactory().containsSingleton("billingService"));
+            assertTrue(startup.getBufferedTimeline().getEvents()
+                    .stream()
+                    .anyMatch(event -> event.getStartupStep().getName().equals("spring.beans.instantiate")));
+        }
+    }
+}
@@ -15,6 +15,9 @@ import static com.wayflyer.billing.testutil.TestConstants.TEST_END_DATE;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_START_DATE;
 import static java.time.temporal.ChronoUnit.DAYS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -28,6 +31,9 @@ class BillingSimulatorTest {
     @Captor
     private ArgumentCaptor<LocalDate> simulationDateCaptor;
 
+    @Captor
+    private ArgumentCaptor<LocalDate> nextDateCaptor;
+
     @BeforeEach
     public void setup() {
         classUnderTest = new BillingSimulator(billingServiceMock, TEST_START_DATE, TEST_END_DATE);
@@ -38,9 +44,34 @@ class BillingSimulatorTest {
         classUnderTest.simulate();
 
         int expectedDays = (int) DAYS.between(TEST_START_DATE, TEST_END_DATE);
-        verify(billingServiceMock, times(expectedDays)).process(simulationDateCaptor.capture());
+        verify(billingServiceMock, times(expectedDays)).process(simulationDateCaptor.capture(), nextDateCaptor.capture());
 
         assertEquals(TEST_START_DATE, simulationDateCaptor.getAllValues().get(0));
         assertEquals(TEST_END_DATE.minusDays(1), simulationDateCaptor.getAllValues().get(simulationDateCaptor.getAllValues().size() - 1));
+        assertEquals(TEST_START_DATE.plusDays(1), nextDateCaptor.getAllValues().get(0));
+        assertNull(nextDateCaptor.getAllValues().get(nextDateCaptor.getAllValues().size() - 1));
+    }
+
+    @Test
+    void givenACatchUpDate_whenCallingSimulate_thenTheGapIsCaughtUpInOnePassBeforeDailyProcessingResumes() {
+        LocalDate catchUpUntil = TEST_START_DATE.plusDays(5);
+        classUnderTest = new BillingSimulator(billingServiceMock, TEST_START_DATE, TEST_END_DATE, catchUpUntil);
+
+        classUnderTest.simulate();
+
+        verify(billingServiceMock).catchUp(TEST_START_DATE, catchUpUntil);
+        int expectedDays = (int) DAYS.between(catchUpUntil.plusDays(1), TEST_END_DATE);
+        verify(billingServiceMock, times(expectedDays)).process(simulationDateCaptor.capture(), nextDateCaptor.capture());
+        assertEquals(catchUpUntil.plusDays(1), simulationDateCaptor.getAllValues().get(0));
+    }
+
+    @Test
+    void givenACatchUpDateAfterTheEndDate_whenCallingSimulate_thenOnlyTheSimulationPeriodIsCaughtUp() {
+        classUnderTest = new BillingSimulator(billingServiceMock, TEST_START_DATE, TEST_END_DATE, TEST_END_DATE.plusDays(10));
+
+        classUnderTest.simulate();
+
+        verify(billingServiceMock).catchUp(TEST_START_DATE, TEST_END_DATE.minusDays(1));
+        verify(billingServiceMock, never()).process(any(), any());
     }
-}
\ No newline at end of file
+}
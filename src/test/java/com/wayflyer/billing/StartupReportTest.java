@@ -0,0 +1,30 @@
+package com.wayflyer.billing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupReportTest {
+    @Test
+    public void givenRecordedSteps_whenSummarized_thenTheSlowestAreListedFirstWithTheirTags() throws InterruptedException {
+        var startup = new BufferingApplicationStartup(10);
+        startup.start("fast.step").end();
+        var slowStep = startup.start("spring.beans.instantiate").tag("beanName", "billingService");
+        Thread.sleep(20);
+        slowStep.end();
+        startup.start("another.fast.step").end();
+
+        String report = StartupReport.summarize(startup.getBufferedTimeline(), 2);
+
+        List<String> lines = report.lines().collect(Collectors.toList());
+        assertEquals(3, lines.size());
+        assertEquals("Slowest startup steps:", lines.get(0));
+        assertTrue(lines.get(1).endsWith("ms  spring.beans.instantiate [beanName=billingService]"));
+        assertTrue(lines.get(2).endsWith("step"));
+    }
+}
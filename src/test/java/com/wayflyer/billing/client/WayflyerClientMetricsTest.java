@@ -0,0 +1,112 @@
+package com.wayflyer.billing.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WayflyerClientMetricsTest {
+    private static final URI REVENUES_URI = URI.create("https://example.com/v2/customers/1/revenues/2022-01-07");
+
+    private MeterRegistry meterRegistry;
+
+    private WayflyerClientMetrics classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        classUnderTest = new WayflyerClientMetrics(meterRegistry);
+    }
+
+    @Test
+    public void givenASuccessfulRequest_whenIntercepting_thenItIsTimedPerEndpoint() throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(200));
+
+        assertEquals(1, meterRegistry.get("wayflyer.client.requests").tag("endpoint", "revenues").tag("outcome", "SUCCESS").timer().count());
+        assertTrue(meterRegistry.find("wayflyer.client.errors").counters().isEmpty());
+    }
+
+    @Test
+    public void givenANotAvailableResponse_whenIntercepting_thenItIsCountedSeparatelyFromErrors() throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(530));
+
+        assertEquals(1, meterRegistry.get("wayflyer.client.not.available").tag("endpoint", "revenues").counter().count());
+        assertEquals(1, meterRegistry.get("wayflyer.client.requests").tag("outcome", "NOT_AVAILABLE").timer().count());
+        assertTrue(meterRegistry.find("wayflyer.client.errors").counters().isEmpty());
+    }
+
+    @Test
+    public void givenAServerError_whenIntercepting_thenAnErrorIsCounted() throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(500));
+
+        assertEquals(1, meterRegistry.get("wayflyer.client.errors").tag("endpoint", "revenues").tag("outcome", "SERVER_ERROR").counter().count());
+    }
+
+    @Test
+    public void givenAnIoError_whenIntercepting_thenAnErrorIsCountedAndRethrown() {
+        ClientHttpRequestExecution execution = (request, body) -> {
+            throw new IOException("Connection reset");
+        };
+
+        assertThrows(IOException.class, () -> classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], execution));
+        assertEquals(1, meterRegistry.get("wayflyer.client.errors").tag("outcome", "IO_ERROR").counter().count());
+        assertEquals(0, meterRegistry.get("wayflyer.client.requests.in.flight").tag("endpoint", "revenues").gauge().value());
+    }
+
+    @Test
+    public void givenARequestInProgress_whenReadingTheGauge_thenItIsInFlight() throws IOException {
+        var inFlight = new AtomicReference<Double>();
+        ClientHttpRequestExecution execution = (request, body) -> {
+            inFlight.set(meterRegistry.get("wayflyer.client.requests.in.flight").tag("endpoint", "revenues").gauge().value());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], execution);
+
+        assertEquals(1.0, inFlight.get());
+    }
+
+    @Test
+    public void givenRequestsOnAnEarlierDay_whenSummarizing_thenOnlyTheCurrentDayIsReported() throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(200));
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(530));
+
+        classUnderTest.startDay();
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(200));
+
+        assertTrue(classUnderTest.summarize().contains("revenues=1 ("), classUnderTest.summarize());
+        assertTrue(classUnderTest.summarize().contains("0 x 530"), classUnderTest.summarize());
+        assertEquals(3, meterRegistry.get("wayflyer.client.requests").tag("endpoint", "revenues").timers().stream().mapToLong(Timer::count).sum());
+    }
+
+    @Test
+    public void givenSeveralSummaries_whenSummarizingDuringTheSameDay_thenRequestsAreNotCountedTwice() throws IOException {
+        classUnderTest.startDay();
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(200));
+        classUnderTest.summarize();
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], respondWith(530));
+
+        String summary = classUnderTest.summarize();
+
+        assertTrue(summary.contains("revenues=2 ("), summary);
+        assertTrue(summary.contains("1 x 530"), summary);
+    }
+
+    private static ClientHttpRequestExecution respondWith(int status) {
+        return (request, body) -> new MockClientHttpResponse(new byte[0], status);
+    }
+}
@@ -1,6 +1,9 @@
 package com.wayflyer.billing.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.resilience.CircuitOpenException;
+import com.wayflyer.billing.client.resilience.HedgingProperties;
+import com.wayflyer.billing.client.resilience.RequestHedger;
 import com.wayflyer.billing.model.Advances;
 import com.wayflyer.billing.model.Charge;
 import com.wayflyer.billing.model.Revenue;
@@ -12,16 +15,37 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_REVENUE_AMOUNT;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_STRING;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TOTAL_ADVANCED;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_SCHEME;
 import static com.wayflyer.billing.testutil.TestConstants.TEST_URL;
 import static com.wayflyer.billing.testutil.TestObjects.getTestAdvances;
 import static com.wayflyer.billing.testutil.TestObjects.getTestCharge;
@@ -62,7 +86,7 @@ public class WayflyerClientTest {
     @BeforeEach
     public void setup() {
         objectMapper = new ObjectMapper();
-        classUnderTest = new WayflyerClient(TEST_URL, restTemplateMock, objectMapper);
+        classUnderTest = new WayflyerClient(TEST_SCHEME, TEST_URL, restTemplateMock, objectMapper, Runnable::run);
     }
 
     // region getAdvances tests
@@ -117,6 +141,87 @@ public class WayflyerClientTest {
 
     // endregion
 
+    // region getNewAdvances tests
+
+    private static final String ADVANCES_FEED = "{\"advances\": ["
+            + "{\"id\": 1001, \"customer_id\": 1, \"created\": \"2022-01-02\", \"total_advanced\": \"60000.00\", \"fee\": \"2000.00\", \"mandate_id\": 102, \"repayment_start_date\": \"2022-01-07\", \"repayment_percentage\": 11},"
+            + "{\"customer_id\": 2, \"id\": 1002, \"created\": \"2022-01-03\", \"total_advanced\": \"30000.00\", \"fee\": \"1000.00\", \"mandate_id\": 103, \"repayment_start_date\": \"2022-01-08\", \"repayment_percentage\": 12}"
+            + "]}";
+
+    private final List<HttpHeaders> streamedRequestHeaders = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private void mockAdvancesStream(HttpStatus status, String body, HttpHeaders responseHeaders) {
+        when(restTemplateMock.execute(any(URI.class), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    var request = new MockClientHttpRequest(HttpMethod.GET, invocation.getArgument(0, URI.class));
+                    invocation.getArgument(2, RequestCallback.class).doWithRequest(request);
+                    streamedRequestHeaders.add(request.getHeaders());
+
+                    var response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status);
+                    response.getHeaders().putAll(responseHeaders);
+                    return invocation.getArgument(3, ResponseExtractor.class).extractData(response);
+                });
+    }
+
+    @Test
+    public void givenNoKnownAdvances_whenCallingGetNewAdvances_thenAllAdvancesAreReturned() {
+        mockAdvancesStream(HttpStatus.OK, ADVANCES_FEED, new HttpHeaders());
+
+        Advances advances = classUnderTest.getNewAdvances(TEST_TODAY_DATE, id -> false);
+
+        assertEquals(2, advances.getAdvances().size());
+        assertEquals(TEST_ADVANCE_ID, advances.getAdvances().get(0).getId());
+        assertEquals(TEST_TOTAL_ADVANCED, advances.getAdvances().get(0).getTotalAdvanced());
+        assertEquals(1002, advances.getAdvances().get(1).getId());
+        assertEquals(2, advances.getAdvances().get(1).getCustomerId());
+        assertEquals(TEST_TODAY_DATE.toString(), streamedRequestHeaders.get(0).getFirst("Today"));
+    }
+
+    @Test
+    public void givenKnownAdvances_whenCallingGetNewAdvances_thenOnlyNewAdvancesAreReturned() {
+        mockAdvancesStream(HttpStatus.OK, ADVANCES_FEED, new HttpHeaders());
+
+        Advances advances = classUnderTest.getNewAdvances(TEST_TODAY_DATE, id -> id == TEST_ADVANCE_ID);
+
+        assertEquals(1, advances.getAdvances().size());
+        assertEquals(1002, advances.getAdvances().get(0).getId());
+    }
+
+    @Test
+    public void givenThePreviousResponseHadAnETag_whenCallingGetNewAdvancesAgain_thenAConditionalRequestIsMade() {
+        var responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"v1\"");
+        mockAdvancesStream(HttpStatus.OK, ADVANCES_FEED, responseHeaders);
+
+        classUnderTest.getNewAdvances(TEST_TODAY_DATE, id -> false);
+        classUnderTest.getNewAdvances(TEST_TODAY_DATE.plusDays(1), id -> false);
+
+        assertTrue(streamedRequestHeaders.get(0).getIfNoneMatch().isEmpty());
+        assertEquals(List.of("\"v1\""), streamedRequestHeaders.get(1).getIfNoneMatch());
+    }
+
+    @Test
+    public void givenTheAdvancesHaveNotBeenModified_whenCallingGetNewAdvances_thenNoAdvancesAreReturned() {
+        mockAdvancesStream(HttpStatus.NOT_MODIFIED, "", new HttpHeaders());
+
+        Advances advances = classUnderTest.getNewAdvances(TEST_TODAY_DATE, id -> false);
+
+        assertNotNull(advances);
+        assertTrue(advances.getAdvances().isEmpty());
+    }
+
+    @Test
+    public void givenTheResponseIsMalformed_whenCallingGetNewAdvances_thenNullIsReturned() {
+        mockAdvancesStream(HttpStatus.OK, "[]", new HttpHeaders());
+
+        Advances advances = classUnderTest.getNewAdvances(TEST_TODAY_DATE, id -> false);
+
+        assertNull(advances);
+    }
+
+    // endregion
+
     // region getRevenue tests
 
     private void mockRevenuesCall() throws Exception {
@@ -187,6 +292,18 @@ public class WayflyerClientTest {
         assertNull(revenue.getAmount());
     }
 
+    @Test
+    public void givenTheRevenueCircuitIsOpen_whenCallingGetRevenue_thenTheRevenueIsReportedAsDelayed() {
+        when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class)))
+                .thenThrow(new CircuitOpenException(WayflyerEndpoint.REVENUES));
+
+        Revenue revenue = classUnderTest.getRevenue(TEST_TODAY_DATE, TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE);
+
+        assertEquals(TEST_CUSTOMER_ID, revenue.getCustomerId());
+        assertEquals(TEST_REPAYMENT_START_DATE, revenue.getDate());
+        assertNull(revenue.getAmount());
+    }
+
     // endregion
 
     // region charge tests
@@ -236,6 +353,17 @@ public class WayflyerClientTest {
         assertFalse(result);
     }
 
+    @Test
+    public void givenTheChargeCircuitIsOpen_whenCallingCharge_thenTheChargeIsNotApplied() {
+        when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class)))
+                .thenThrow(new CircuitOpenException(WayflyerEndpoint.CHARGES));
+
+        Charge testCharge = getTestCharge();
+
+        assertFalse(classUnderTest.charge(TEST_TODAY_DATE, testCharge));
+        assertNull(testCharge.getDateCharged());
+    }
+
     @Test
     public void givenTheRestCallReturnsA530_whenCallingCharge_thenTheDateChargedIsNotUpdated() {
         when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class)))
@@ -315,4 +443,124 @@ public class WayflyerClientTest {
     }
 
     // endregion
-}
\ No newline at end of file
+
+    // region async tests
+
+    @Test
+    public void givenAValidDate_whenCallingGetRevenueAsync_thenAValidResponseIsReturned() throws Exception {
+        mockRevenuesCall();
+
+        Revenue revenue = classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE).join();
+
+        assertEquals(URL_REVENUES, urlCaptor.getValue());
+        assertEquals(TEST_CUSTOMER_ID, revenue.getCustomerId());
+        assertEquals(TEST_REPAYMENT_START_DATE, revenue.getDate());
+        assertEquals(TEST_REVENUE_AMOUNT, revenue.getAmount());
+    }
+
+    @Test
+    public void givenTheRestCallIsThrowingAnException_whenCallingGetRevenueAsync_thenTheFutureCompletesWithANullAmount() {
+        when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class)))
+                .thenThrow(RuntimeException.class);
+
+        Revenue revenue = classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE).join();
+
+        assertNotNull(revenue);
+        assertNull(revenue.getAmount());
+    }
+
+    @Test
+    public void givenASlowRevenueResponse_whenCallingGetRevenueAsyncWithHedging_thenTheHedgedResponseIsUsed() throws Exception {
+        var hedgingProperties = new HedgingProperties();
+        hedgingProperties.setEnabled(true);
+        hedgingProperties.setMaxDelay(Duration.ofMillis(20));
+        var executor = Executors.newFixedThreadPool(2);
+        classUnderTest = new WayflyerClient(TEST_SCHEME, TEST_URL, restTemplateMock, objectMapper, executor,
+                new RequestHedger(WayflyerEndpoint.REVENUES, hedgingProperties));
+
+        var stalled = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+        String revenueJson = objectMapper.writeValueAsString(getTestRevenue());
+        when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class))).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                stalled.await(10, TimeUnit.SECONDS);
+                return ResponseEntity.status(530).body(TEST_STRING);
+            }
+            return ResponseEntity.ok(revenueJson);
+        });
+
+        try {
+            Revenue revenue = classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE).join();
+
+            assertEquals(TEST_REVENUE_AMOUNT, revenue.getAmount());
+            assertEquals(2, calls.get());
+        } finally {
+            stalled.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void givenAValidDate_whenCallingGetNewAdvancesAsync_thenTheTodayHeaderIsThatDate() {
+        mockAdvancesStream(HttpStatus.OK, ADVANCES_FEED, new HttpHeaders());
+
+        Advances advances = classUnderTest.getNewAdvancesAsync(TEST_TODAY_DATE.plusDays(1), id -> id == TEST_ADVANCE_ID).join();
+
+        assertEquals(1, advances.getAdvances().size());
+        assertEquals(1002, advances.getAdvances().get(0).getId());
+        assertEquals(TEST_TODAY_DATE.plusDays(1).toString(), streamedRequestHeaders.get(0).getFirst("Today"));
+    }
+
+    @Test
+    public void givenAValidDate_whenCallingChargeAsync_thenTheDateChargedIsUpdated() {
+        mockChargeCall();
+
+        Charge testCharge = getTestCharge();
+        boolean result = classUnderTest.chargeAsync(TEST_TODAY_DATE, testCharge).join();
+
+        assertTrue(result);
+        assertEquals(URL_CHARGE, urlCaptor.getValue());
+        assertEquals(TEST_TODAY_DATE, testCharge.getDateCharged());
+    }
+
+    @Test
+    public void givenAValidDate_whenCallingReportBillingCompleteAsync_thenTrueIsReturned() {
+        mockBillingCompleteOkCall();
+
+        boolean result = classUnderTest.reportBillingCompleteAsync(TEST_TODAY_DATE, TEST_ADVANCE_ID).join();
+
+        assertTrue(result);
+        assertEquals(URL_BILLING_COMPLETE, urlCaptor.getValue());
+    }
+
+    @Test
+    public void givenABoundedExecutor_whenCallingGetRevenueAsyncConcurrently_thenTheInFlightLimitIsRespected() throws Exception {
+        int maxInFlightRequests = 2;
+        var executor = Executors.newFixedThreadPool(maxInFlightRequests);
+        classUnderTest = new WayflyerClient(TEST_SCHEME, TEST_URL, restTemplateMock, objectMapper, executor);
+
+        var inFlight = new AtomicInteger();
+        var maxObservedInFlight = new AtomicInteger();
+        String revenueJson = objectMapper.writeValueAsString(getTestRevenue());
+        when(restTemplateMock.exchange(anyString(), any(), any(), eq(String.class)))
+                .thenAnswer(invocation -> {
+                    maxObservedInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return ResponseEntity.ok(revenueJson);
+                });
+
+        try {
+            var revenueFutures = IntStream.range(0, 10)
+                    .mapToObj(customerId -> classUnderTest.getRevenueAsync(TEST_TODAY_DATE, customerId, TEST_REPAYMENT_START_DATE))
+                    .collect(Collectors.toList());
+            revenueFutures.forEach(CompletableFuture::join);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(maxObservedInFlight.get() <= maxInFlightRequests);
+    }
+
+    // endregion
+}
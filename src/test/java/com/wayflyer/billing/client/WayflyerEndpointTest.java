@@ -0,0 +1,36 @@
+package com.wayflyer.billing.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class WayflyerEndpointTest {
+    @Test
+    public void givenAnAdvancesUrl_whenCallingFromUri_thenAdvancesIsReturned() {
+        assertEquals(WayflyerEndpoint.ADVANCES, WayflyerEndpoint.fromUri(URI.create("https://example.com/v2/advances")));
+    }
+
+    @Test
+    public void givenARevenuesUrl_whenCallingFromUri_thenRevenuesIsReturned() {
+        assertEquals(WayflyerEndpoint.REVENUES, WayflyerEndpoint.fromUri(URI.create("https://example.com/v2/customers/1/revenues/2022-01-07")));
+    }
+
+    @Test
+    public void givenAChargeUrl_whenCallingFromUri_thenChargesIsReturned() {
+        assertEquals(WayflyerEndpoint.CHARGES, WayflyerEndpoint.fromUri(URI.create("https://example.com/v2/mandates/102/charge")));
+    }
+
+    @Test
+    public void givenABillingCompleteUrl_whenCallingFromUri_thenBillingCompleteIsReturned() {
+        assertEquals(WayflyerEndpoint.BILLING_COMPLETE, WayflyerEndpoint.fromUri(URI.create("https://example.com/v2/advances/1001/billing_complete")));
+    }
+
+    @Test
+    public void givenAnUnknownUrl_whenCallingFromUri_thenNullIsReturned() {
+        assertNull(WayflyerEndpoint.fromUri(URI.create("https://example.com/v2/unknown")));
+        assertNull(WayflyerEndpoint.fromUri(URI.create("https://example.com/advances")));
+    }
+}
@@ -0,0 +1,60 @@
+package com.wayflyer.billing.client;
+
+import com.wayflyer.billing.client.transport.PoolStatistics;
+import com.wayflyer.billing.client.transport.WayflyerTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WayflyerTransportMetricsTest {
+    private MeterRegistry meterRegistry;
+
+    private WayflyerTransport wayflyerTransport;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        wayflyerTransport = mock(WayflyerTransport.class);
+    }
+
+    @Test
+    public void givenAPoolWithAQueueAndCap_whenReadingTheGauges_thenAllStatisticsArePublished() {
+        when(wayflyerTransport.getPoolStatistics()).thenReturn(PoolStatistics.builder().total(5).leased(3).idle(2).pending(4).max(64).build());
+
+        new WayflyerTransportMetrics(meterRegistry, wayflyerTransport);
+
+        assertEquals(5, meterRegistry.get("wayflyer.client.pool.total").gauge().value());
+        assertEquals(3, meterRegistry.get("wayflyer.client.pool.leased").gauge().value());
+        assertEquals(2, meterRegistry.get("wayflyer.client.pool.idle").gauge().value());
+        assertEquals(4, meterRegistry.get("wayflyer.client.pool.pending").gauge().value());
+        assertEquals(64, meterRegistry.get("wayflyer.client.pool.max").gauge().value());
+    }
+
+    @Test
+    public void givenAPoolWithoutAQueueOrCap_whenRegistering_thenPendingAndMaxAreNotPublished() {
+        when(wayflyerTransport.getPoolStatistics()).thenReturn(PoolStatistics.builder().total(2).leased(1).idle(1).build());
+
+        new WayflyerTransportMetrics(meterRegistry, wayflyerTransport);
+
+        assertEquals(1, meterRegistry.get("wayflyer.client.pool.leased").gauge().value());
+        assertNull(meterRegistry.find("wayflyer.client.pool.pending").gauge());
+        assertNull(meterRegistry.find("wayflyer.client.pool.max").gauge());
+    }
+
+    @Test
+    public void givenTheStatisticsChange_whenReadingTheGauges_thenTheLatestValuesArePublished() {
+        when(wayflyerTransport.getPoolStatistics())
+                .thenReturn(PoolStatistics.builder().total(0).leased(0).idle(0).build())
+                .thenReturn(PoolStatistics.builder().total(3).leased(3).idle(0).build());
+
+        new WayflyerTransportMetrics(meterRegistry, wayflyerTransport);
+
+        assertEquals(3, meterRegistry.get("wayflyer.client.pool.leased").gauge().value());
+    }
+}
@@ -0,0 +1,99 @@
+package com.wayflyer.billing.client.limit;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final URI REVENUES_URI = URI.create("https://example.com/v2/customers/1/revenues/2022-01-07");
+
+    private static final URI CHARGES_URI = URI.create("https://example.com/v2/mandates/102/charge");
+
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveLimitProperties properties;
+
+    private AdaptiveConcurrencyLimiter classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AdaptiveLimitProperties();
+        properties.setInitialLimit(4);
+        properties.setBackoffRatio(0.5);
+        classUnderTest = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+    }
+
+    private static ClientHttpRequestExecution respondWith(int status) {
+        return (request, body) -> new MockClientHttpResponse(new byte[0], status);
+    }
+
+    private void intercept(URI uri, ClientHttpRequestExecution execution) throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, uri), new byte[0], execution);
+    }
+
+    @Test
+    public void givenAServerError_whenIntercepting_thenOnlyThatEndpointsLimitIsCutBack() throws IOException {
+        intercept(REVENUES_URI, respondWith(500));
+
+        assertEquals(2, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getLimit());
+        assertEquals(4, classUnderTest.getLimiter(WayflyerEndpoint.CHARGES).getLimit());
+        assertEquals(2, meterRegistry.get("wayflyer.client.concurrency.limit").tag("endpoint", "revenues").gauge().value());
+        assertEquals(1, meterRegistry.get("wayflyer.client.concurrency.limit.decreases").tag("endpoint", "revenues").functionCounter().count());
+    }
+
+    @Test
+    public void givenRevenueNotAvailable_whenIntercepting_thenItIsNotTreatedAsDistress() throws IOException {
+        intercept(REVENUES_URI, respondWith(530));
+
+        assertEquals(4, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getLimit());
+        assertEquals(0, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getInFlight());
+    }
+
+    @Test
+    public void givenAnIoError_whenIntercepting_thenThePermitIsReleasedAndTheLimitCutBack() {
+        ClientHttpRequestExecution execution = (request, body) -> {
+            throw new IOException("Connection reset");
+        };
+
+        assertThrows(IOException.class, () -> intercept(CHARGES_URI, execution));
+        assertEquals(0, classUnderTest.getLimiter(WayflyerEndpoint.CHARGES).getInFlight());
+        assertEquals(2, classUnderTest.getLimiter(WayflyerEndpoint.CHARGES).getLimit());
+    }
+
+    @Test
+    public void givenAPerEndpointMaximum_whenCreating_thenItCapsThatEndpointsLimit() {
+        properties.getMaxLimits().put(WayflyerEndpoint.CHARGES, 2);
+
+        classUnderTest = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        assertEquals(2, classUnderTest.getLimiter(WayflyerEndpoint.CHARGES).getLimit());
+        assertEquals(4, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getLimit());
+    }
+
+    @Test
+    public void givenTheLimiterIsDisabled_whenIntercepting_thenNoPermitIsTaken() throws IOException {
+        properties.setEnabled(false);
+        classUnderTest = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+
+        intercept(REVENUES_URI, (request, body) -> {
+            assertEquals(0, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getInFlight());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertEquals(4, classUnderTest.getLimiter(WayflyerEndpoint.REVENUES).getLimit());
+    }
+}
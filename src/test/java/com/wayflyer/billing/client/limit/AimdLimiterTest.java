@@ -0,0 +1,110 @@
+package com.wayflyer.billing.client.limit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AimdLimiterTest {
+    private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private AtomicLong nanoClock;
+
+    private AimdLimiter classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        nanoClock = new AtomicLong();
+        classUnderTest = new AimdLimiter(4, 1, 8, 0.5, 2.0, nanoClock::get);
+    }
+
+    private void saturateAndRelease(boolean dropped, long latencyNanos) throws InterruptedException {
+        int limit = classUnderTest.getLimit();
+        for (int i = 0; i < limit; i++) {
+            classUnderTest.acquire();
+        }
+        for (int i = 0; i < limit; i++) {
+            classUnderTest.release(dropped, latencyNanos);
+        }
+        nanoClock.addAndGet(latencyNanos);
+    }
+
+    @Test
+    public void givenFlatLatencyAtTheLimit_whenReleasing_thenTheLimitGrowsUpToTheMaximum() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            saturateAndRelease(false, LATENCY_NANOS);
+        }
+
+        assertEquals(8, classUnderTest.getLimit());
+        assertEquals(0, classUnderTest.getDecreaseCount());
+    }
+
+    @Test
+    public void givenRequestsBelowTheLimit_whenReleasing_thenTheLimitDoesNotGrow() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            classUnderTest.acquire();
+            classUnderTest.release(false, LATENCY_NANOS);
+        }
+
+        assertEquals(4, classUnderTest.getLimit());
+    }
+
+    @Test
+    public void givenAServerError_whenReleasing_thenTheLimitIsCutBackOncePerRoundTrip() throws InterruptedException {
+        saturateAndRelease(false, LATENCY_NANOS);
+        int limit = classUnderTest.getLimit();
+
+        saturateAndRelease(true, LATENCY_NANOS);
+
+        assertEquals(limit / 2, classUnderTest.getLimit());
+        assertEquals(1, classUnderTest.getDecreaseCount());
+    }
+
+    @Test
+    public void givenALatencySpike_whenReleasing_thenTheLimitIsCutBack() throws InterruptedException {
+        saturateAndRelease(false, LATENCY_NANOS);
+
+        classUnderTest.acquire();
+        classUnderTest.release(false, LATENCY_NANOS * 10);
+
+        assertEquals(2, classUnderTest.getLimit());
+    }
+
+    @Test
+    public void givenRepeatedErrors_whenReleasing_thenTheLimitNeverDropsBelowTheMinimum() throws InterruptedException {
+        for (int round = 0; round < 10; round++) {
+            saturateAndRelease(true, LATENCY_NANOS);
+        }
+
+        assertEquals(1, classUnderTest.getLimit());
+    }
+
+    @Test
+    public void givenTheLimitIsReached_whenAcquiring_thenTheCallerWaitsForARelease() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            classUnderTest.acquire();
+        }
+        var acquired = new CountDownLatch(1);
+        var waiter = new Thread(() -> {
+            try {
+                classUnderTest.acquire();
+                acquired.countDown();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        classUnderTest.release(false, LATENCY_NANOS);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(4, classUnderTest.getInFlight());
+        waiter.join();
+    }
+}
@@ -0,0 +1,164 @@
+package com.wayflyer.billing.client.recording;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ApiRecordingTest {
+    private static final String REVENUE_KEY = "GET /v2/customers/1/revenues/2022-01-07 2022-01-08";
+
+    private static final String CHARGE_KEY = "POST /v2/mandates/102/charge 2022-01-08";
+
+    private static final byte[] NO_BODY = new byte[0];
+
+    @TempDir
+    private Path tempDir;
+
+    private Path path;
+
+    private ApiRecordingWriter writer;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        path = tempDir.resolve("recording.bin");
+        writer = ApiRecordingWriter.create(path);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        writer.close();
+    }
+
+    @Test
+    public void givenRequestWithTodayHeader_whenKeyed_thenMethodPathQueryAndTodayAreUsed() {
+        var request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://example.com/v2/advances?page=2"));
+        request.getHeaders().add("Today", "2022-01-08");
+
+        assertEquals("GET /v2/advances?page=2 2022-01-08", ApiRecording.key(request));
+    }
+
+    @Test
+    public void givenRecordedResponse_whenReplayed_thenStatusHeadersAndBodyMatch() throws IOException {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setETag("\"v1\"");
+        writer.record(WayflyerEndpoint.REVENUES, REVENUE_KEY, NO_BODY, 200, headers, bytes("{\"amount\":\"1234.56\"}"));
+        writer.close();
+
+        var classUnderTest = ApiRecording.open(path);
+        RecordedResponse response = classUnderTest.next(REVENUE_KEY, NO_BODY);
+
+        assertEquals(1, classUnderTest.size());
+        assertEquals(200, response.getRawStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        assertArrayEquals(bytes("{\"amount\":\"1234.56\"}"), response.getBody().readAllBytes());
+        assertEquals(1, classUnderTest.getServedCount());
+    }
+
+    @Test
+    public void givenHopByHopHeaders_whenRecorded_thenTheyAreNotReplayed() throws IOException {
+        var headers = new HttpHeaders();
+        headers.add(HttpHeaders.DATE, "Sat, 08 Jan 2022 00:00:00 GMT");
+        headers.add("Keep-Alive", "timeout=60");
+        headers.add(HttpHeaders.LAST_MODIFIED, "Sat, 08 Jan 2022 00:00:00 GMT");
+        writer.record(WayflyerEndpoint.REVENUES, REVENUE_KEY, NO_BODY, 200, headers, bytes("{}"));
+        writer.close();
+
+        RecordedResponse response = ApiRecording.open(path).next(REVENUE_KEY, NO_BODY);
+
+        assertEquals(Set.of(HttpHeaders.LAST_MODIFIED), response.getHeaders().keySet());
+    }
+
+    @Test
+    public void givenRepeatedRequest_whenReplayed_thenResponsesAreServedInOrderAndTheLastOneRepeats() throws IOException {
+        writer.record(WayflyerEndpoint.CHARGES, CHARGE_KEY, NO_BODY, 530, new HttpHeaders(), bytes("Charging not possible at this time"));
+        writer.record(WayflyerEndpoint.CHARGES, CHARGE_KEY, NO_BODY, 200, new HttpHeaders(), bytes("{}"));
+        writer.close();
+
+        var classUnderTest = ApiRecording.open(path);
+
+        assertEquals(530, classUnderTest.next(CHARGE_KEY, NO_BODY).getRawStatusCode());
+        assertEquals(200, classUnderTest.next(CHARGE_KEY, NO_BODY).getRawStatusCode());
+        assertEquals(200, classUnderTest.next(CHARGE_KEY, NO_BODY).getRawStatusCode());
+    }
+
+    @Test
+    public void givenUnrecordedRequest_whenReplayed_thenNoResponseAndMissIsCounted() throws IOException {
+        writer.record(WayflyerEndpoint.CHARGES, CHARGE_KEY, NO_BODY, 200, new HttpHeaders(), bytes("{}"));
+        writer.close();
+
+        var classUnderTest = ApiRecording.open(path);
+
+        assertNull(classUnderTest.next(REVENUE_KEY, NO_BODY));
+        assertEquals(1, classUnderTest.getMissedCount());
+    }
+
+    @Test
+    public void givenRequestBodyThatDiffersFromTheRecording_whenReplayed_thenNoResponseAndMissIsCounted() throws IOException {
+        writer.record(WayflyerEndpoint.CHARGES, CHARGE_KEY, bytes("{\"amount\":\"110.00\"}"), 200, new HttpHeaders(), bytes("{}"));
+        writer.close();
+
+        var classUnderTest = ApiRecording.open(path);
+
+        assertNull(classUnderTest.next(CHARGE_KEY, bytes("{\"amount\":\"120.00\"}")));
+        assertEquals(200, classUnderTest.next(CHARGE_KEY, bytes("{\"amount\":\"110.00\"}")).getRawStatusCode());
+        assertEquals(1, classUnderTest.getMissedCount());
+        assertEquals(1, classUnderTest.getServedCount());
+    }
+
+    @Test
+    public void givenRecordedFailure_whenReplayed_thenIOExceptionIsThrown() throws IOException {
+        writer.recordFailure(WayflyerEndpoint.REVENUES, REVENUE_KEY, NO_BODY, new IOException("Read timed out"));
+        writer.close();
+
+        var classUnderTest = ApiRecording.open(path);
+
+        var exception = assertThrows(IOException.class, () -> classUnderTest.next(REVENUE_KEY, NO_BODY));
+        assertEquals("Recorded failure: Read timed out", exception.getMessage());
+    }
+
+    @Test
+    public void givenRecordingThatWasNotClosed_whenOpened_thenIndexIsRebuiltFromRecords() throws IOException {
+        writer.record(WayflyerEndpoint.REVENUES, REVENUE_KEY, NO_BODY, 200, new HttpHeaders(), bytes("{\"amount\":\"1.00\"}"));
+        writer.record(WayflyerEndpoint.CHARGES, CHARGE_KEY, NO_BODY, 200, new HttpHeaders(), bytes("{}"));
+        writer.record(WayflyerEndpoint.REVENUES, REVENUE_KEY, NO_BODY, 200, new HttpHeaders(), bytes("{\"amount\":\"2.00\"}"));
+
+        var classUnderTest = ApiRecording.open(path);
+
+        assertEquals(2, classUnderTest.size());
+        assertArrayEquals(bytes("{\"amount\":\"1.00\"}"), classUnderTest.next(REVENUE_KEY, NO_BODY).getBody().readAllBytes());
+        assertArrayEquals(bytes("{\"amount\":\"2.00\"}"), classUnderTest.next(REVENUE_KEY, NO_BODY).getBody().readAllBytes());
+        assertEquals(200, classUnderTest.next(CHARGE_KEY, NO_BODY).getRawStatusCode());
+    }
+
+    @Test
+    public void givenFileThatIsNotARecording_whenOpened_thenIOExceptionIsThrown() throws IOException {
+        var other = tempDir.resolve("other.bin");
+        Files.write(other, bytes("not a recording at all"));
+
+        assertThrows(IOException.class, () -> ApiRecording.open(other));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wayflyer.billing.client.recording;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RecordingInterceptorTest {
+    private static final byte[] REVENUE_BODY = "{\"amount\":\"1234.56\"}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private ClientHttpRequestExecution execution;
+
+    private Path path;
+
+    private MockClientHttpRequest request;
+
+    private RecordingInterceptor classUnderTest;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        path = tempDir.resolve("recording.bin");
+        request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://example.com/v2/customers/1/revenues/2022-01-07"));
+        request.getHeaders().add("Today", "2022-01-08");
+        classUnderTest = new RecordingInterceptor(ApiRecordingWriter.create(path));
+    }
+
+    @Test
+    public void givenResponse_whenIntercepted_thenItIsRecordedAndItsBodyIsStillReadable() throws IOException {
+        var response = new MockClientHttpResponse(REVENUE_BODY, 200);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        when(execution.execute(any(), any())).thenReturn(response);
+
+        ClientHttpResponse result = classUnderTest.intercept(request, new byte[0], execution);
+        classUnderTest.close();
+
+        assertArrayEquals(REVENUE_BODY, result.getBody().readAllBytes());
+        RecordedResponse replayed = ApiRecording.open(path).next(ApiRecording.key(request), new byte[0]);
+        assertEquals(200, replayed.getRawStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, replayed.getHeaders().getContentType());
+        assertArrayEquals(REVENUE_BODY, replayed.getBody().readAllBytes());
+    }
+
+    @Test
+    public void givenUnofficialStatus_whenIntercepted_thenRawStatusIsRecorded() throws IOException {
+        when(execution.execute(any(), any())).thenReturn(new MockClientHttpResponse(new byte[0], 530));
+
+        ClientHttpResponse result = classUnderTest.intercept(request, new byte[0], execution);
+        classUnderTest.close();
+
+        assertEquals(530, result.getRawStatusCode());
+        assertEquals(530, ApiRecording.open(path).next(ApiRecording.key(request), new byte[0]).getRawStatusCode());
+    }
+
+    @Test
+    public void givenRequestBody_whenIntercepted_thenItIsRecordedWithTheResponse() throws IOException {
+        var chargeRequest = new MockClientHttpRequest(HttpMethod.POST, URI.create("https://example.com/v2/mandates/102/charge"));
+        chargeRequest.getHeaders().add("Today", "2022-01-08");
+        byte[] chargeBody = "{\"amount\":\"110.00\"}".getBytes(StandardCharsets.UTF_8);
+        when(execution.execute(any(), any())).thenReturn(new MockClientHttpResponse(new byte[0], 200));
+
+        classUnderTest.intercept(chargeRequest, chargeBody, execution);
+        classUnderTest.close();
+
+        var recording = ApiRecording.open(path);
+        assertNull(recording.next(ApiRecording.key(chargeRequest), "{\"amount\":\"120.00\"}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(200, recording.next(ApiRecording.key(chargeRequest), chargeBody).getRawStatusCode());
+    }
+
+    @Test
+    public void givenIOException_whenIntercepted_thenFailureIsRecordedAndRethrown() throws IOException {
+        when(execution.execute(any(), any())).thenThrow(new SocketTimeoutException("Read timed out"));
+
+        assertThrows(SocketTimeoutException.class, () -> classUnderTest.intercept(request, new byte[0], execution));
+        classUnderTest.close();
+
+        var recording = ApiRecording.open(path);
+        assertThrows(IOException.class, () -> recording.next(ApiRecording.key(request), new byte[0]));
+    }
+}
@@ -0,0 +1,95 @@
+package com.wayflyer.billing.client.recording;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReplayTransportTest {
+    private static final String REVENUE_URL = "https://example.com/v2/customers/1/revenues/2022-01-07";
+
+    private static final String CHARGE_URL = "https://example.com/v2/mandates/102/charge";
+
+    @TempDir
+    private Path tempDir;
+
+    private ReplayTransport classUnderTest;
+
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        Path path = tempDir.resolve("recording.bin");
+        try (var writer = ApiRecordingWriter.create(path)) {
+            var headers = new HttpHeaders();
+            headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+            writer.record(WayflyerEndpoint.REVENUES, "GET /v2/customers/1/revenues/2022-01-07 2022-01-08", new byte[0], 200, headers,
+                    "{\"amount\":\"1234.56\"}".getBytes(StandardCharsets.UTF_8));
+            writer.record(WayflyerEndpoint.CHARGES, "POST /v2/mandates/102/charge 2022-01-08", "{\"amount\":\"110.00\"}".getBytes(StandardCharsets.UTF_8), 200, headers,
+                    "{}".getBytes(StandardCharsets.UTF_8));
+        }
+        classUnderTest = ReplayTransport.open(path);
+        restTemplate = new RestTemplate(classUnderTest.getRequestFactory());
+    }
+
+    @Test
+    public void givenRecordedRequest_whenExchanged_thenRecordedResponseIsReturned() {
+        ResponseEntity<String> response = restTemplate.exchange(REVENUE_URL, HttpMethod.GET, entity("2022-01-08"), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("{\"amount\":\"1234.56\"}", response.getBody());
+    }
+
+    @Test
+    public void givenRequestForAnotherDay_whenExchanged_thenResourceAccessExceptionIsThrown() {
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.exchange(REVENUE_URL, HttpMethod.GET, entity("2022-01-09"), String.class));
+    }
+
+    @Test
+    public void givenChargeWithTheRecordedAmount_whenExchanged_thenRecordedResponseIsReturned() {
+        ResponseEntity<String> response = restTemplate.exchange(CHARGE_URL, HttpMethod.POST, entity("2022-01-08", "{\"amount\":\"110.00\"}"), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void givenChargeWithAnotherAmount_whenExchanged_thenResourceAccessExceptionIsThrown() {
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.exchange(CHARGE_URL, HttpMethod.POST, entity("2022-01-08", "{\"amount\":\"120.00\"}"), String.class));
+    }
+
+    @Test
+    public void givenReplayTransport_whenPoolStatisticsRequested_thenNoConnectionsAreReported() {
+        assertEquals(0, classUnderTest.getPoolStatistics().getTotal());
+        assertNull(classUnderTest.getPoolStatistics().getPending());
+        assertNull(classUnderTest.getPoolStatistics().getMax());
+    }
+
+    private static HttpEntity<Void> entity(String today) {
+        var headers = new HttpHeaders();
+        headers.add("Today", today);
+        return new HttpEntity<>(headers);
+    }
+
+    private static HttpEntity<String> entity(String today, String body) {
+        var headers = new HttpHeaders();
+        headers.add("Today", today);
+        return new HttpEntity<>(body, headers);
+    }
+}
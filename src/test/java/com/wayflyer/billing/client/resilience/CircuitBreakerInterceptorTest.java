@@ -0,0 +1,96 @@
+package com.wayflyer.billing.client.resilience;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CircuitBreakerInterceptorTest {
+    private static final URI REVENUES_URI = URI.create("https://example.com/v2/customers/1/revenues/2022-01-07");
+
+    private MeterRegistry meterRegistry;
+
+    private CircuitBreakerProperties properties;
+
+    private CircuitBreakerInterceptor classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new CircuitBreakerProperties();
+        properties.setMinimumCalls(5);
+        classUnderTest = new CircuitBreakerInterceptor(properties, meterRegistry);
+    }
+
+    private static ClientHttpRequestExecution respondWith(int status) {
+        return (request, body) -> new MockClientHttpResponse(new byte[0], status);
+    }
+
+    private void intercept(ClientHttpRequestExecution execution) throws IOException {
+        classUnderTest.intercept(new MockClientHttpRequest(HttpMethod.GET, REVENUES_URI), new byte[0], execution);
+    }
+
+    @Test
+    public void givenRepeatedServerErrors_whenIntercepting_thenTheCircuitOpensAndFailsFast() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            intercept(respondWith(500));
+        }
+        var executions = new AtomicInteger();
+
+        var exception = assertThrows(CircuitOpenException.class, () -> intercept((request, body) -> {
+            executions.incrementAndGet();
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        }));
+
+        assertEquals(WayflyerEndpoint.REVENUES, exception.getEndpoint());
+        assertEquals(0, executions.get());
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getCircuitBreaker(WayflyerEndpoint.CHARGES).getState());
+        assertEquals(2, meterRegistry.get("wayflyer.client.circuit.state").tag("endpoint", "revenues").gauge().value());
+        assertEquals(1, meterRegistry.get("wayflyer.client.circuit.rejected").tag("endpoint", "revenues").functionCounter().count());
+    }
+
+    @Test
+    public void givenRepeatedIoErrors_whenIntercepting_thenTheCircuitOpens() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IOException.class, () -> intercept((request, body) -> {
+                throw new IOException("Connection reset");
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, classUnderTest.getCircuitBreaker(WayflyerEndpoint.REVENUES).getState());
+    }
+
+    @Test
+    public void givenRevenueNotAvailable_whenIntercepting_thenItIsNotCountedAsAFailure() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            intercept(respondWith(530));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getCircuitBreaker(WayflyerEndpoint.REVENUES).getState());
+    }
+
+    @Test
+    public void givenTheCircuitBreakerIsDisabled_whenIntercepting_thenServerErrorsAreNotTracked() throws IOException {
+        properties.setEnabled(false);
+        classUnderTest = new CircuitBreakerInterceptor(properties, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            intercept(respondWith(500));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getCircuitBreaker(WayflyerEndpoint.REVENUES).getState());
+    }
+}
@@ -0,0 +1,113 @@
+package com.wayflyer.billing.client.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CircuitBreakerTest {
+    private static final long OPEN_DURATION_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private AtomicLong nanoClock;
+
+    private CircuitBreaker classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        nanoClock = new AtomicLong();
+        classUnderTest = new CircuitBreaker(0.5, 10, 4, OPEN_DURATION_NANOS, 2, nanoClock::get);
+    }
+
+    private void call(boolean failed) {
+        assertTrue(classUnderTest.tryAcquire());
+        if (failed) {
+            classUnderTest.onFailure();
+        } else {
+            classUnderTest.onSuccess();
+        }
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+    }
+
+    @Test
+    public void givenFewerThanTheMinimumCalls_whenAllFail_thenTheCircuitStaysClosed() {
+        for (int i = 0; i < 3; i++) {
+            call(true);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getState());
+    }
+
+    @Test
+    public void givenAFailureRateBelowTheThreshold_whenCalling_thenTheCircuitStaysClosed() {
+        for (int i = 0; i < 20; i++) {
+            call(i % 3 == 2);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getState());
+    }
+
+    @Test
+    public void givenOldFailuresLeftTheWindow_whenCalling_thenTheyNoLongerCount() {
+        for (int i = 0; i < 3; i++) {
+            call(true);
+        }
+        for (int i = 0; i < 10; i++) {
+            call(false);
+        }
+        for (int i = 0; i < 4; i++) {
+            call(true);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getState());
+    }
+
+    @Test
+    public void givenTheFailureRateReachesTheThreshold_whenCalling_thenTheCircuitOpensAndRejectsCalls() {
+        open();
+
+        assertEquals(CircuitBreaker.State.OPEN, classUnderTest.getState());
+        assertFalse(classUnderTest.tryAcquire());
+        assertEquals(1, classUnderTest.getOpenCount());
+        assertEquals(1, classUnderTest.getRejectedCount());
+    }
+
+    @Test
+    public void givenTheOpenDurationPassed_whenTheTrialCallsSucceed_thenTheCircuitCloses() {
+        open();
+        nanoClock.addAndGet(OPEN_DURATION_NANOS);
+
+        assertTrue(classUnderTest.tryAcquire());
+        assertTrue(classUnderTest.tryAcquire());
+        assertFalse(classUnderTest.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, classUnderTest.getState());
+
+        classUnderTest.onSuccess();
+        classUnderTest.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getState());
+        call(true);
+        assertEquals(CircuitBreaker.State.CLOSED, classUnderTest.getState());
+    }
+
+    @Test
+    public void givenTheOpenDurationPassed_whenATrialCallFails_thenTheCircuitOpensAgain() {
+        open();
+        nanoClock.addAndGet(OPEN_DURATION_NANOS);
+
+        call(true);
+
+        assertEquals(CircuitBreaker.State.OPEN, classUnderTest.getState());
+        assertFalse(classUnderTest.tryAcquire());
+        assertEquals(2, classUnderTest.getOpenCount());
+    }
+}
@@ -0,0 +1,41 @@
+package com.wayflyer.billing.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LatencyTrackerTest {
+    @Test
+    public void givenTooFewSamples_whenComputingAPercentile_thenNoValueIsReturned() {
+        var classUnderTest = new LatencyTracker(100, 10);
+        for (int i = 0; i < 9; i++) {
+            classUnderTest.record(i);
+        }
+
+        assertEquals(-1, classUnderTest.percentile(0.95));
+    }
+
+    @Test
+    public void givenAFullWindow_whenComputingAPercentile_thenTheNearestRankIsReturned() {
+        var classUnderTest = new LatencyTracker(100, 10);
+        for (int i = 1; i <= 100; i++) {
+            classUnderTest.record(i);
+        }
+
+        assertEquals(95, classUnderTest.percentile(0.95));
+        assertEquals(50, classUnderTest.percentile(0.5));
+    }
+
+    @Test
+    public void givenMoreSamplesThanTheWindow_whenComputingAPercentile_thenOnlyRecentSamplesCount() {
+        var classUnderTest = new LatencyTracker(10, 10);
+        for (int i = 0; i < 10; i++) {
+            classUnderTest.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            classUnderTest.record(5);
+        }
+
+        assertEquals(5, classUnderTest.percentile(0.95));
+    }
+}
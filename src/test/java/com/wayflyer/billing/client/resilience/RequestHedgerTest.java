@@ -0,0 +1,126 @@
+package com.wayflyer.billing.client.resilience;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestHedgerTest {
+    private HedgingProperties properties;
+
+    private ExecutorService executor;
+
+    private RequestHedger classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinDelay(Duration.ofMillis(1));
+        properties.setMaxDelay(Duration.ofMillis(50));
+        properties.setMinSamples(10);
+        executor = Executors.newFixedThreadPool(4);
+        classUnderTest = new RequestHedger(WayflyerEndpoint.REVENUES, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Supplier<String> injectLatency(CountDownLatch stalled, AtomicInteger calls) {
+        return () -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    stalled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }
+            return "fast";
+        };
+    }
+
+    @Test
+    public void givenTheFirstRequestStalls_whenTheHedgeDelayPasses_thenTheHedgedResponseIsUsed() throws InterruptedException {
+        var stalled = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+
+        String response = classUnderTest.supplyAsync(injectLatency(stalled, calls), executor).join();
+        stalled.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals("fast", response);
+        assertEquals(2, calls.get());
+        assertEquals(1, classUnderTest.getHedgeCount());
+        assertEquals(1, classUnderTest.getHedgeWinCount());
+    }
+
+    @Test
+    public void givenTheFirstRequestAnswersQuickly_whenTheHedgeDelayPasses_thenNoHedgeIsSent() throws InterruptedException {
+        var calls = new AtomicInteger();
+
+        String response = classUnderTest.supplyAsync(() -> {
+            calls.incrementAndGet();
+            return "fast";
+        }, executor).join();
+        Thread.sleep(100);
+
+        assertEquals("fast", response);
+        assertEquals(1, calls.get());
+        assertEquals(0, classUnderTest.getHedgeCount());
+    }
+
+    @Test
+    public void givenTooFewSamples_whenComputingTheHedgeDelay_thenTheMaximumDelayIsUsed() {
+        classUnderTest.supplyAsync(() -> "fast", Runnable::run);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), classUnderTest.getHedgeDelayNanos());
+    }
+
+    @Test
+    public void givenFastResponses_whenComputingTheHedgeDelay_thenTheMinimumDelayIsUsed() {
+        for (int i = 0; i < 10; i++) {
+            classUnderTest.supplyAsync(() -> "fast", Runnable::run);
+        }
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), classUnderTest.getHedgeDelayNanos());
+    }
+
+    @Test
+    public void givenHedgingIsDisabled_whenTheFirstRequestStalls_thenNoHedgeIsSent() {
+        classUnderTest = RequestHedger.disabled(WayflyerEndpoint.REVENUES);
+        var stalled = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+
+        var response = classUnderTest.supplyAsync(injectLatency(stalled, calls), executor);
+        stalled.countDown();
+
+        assertEquals("slow", response.join());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void givenAMeterRegistry_whenBinding_thenHedgeCountersAreRegistered() {
+        var meterRegistry = new SimpleMeterRegistry();
+
+        classUnderTest.bindTo(meterRegistry);
+
+        assertEquals(0, meterRegistry.get("wayflyer.client.hedged.requests").tag("endpoint", "revenues").functionCounter().count());
+        assertEquals(0, meterRegistry.get("wayflyer.client.hedged.wins").tag("endpoint", "revenues").functionCounter().count());
+    }
+}
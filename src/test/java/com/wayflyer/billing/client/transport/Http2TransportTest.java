@@ -0,0 +1,71 @@
+package com.wayflyer.billing.client.transport;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class Http2TransportTest {
+    private HttpServer server;
+
+    private Http2Transport classUnderTest;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        var properties = new TransportProperties();
+        properties.setMaxConnections(20);
+        classUnderTest = new Http2Transport(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        classUnderTest.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void givenANewTransport_whenGettingThePoolStatistics_thenThePoolIsEmpty() {
+        PoolStatistics poolStatistics = classUnderTest.getPoolStatistics();
+
+        assertEquals(0, poolStatistics.getTotal());
+        assertEquals(0, poolStatistics.getLeased());
+        assertEquals(0, poolStatistics.getIdle());
+    }
+
+    @Test
+    public void givenACompletedRequest_whenGettingThePoolStatistics_thenTheConnectionIsIdle() {
+        var restTemplate = new RestTemplate(classUnderTest.getRequestFactory());
+
+        restTemplate.getForObject("http://localhost:" + server.getAddress().getPort() + "/v2/advances", String.class);
+
+        PoolStatistics poolStatistics = classUnderTest.getPoolStatistics();
+        assertEquals(1, poolStatistics.getTotal());
+        assertEquals(0, poolStatistics.getLeased());
+        assertEquals(1, poolStatistics.getIdle());
+    }
+
+    @Test
+    public void givenATransportWithoutAQueueOrCap_whenGettingThePoolStatistics_thenPendingAndMaxAreNotReported() {
+        PoolStatistics poolStatistics = classUnderTest.getPoolStatistics();
+
+        assertNull(poolStatistics.getPending());
+        assertNull(poolStatistics.getMax());
+    }
+}
@@ -0,0 +1,56 @@
+package com.wayflyer.billing.client.transport;
+
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PooledHttp1TransportTest {
+    private PooledHttp1Transport classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        var properties = new TransportProperties();
+        properties.setMaxConnections(20);
+        properties.setMaxConnectionsPerRoute(10);
+        properties.setConnectTimeout(Duration.ofSeconds(2));
+        properties.setReadTimeout(Duration.ofSeconds(30));
+        properties.getReadTimeouts().put(WayflyerEndpoint.REVENUES, Duration.ofSeconds(5));
+        properties.getReadTimeouts().put(WayflyerEndpoint.CHARGES, Duration.ofSeconds(15));
+
+        classUnderTest = new PooledHttp1Transport(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        classUnderTest.close();
+    }
+
+    @Test
+    public void givenAnEndpointWithATimeout_whenGettingTheRequestConfig_thenTheEndpointTimeoutIsUsed() {
+        assertEquals(5000, classUnderTest.getRequestConfig(WayflyerEndpoint.REVENUES).getSocketTimeout());
+        assertEquals(15000, classUnderTest.getRequestConfig(WayflyerEndpoint.CHARGES).getSocketTimeout());
+        assertEquals(2000, classUnderTest.getRequestConfig(WayflyerEndpoint.CHARGES).getConnectTimeout());
+    }
+
+    @Test
+    public void givenAnEndpointWithoutATimeout_whenGettingTheRequestConfig_thenTheDefaultTimeoutIsUsed() {
+        assertEquals(30000, classUnderTest.getRequestConfig(WayflyerEndpoint.ADVANCES).getSocketTimeout());
+        assertEquals(30000, classUnderTest.getRequestConfig(null).getSocketTimeout());
+    }
+
+    @Test
+    public void givenANewTransport_whenGettingThePoolStatistics_thenThePoolIsEmpty() {
+        PoolStatistics poolStatistics = classUnderTest.getPoolStatistics();
+
+        assertEquals(0, poolStatistics.getTotal());
+        assertEquals(0, poolStatistics.getLeased());
+        assertEquals(0, poolStatistics.getIdle());
+        assertEquals(0, poolStatistics.getPending());
+        assertEquals(20, poolStatistics.getMax());
+    }
+}
@@ -0,0 +1,93 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.wayflyer.billing.model.Advance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_START_DATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FakeDatasetTest {
+    private FakeApiProperties properties;
+
+    private FakeDataset classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new FakeApiProperties();
+        properties.setAdvanceCount(1_000);
+        properties.setCustomerCount(100);
+        properties.setStartDate(TEST_START_DATE);
+        properties.setEndDate(TEST_START_DATE.plusDays(100));
+        classUnderTest = new FakeDataset(properties);
+    }
+
+    @Test
+    public void givenTheSameSeed_whenGeneratingAdvances_thenTheyAreIdentical() {
+        var otherDataset = new FakeDataset(properties);
+
+        for (int index = 0; index < properties.getAdvanceCount(); index++) {
+            assertEquals(classUnderTest.getAdvance(index), otherDataset.getAdvance(index));
+        }
+    }
+
+    @Test
+    public void givenADifferentSeed_whenGeneratingAdvances_thenTheyDiffer() {
+        var otherProperties = new FakeApiProperties();
+        otherProperties.setAdvanceCount(properties.getAdvanceCount());
+        otherProperties.setCustomerCount(properties.getCustomerCount());
+        otherProperties.setSeed(properties.getSeed() + 1);
+
+        assertNotEquals(classUnderTest.getAdvance(0).getTotalAdvanced(), new FakeDataset(otherProperties).getAdvance(0).getTotalAdvanced());
+    }
+
+    @Test
+    public void givenTheSimulatedPeriod_whenCountingVisibleAdvances_thenTheyAreCreatedOnOrBeforeToday() {
+        assertEquals(0, classUnderTest.getVisibleAdvanceCount(TEST_START_DATE.minusDays(1)));
+        assertEquals(properties.getAdvanceCount(), classUnderTest.getVisibleAdvanceCount(properties.getEndDate()));
+
+        for (LocalDate today = TEST_START_DATE; today.isBefore(properties.getEndDate()); today = today.plusDays(1)) {
+            int visibleAdvanceCount = classUnderTest.getVisibleAdvanceCount(today);
+            assertFalse(classUnderTest.getAdvance(visibleAdvanceCount - 1).getCreated().isAfter(today));
+            if (visibleAdvanceCount < properties.getAdvanceCount()) {
+                assertTrue(classUnderTest.getAdvance(visibleAdvanceCount).getCreated().isAfter(today));
+            }
+        }
+    }
+
+    @Test
+    public void givenAnAdvance_whenGenerating_thenItsFieldsAreConsistent() {
+        Advance advance = classUnderTest.getAdvance(10);
+
+        assertEquals(10, classUnderTest.getAdvanceIndex(advance.getId()));
+        assertEquals(advance.getId(), advance.getMandateId());
+        assertTrue(advance.getRepaymentStartDate().isAfter(advance.getCreated()));
+        assertTrue(advance.getCustomerId() >= 1 && advance.getCustomerId() <= properties.getCustomerCount());
+        assertTrue(advance.getTotalAdvanced().isPositive());
+    }
+
+    @Test
+    public void givenNoDelays_whenCheckingRevenueAvailability_thenItIsAvailableTheNextDay() {
+        properties.setRevenueDelayRate(0);
+
+        assertEquals(TEST_START_DATE.plusDays(1), classUnderTest.getRevenueAvailableDate(TEST_CUSTOMER_ID, TEST_START_DATE));
+    }
+
+    @Test
+    public void givenAllRevenuesAreDelayed_whenCheckingRevenueAvailability_thenItIsAvailableWithinTheMaxDelay() {
+        properties.setRevenueDelayRate(1);
+        properties.setMaxRevenueDelayDays(3);
+
+        for (int customerId = 1; customerId <= properties.getCustomerCount(); customerId++) {
+            LocalDate availableDate = classUnderTest.getRevenueAvailableDate(customerId, TEST_START_DATE);
+            assertTrue(availableDate.isAfter(TEST_START_DATE.plusDays(1)));
+            assertFalse(availableDate.isAfter(TEST_START_DATE.plusDays(4)));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import com.wayflyer.billing.client.resilience.CircuitBreaker;
+import com.wayflyer.billing.client.resilience.CircuitBreakerInterceptor;
+import com.wayflyer.billing.model.Revenue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "fakeApi.advanceCount=20",
+        "fakeApi.customerCount=10",
+        "fakeApi.serverErrorRate=1.0",
+        "fakeApi.latency.advances.distribution=none",
+        "fakeApi.latency.revenues.distribution=none",
+        "fakeApi.latency.charges.distribution=none",
+        "fakeApi.latency.billing-complete.distribution=none",
+        "client.wayflyer.circuitBreaker.minimumCalls=5",
+        "client.wayflyer.circuitBreaker.openDuration=1h"
+})
+@ActiveProfiles("fake-api")
+public class FakeWayflyerApiResilienceTest {
+    private static final LocalDate TODAY = LocalDate.of(2022, 2, 1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FakeApiLedger fakeApiLedger;
+
+    @Autowired
+    private CircuitBreakerInterceptor circuitBreakerInterceptor;
+
+    @Test
+    public void givenTheRevenueEndpointKeepsFailing_whenRetrievingRevenue_thenTheCircuitOpensAndRevenueIsReportedAsDelayed() {
+        var wayflyerClient = new WayflyerClient("http", "localhost:" + port, restTemplate, objectMapper, Runnable::run);
+
+        for (int customerId = 1; customerId <= 10; customerId++) {
+            Revenue revenue = wayflyerClient.getRevenue(TODAY, customerId, TODAY.minusDays(1));
+
+            assertNull(revenue.getAmount());
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerInterceptor.getCircuitBreaker(WayflyerEndpoint.REVENUES).getState());
+        assertEquals(5, fakeApiLedger.getResponseCount(WayflyerEndpoint.REVENUES, 500));
+        assertEquals(5, circuitBreakerInterceptor.getCircuitBreaker(WayflyerEndpoint.REVENUES).getRejectedCount());
+    }
+}
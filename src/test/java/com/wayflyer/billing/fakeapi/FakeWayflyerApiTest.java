@@ -0,0 +1,101 @@
+package com.wayflyer.billing.fakeapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.client.WayflyerEndpoint;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "fakeApi.advanceCount=200",
+        "fakeApi.customerCount=50",
+        "fakeApi.revenueDelayRate=0",
+        "fakeApi.chargeFailureRate=0",
+        "fakeApi.latency.advances.distribution=none",
+        "fakeApi.latency.revenues.distribution=none",
+        "fakeApi.latency.charges.distribution=none",
+        "fakeApi.latency.billing-complete.distribution=none"
+})
+@ActiveProfiles("fake-api")
+public class FakeWayflyerApiTest {
+    private static final LocalDate TODAY = LocalDate.of(2022, 2, 1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FakeDataset fakeDataset;
+
+    @Autowired
+    private FakeApiLedger fakeApiLedger;
+
+    private WayflyerClient wayflyerClient;
+
+    @BeforeEach
+    public void setup() {
+        wayflyerClient = new WayflyerClient("http", "localhost:" + port, restTemplate, objectMapper, Runnable::run);
+    }
+
+    @Test
+    public void givenTheFakeApi_whenRetrievingAdvances_thenOnlyThoseCreatedByTodayAreReturned() {
+        var advances = wayflyerClient.getAdvances(TODAY);
+
+        assertNotNull(advances);
+        assertEquals(fakeDataset.getVisibleAdvanceCount(TODAY), advances.getAdvances().size());
+        assertEquals(fakeDataset.getAdvance(0), advances.getAdvances().get(0));
+    }
+
+    @Test
+    public void givenTheFakeApi_whenStreamingAdvancesTwiceOnTheSameDay_thenTheSecondCallIsNotModified() {
+        var advances = wayflyerClient.getNewAdvances(TODAY, id -> false);
+        var unchangedAdvances = wayflyerClient.getNewAdvances(TODAY, id -> false);
+
+        assertEquals(fakeDataset.getVisibleAdvanceCount(TODAY), advances.getAdvances().size());
+        assertTrue(unchangedAdvances.getAdvances().isEmpty());
+    }
+
+    @Test
+    public void givenTheFakeApi_whenRetrievingRevenue_thenItIsOnlyAvailableFromTheNextDay() {
+        Revenue unavailableRevenue = wayflyerClient.getRevenue(TODAY, 1, TODAY);
+        Revenue revenue = wayflyerClient.getRevenue(TODAY, 1, TODAY.minusDays(1));
+
+        assertNull(unavailableRevenue.getAmount());
+        assertEquals(fakeDataset.getRevenue(1, TODAY.minusDays(1)), revenue.getAmount());
+        assertTrue(fakeApiLedger.getResponseCount(WayflyerEndpoint.REVENUES, 530) > 0);
+    }
+
+    @Test
+    public void givenTheFakeApi_whenChargingAndCompleting_thenTheLedgerRecordsIt() {
+        Advance advance = fakeDataset.getAdvance(5);
+        Money chargedBefore = fakeApiLedger.getTotalCharged(advance.getMandateId());
+
+        assertTrue(wayflyerClient.charge(TODAY, new Charge(advance, TODAY.minusDays(1), null, Money.parse("123.45"))));
+        assertTrue(wayflyerClient.reportBillingComplete(TODAY, advance.getId()));
+
+        assertEquals(chargedBefore.plus(Money.parse("123.45")), fakeApiLedger.getTotalCharged(advance.getMandateId()));
+        assertTrue(fakeApiLedger.isBillingComplete(advance.getId()));
+        assertEquals(0, fakeApiLedger.getDailyLimitBreaches());
+    }
+}
@@ -0,0 +1,88 @@
+package com.wayflyer.billing.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.wayflyer.billing.testutil.TestConcurrency.TEST_THREAD_COUNT;
+import static com.wayflyer.billing.testutil.TestConcurrency.runConcurrently;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_FEE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TOTAL_ADVANCED;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdvanceTest {
+    private Advance classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        classUnderTest = getTestAdvance();
+    }
+
+    private Charge chargeOn(LocalDate dateCharged, String amount) {
+        return new Charge(classUnderTest, dateCharged.minusDays(1), dateCharged, Money.parse(amount));
+    }
+
+    @Test
+    public void givenChargesOnSeveralDays_whenGettingTheAmountChargedOnADate_thenOnlyThatDayIsSummed() {
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE, "100.00"));
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE, "50.25"));
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE.plusDays(1), "10.00"));
+
+        assertEquals(Money.parse("150.25"), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE));
+        assertEquals(Money.parse("10.00"), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE.plusDays(1)));
+        assertEquals(Money.ZERO, classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE.minusDays(1)));
+    }
+
+    @Test
+    public void givenCharges_whenApplying_thenTheOutstandingAmountIsReduced() {
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE, "100.00"));
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE.plusDays(1), "10.00"));
+
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(Money.parse("110.00")), classUnderTest.getOutstandingAmount());
+        assertEquals(2, classUnderTest.getChargesApplied().size());
+    }
+
+    @Test
+    public void givenTheLedgerIsDisabled_whenApplyingCharges_thenOnlyTheTotalsAreKept() {
+        classUnderTest.setChargeLedgerEnabled(false);
+
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE, "100.00"));
+
+        assertTrue(classUnderTest.getChargesApplied().isEmpty());
+        assertEquals(Money.parse("100.00"), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE));
+    }
+
+    @Test
+    public void givenOldCharges_whenCompactingTheLedger_thenOnlyRecentChargesAreKept() {
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE.minusDays(2), "100.00"));
+        classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE, "10.00"));
+
+        classUnderTest.compactChargeLedger(TEST_TODAY_DATE);
+
+        assertEquals(1, classUnderTest.getChargesApplied().size());
+        assertEquals(Money.ZERO, classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE.minusDays(2)));
+        assertEquals(Money.parse("10.00"), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE));
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(Money.parse("110.00")), classUnderTest.getOutstandingAmount());
+    }
+
+    @Test
+    public void givenManyThreads_whenApplyingChargesConcurrently_thenNoUpdateIsLost() {
+        int chargesPerThread = 10_000;
+
+        runConcurrently(TEST_THREAD_COUNT, thread -> {
+            for (int i = 0; i < chargesPerThread; i++) {
+                classUnderTest.applyCharge(chargeOn(TEST_TODAY_DATE.plusDays(i % 2), "0.01"));
+            }
+        });
+
+        long totalCents = (long) TEST_THREAD_COUNT * chargesPerThread;
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(Money.ofCents(totalCents)), classUnderTest.getOutstandingAmount());
+        assertEquals(Money.ofCents(totalCents / 2), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE));
+        assertEquals(Money.ofCents(totalCents / 2), classUnderTest.getAmountChargedOnDate(TEST_TODAY_DATE.plusDays(1)));
+        assertEquals(totalCents, classUnderTest.getChargesApplied().size());
+    }
+}
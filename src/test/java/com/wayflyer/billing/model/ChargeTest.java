@@ -0,0 +1,68 @@
+package com.wayflyer.billing.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChargeTest {
+    private Advance advance;
+
+    @BeforeEach
+    public void setup() {
+        advance = getTestAdvance();
+    }
+
+    private Charge chargeFor(int daysAgo, String amount) {
+        return new Charge(advance, TEST_TODAY_DATE.minusDays(daysAgo), null, Money.parse(amount));
+    }
+
+    @Test
+    public void givenChargesForSeveralDates_whenCombining_thenTheAmountsAreKeptPerRevenueDate() {
+        Charge classUnderTest = chargeFor(1, "30.00").combine(chargeFor(3, "10.00")).combine(chargeFor(1, "5.00"));
+
+        assertEquals(Money.parse("45.00"), classUnderTest.getAmount());
+        assertEquals(TEST_TODAY_DATE.minusDays(3), classUnderTest.getDateFor());
+        assertEquals(List.of(
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(3), Money.parse("10.00")),
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(1), Money.parse("35.00"))), classUnderTest.getComponents());
+    }
+
+    @Test
+    public void givenACarryForwardCharge_whenSplitting_thenTheOldestRevenueDatesAreChargedFirst() {
+        Charge classUnderTest = chargeFor(3, "10.00").combine(chargeFor(2, "20.00")).combine(chargeFor(1, "30.00"));
+
+        Charge remainder = classUnderTest.split(Money.parse("25.00"));
+
+        assertEquals(Money.parse("25.00"), classUnderTest.getAmount());
+        assertEquals(List.of(
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(3), Money.parse("10.00")),
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(2), Money.parse("15.00"))), classUnderTest.getComponents());
+        assertEquals(Money.parse("35.00"), remainder.getAmount());
+        assertEquals(TEST_TODAY_DATE.minusDays(2), remainder.getDateFor());
+        assertEquals(List.of(
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(2), Money.parse("5.00")),
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(1), Money.parse("30.00"))), remainder.getComponents());
+    }
+
+    @Test
+    public void givenASingleDayCharge_whenSplitting_thenOnlyTheRemainderBecomesACarryForwardCharge() {
+        Charge classUnderTest = chargeFor(1, "100.00");
+
+        Charge remainder = classUnderTest.split(Money.parse("60.00"));
+
+        assertEquals(Money.parse("60.00"), classUnderTest.getAmount());
+        assertFalse(classUnderTest.isCarryForward());
+        assertNull(classUnderTest.getComponents());
+        assertTrue(remainder.isCarryForward());
+        assertEquals(TEST_TODAY_DATE.minusDays(1), remainder.getDateFor());
+        assertEquals(List.of(new ChargeComponent(TEST_TODAY_DATE.minusDays(1), Money.parse("40.00"))), remainder.getComponents());
+    }
+}
@@ -0,0 +1,73 @@
+package com.wayflyer.billing.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoneyTest {
+    @Test
+    public void givenTwoDecimalStrings_whenParsing_thenTheCentsAreCorrect() {
+        assertEquals(123456, Money.parse("1234.56").getCents());
+        assertEquals(123450, Money.parse("1234.5").getCents());
+        assertEquals(1000000, Money.parse("10000").getCents());
+        assertEquals(5, Money.parse("0.05").getCents());
+        assertEquals(-105, Money.parse("-1.05").getCents());
+        assertSame(Money.ZERO, Money.parse("0.00"));
+    }
+
+    @Test
+    public void givenSixteenAndSeventeenIntegerDigits_whenParsing_thenTheCentsAreExactOrAnExceptionIsThrown() {
+        assertEquals(999999999999999999L, Money.parse("9999999999999999.99").getCents());
+        assertEquals(-999999999999999999L, Money.parse("-9999999999999999.99").getCents());
+        assertEquals(1234567890123456789L, Money.parse("12345678901234567.89").getCents());
+        assertThrows(ArithmeticException.class, () -> Money.parse("99999999999999999.99"));
+    }
+
+    @Test
+    public void givenAmounts_whenFormatting_thenTwoDecimalsAreAlwaysUsed() {
+        assertEquals("1234.56", Money.ofCents(123456).toString());
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("10000.00", Money.ofCents(1000000).toString());
+        assertEquals("-1.05", Money.ofCents(-105).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+    }
+
+    @Test
+    public void givenMoreThanTwoDecimals_whenParsing_thenAnExceptionIsThrown() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("1.234"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+    }
+
+    @Test
+    public void givenAmounts_whenDoingArithmetic_thenTheResultsAreExact() {
+        Money first = Money.parse("0.10");
+        Money second = Money.parse("0.20");
+
+        assertEquals(Money.parse("0.30"), first.plus(second));
+        assertEquals(Money.parse("-0.10"), first.minus(second));
+        assertEquals(first, first.min(second));
+        assertTrue(first.isLessThan(second));
+        assertTrue(second.isGreaterThan(first));
+        assertTrue(first.minus(first).isZero());
+    }
+
+    @Test
+    public void givenAnAmount_whenConvertingToBigDecimal_thenTheScaleIsTwo() {
+        assertEquals(new BigDecimal("1234.56"), Money.parse("1234.56").toBigDecimal());
+        assertEquals(Money.parse("1234.56"), Money.of(new BigDecimal("1234.56")));
+    }
+
+    @Test
+    public void givenAnAmount_whenSerialisingToJson_thenItIsAStringWithTwoDecimals() throws Exception {
+        var objectMapper = new ObjectMapper();
+
+        assertEquals("{\"amount\":\"1234.50\"}", objectMapper.writeValueAsString(Charge.builder().amount(Money.parse("1234.5")).build()));
+        assertEquals(Money.parse("1234.56"), objectMapper.readValue("{\"amount\": \"1234.56\"}", Revenue.class).getAmount());
+    }
+}
@@ -0,0 +1,62 @@
+package com.wayflyer.billing.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RepaymentRateTest {
+    private static final List<String> PERCENTAGES = List.of("1", "5", "11", "12.5", "7.25", "33.333", "100", "0.01");
+
+    private static BigDecimal calculateWithBigDecimal(BigDecimal revenue, BigDecimal percentage) {
+        return revenue
+                .multiply(percentage)
+                .divide(new BigDecimal(100), 2, RoundingMode.HALF_UP);
+    }
+
+    @Test
+    public void givenAKnownRevenue_whenApplyingTheRate_thenTheChargeIsRoundedHalfUp() {
+        var rate = RepaymentRate.ofPercentage(new BigDecimal("11"));
+
+        assertEquals(Money.parse("135.80"), rate.apply(Money.parse("1234.56")));
+        assertEquals(Money.parse("0.01"), rate.apply(Money.parse("0.05")));
+        assertEquals(Money.parse("0.00"), rate.apply(Money.parse("0.04")));
+    }
+
+    @Test
+    public void givenRandomRevenuesAndPercentages_whenApplyingTheRate_thenTheResultMatchesTheBigDecimalCalculation() {
+        var random = new Random(42);
+
+        for (String percentageString : PERCENTAGES) {
+            var percentage = new BigDecimal(percentageString);
+            var rate = RepaymentRate.ofPercentage(percentage);
+
+            for (int i = 0; i < 100_000; i++) {
+                long cents = i < 1_000 ? i : Math.floorMod(random.nextLong(), 100_000_000_000L);
+                var revenue = Money.ofCents(cents);
+
+                BigDecimal expected = calculateWithBigDecimal(revenue.toBigDecimal(), percentage);
+                assertEquals(expected, rate.apply(revenue).toBigDecimal(), () -> revenue + " at " + percentage + "%");
+            }
+        }
+    }
+
+    @Test
+    public void givenAnAmountThatOverflowsTheFastPath_whenApplyingTheRate_thenTheResultMatchesTheBigDecimalCalculation() {
+        var percentage = new BigDecimal("33.333");
+        var revenue = Money.ofCents(Long.MAX_VALUE / 1000);
+
+        BigDecimal expected = calculateWithBigDecimal(revenue.toBigDecimal(), percentage);
+        assertEquals(expected, RepaymentRate.ofPercentage(percentage).apply(revenue).toBigDecimal());
+    }
+
+    @Test
+    public void givenEquivalentPercentages_whenCreatingRates_thenTheyAreEqual() {
+        assertEquals(RepaymentRate.ofPercentage(new BigDecimal("11")), RepaymentRate.ofPercentage(new BigDecimal("11.00")));
+        assertEquals(RepaymentRate.ofPercentage(new BigDecimal("10")), RepaymentRate.ofPercentage(new BigDecimal("1E+1")));
+    }
+}
@@ -0,0 +1,375 @@
+package com.wayflyer.billing.persistence;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.ChargeComponent;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.service.AdvanceArchive;
+import com.wayflyer.billing.service.AdvanceRegistry;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CHARGE_AMOUNT;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_FEE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REVENUE_AMOUNT;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TOTAL_ADVANCED;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BillingPersistenceTest {
+    private static final LocalDate DAY_ONE = TEST_REPAYMENT_START_DATE;
+
+    private static final LocalDate DAY_TWO = DAY_ONE.plusDays(1);
+
+    @TempDir
+    private Path tempDir;
+
+    private PersistenceProperties properties;
+
+    private final List<AdvanceArchive> archives = new ArrayList<>();
+
+    private final List<BillingPersistence> persistences = new ArrayList<>();
+
+    private AdvanceRegistry advances;
+
+    private OutstandingChargeStore outstandingCharges;
+
+    private BillingPersistence classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setPath(tempDir.resolve("state"));
+        properties.setJournalRegionSize(DataSize.ofBytes(128));
+        restart();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        persistences.forEach(BillingPersistence::close);
+        archives.forEach(AdvanceArchive::close);
+    }
+
+    private LocalDate restart() {
+        var archive = new AdvanceArchive(tempDir.resolve("completed-advances-" + archives.size() + ".bin"));
+        archives.add(archive);
+        advances = new AdvanceRegistry(archive);
+        outstandingCharges = new OutstandingChargeStore();
+        classUnderTest = new BillingPersistence(properties);
+        persistences.add(classUnderTest);
+        return classUnderTest.recover(advances, outstandingCharges, (advance, revenue) -> TEST_CHARGE_AMOUNT);
+    }
+
+    private Advance registerAdvance(LocalDate today) {
+        Advance advance = getTestAdvance();
+        advances.register(today, advance);
+        classUnderTest.getJournal().dayStarted(today);
+        classUnderTest.getJournal().advanceRegistered(today, advance);
+        return advance;
+    }
+
+    private void applyCharge(Advance advance, LocalDate today, Money amount) {
+        var charge = new Charge(advance, today.minusDays(1), today, amount);
+        advance.applyCharge(charge);
+        classUnderTest.getJournal().chargeApplied(charge);
+    }
+
+    private void deferCharge(Charge charge) {
+        outstandingCharges.add(charge);
+        classUnderTest.getJournal().chargeDeferred(charge);
+    }
+
+    private void splitCharge(Charge charge, Money chargeableToday) {
+        var remainder = new Charge(charge.getAdvance(), charge.getDateFor(), null, charge.getAmount().minus(chargeableToday));
+        charge.setAmount(chargeableToday);
+        classUnderTest.getJournal().chargeSplit(charge, remainder);
+        outstandingCharges.add(remainder);
+    }
+
+    @Test
+    public void givenPersistenceIsDisabled_whenRecovering_thenNothingIsJournaled() {
+        properties.setEnabled(false);
+
+        assertNull(restart());
+        assertSame(BillingJournal.DISABLED, classUnderTest.getJournal());
+    }
+
+    @Test
+    public void givenASnapshotAndAJournalTail_whenRecovering_thenBothAreApplied() {
+        Advance advance = registerAdvance(DAY_ONE);
+        applyCharge(advance, DAY_ONE, Money.parse("100.00"));
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(2), null, null));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        for (int i = 0; i < 50; i++) {
+            applyCharge(advance, DAY_TWO, Money.parse("1.00"));
+        }
+        classUnderTest.checkpoint(DAY_TWO, advances, outstandingCharges);
+
+        assertEquals(DAY_TWO, restart());
+
+        Advance recovered = advances.get(TEST_ADVANCE_ID);
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(Money.parse("150.00")), recovered.getOutstandingAmount());
+        assertEquals(Money.parse("50.00"), recovered.getAmountChargedOnDate(DAY_TWO));
+        assertEquals(51, recovered.getChargesApplied().size());
+        assertEquals(1, advances.getActiveCount());
+        assertEquals(1, outstandingCharges.getPendingRevenueCount());
+    }
+
+    @Test
+    public void givenAPendingChargeWhoseRevenueWasMatched_whenRecovering_thenTheReadyChargeIsRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(1), null, null));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        var revenue = new Revenue(TEST_CUSTOMER_ID, DAY_ONE.minusDays(1), TEST_REVENUE_AMOUNT);
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        classUnderTest.getJournal().revenueMatched(revenue);
+
+        assertEquals(DAY_ONE, restart());
+
+        assertEquals(0, outstandingCharges.getPendingRevenueCount());
+        assertEquals(List.of(TEST_CHARGE_AMOUNT), outstandingCharges.getReadyCharges(TEST_ADVANCE_ID).stream().map(Charge::getAmount).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void givenACrashAfterDrainingReadyCharges_whenRecovering_thenUnprocessedChargesAreRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        Advance otherAdvance = getTestAdvance();
+        otherAdvance.setId(TEST_ADVANCE_ID + 1);
+        advances.register(DAY_ONE, otherAdvance);
+        classUnderTest.getJournal().advanceRegistered(DAY_ONE, otherAdvance);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("10.00")));
+        deferCharge(new Charge(otherAdvance, DAY_ONE.minusDays(2), null, Money.parse("20.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        List<Charge> drained = outstandingCharges.drainReadyCharges();
+        classUnderTest.getJournal().readyChargesDrained();
+        drained.get(0).setDateCharged(DAY_TWO);
+        drained.get(0).getAdvance().applyCharge(drained.get(0));
+        classUnderTest.getJournal().chargeApplied(drained.get(0));
+
+        assertEquals(DAY_ONE, restart());
+
+        Advance recovered = advances.get(drained.get(0).getAdvance().getId());
+        assertEquals(drained.get(0).getAmount(), recovered.getAmountChargedOnDate(DAY_TWO));
+        assertTrue(outstandingCharges.getReadyCharges(recovered.getId()).isEmpty());
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(drained.get(1).getAdvance().getId());
+        assertEquals(1, readyCharges.size());
+        assertEquals(drained.get(1).getDateFor(), readyCharges.get(0).getDateFor());
+        assertEquals(drained.get(1).getAmount(), readyCharges.get(0).getAmount());
+    }
+
+    @Test
+    public void givenACrashAfterTakingACarryForwardCharge_whenRecovering_thenItIsRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("10.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        Charge taken = outstandingCharges.takeReadyCharge(TEST_ADVANCE_ID);
+        classUnderTest.getJournal().readyChargeTaken(taken);
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(1, readyCharges.size());
+        assertEquals(Money.parse("10.00"), readyCharges.get(0).getAmount());
+    }
+
+    @Test
+    public void givenATakenCarryForwardChargeWasApplied_whenRecovering_thenItIsNotRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("10.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        Charge taken = outstandingCharges.takeReadyCharge(TEST_ADVANCE_ID);
+        classUnderTest.getJournal().readyChargeTaken(taken);
+        taken.setDateCharged(DAY_TWO);
+        advance.applyCharge(taken);
+        classUnderTest.getJournal().chargeApplied(taken);
+
+        assertEquals(DAY_ONE, restart());
+
+        assertTrue(outstandingCharges.getReadyCharges(TEST_ADVANCE_ID).isEmpty());
+        assertEquals(Money.parse("10.00"), advances.get(TEST_ADVANCE_ID).getAmountChargedOnDate(DAY_TWO));
+    }
+
+    @Test
+    public void givenACrashWhileChargingPartOfASplitCarryForwardCharge_whenRecovering_thenTheWholeChargeIsRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("100.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        List<Charge> drained = outstandingCharges.drainReadyCharges();
+        classUnderTest.getJournal().readyChargesDrained();
+        splitCharge(drained.get(0), Money.parse("60.00"));
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(1, readyCharges.size());
+        assertEquals(DAY_ONE.minusDays(3), readyCharges.get(0).getDateFor());
+        assertEquals(Money.parse("100.00"), readyCharges.get(0).getAmount());
+        assertTrue(advances.get(TEST_ADVANCE_ID).getAmountChargedOnDate(DAY_TWO).isZero());
+    }
+
+    @Test
+    public void givenTheChargedPartOfASplitChargeWasApplied_whenRecovering_thenOnlyTheRemainderIsRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("100.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        List<Charge> drained = outstandingCharges.drainReadyCharges();
+        classUnderTest.getJournal().readyChargesDrained();
+        Charge charged = drained.get(0);
+        splitCharge(charged, Money.parse("60.00"));
+        charged.setDateCharged(DAY_TWO);
+        advance.applyCharge(charged);
+        classUnderTest.getJournal().chargeApplied(charged);
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(1, readyCharges.size());
+        assertEquals(Money.parse("40.00"), readyCharges.get(0).getAmount());
+        assertEquals(Money.parse("60.00"), advances.get(TEST_ADVANCE_ID).getAmountChargedOnDate(DAY_TWO));
+    }
+
+    @Test
+    public void givenACrashAfterAChargeWasApplied_whenRecovering_thenItsRevenueDateIsMarkedAsBilled() {
+        Advance advance = registerAdvance(DAY_ONE);
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        applyCharge(advance, DAY_TWO, Money.parse("10.00"));
+
+        assertEquals(DAY_ONE, restart());
+
+        assertTrue(advances.get(TEST_ADVANCE_ID).isRevenueBilled(DAY_ONE));
+        assertFalse(advances.get(TEST_ADVANCE_ID).isRevenueBilled(DAY_TWO));
+    }
+
+    @Test
+    public void givenACrashWhileChargingPartOfASplitRevenueCharge_whenRecovering_thenTheWholeChargeIsRestoredAndItsRevenueDateIsBilled() {
+        Advance advance = registerAdvance(DAY_ONE);
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        splitCharge(new Charge(advance, DAY_ONE, null, Money.parse("100.00")), Money.parse("60.00"));
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(Money.parse("100.00"), readyCharges.stream().map(Charge::getAmount).reduce(Money.ZERO, Money::plus));
+        assertTrue(advances.get(TEST_ADVANCE_ID).isRevenueBilled(DAY_ONE));
+    }
+
+    @Test
+    public void givenASplitChargeWithNothingChargeableToday_whenRecovering_thenOnlyTheRemainderIsRestored() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("100.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        List<Charge> drained = outstandingCharges.drainReadyCharges();
+        classUnderTest.getJournal().readyChargesDrained();
+        splitCharge(drained.get(0), Money.ZERO);
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(1, readyCharges.size());
+        assertEquals(Money.parse("100.00"), readyCharges.get(0).getAmount());
+    }
+
+    @Test
+    public void givenSeveralDeferredChargesForOneAdvance_whenRecovering_thenTheyAreRestoredAsOneCarryForwardCharge() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("10.00")));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        deferCharge(new Charge(advance, DAY_TWO.minusDays(1), null, Money.parse("20.00")));
+
+        assertEquals(DAY_ONE, restart());
+
+        List<Charge> readyCharges = outstandingCharges.getReadyCharges(TEST_ADVANCE_ID);
+        assertEquals(1, readyCharges.size());
+        assertEquals(DAY_ONE.minusDays(3), readyCharges.get(0).getDateFor());
+        assertEquals(Money.parse("30.00"), readyCharges.get(0).getAmount());
+        assertEquals(List.of(
+                new ChargeComponent(DAY_ONE.minusDays(3), Money.parse("10.00")),
+                new ChargeComponent(DAY_TWO.minusDays(1), Money.parse("20.00"))), readyCharges.get(0).getComponents());
+    }
+
+    @Test
+    public void givenAnAppliedCarryForwardCharge_whenRecoveringFromTheJournalAndASnapshot_thenTheLedgerKeepsItsRevenueDates() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(3), null, Money.parse("10.00")));
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(1), null, Money.parse("20.00")));
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        Charge taken = outstandingCharges.takeReadyCharge(TEST_ADVANCE_ID);
+        classUnderTest.getJournal().readyChargeTaken(taken);
+        taken.setDateCharged(DAY_TWO);
+        advance.applyCharge(taken);
+        classUnderTest.getJournal().chargeApplied(taken);
+        var expectedComponents = List.of(
+                new ChargeComponent(DAY_ONE.minusDays(3), Money.parse("10.00")),
+                new ChargeComponent(DAY_ONE.minusDays(1), Money.parse("20.00")));
+
+        restart();
+        assertEquals(expectedComponents, advances.get(TEST_ADVANCE_ID).getChargesApplied().get(0).getComponents());
+
+        classUnderTest.checkpoint(DAY_TWO, advances, outstandingCharges);
+        restart();
+        assertEquals(expectedComponents, advances.get(TEST_ADVANCE_ID).getChargesApplied().get(0).getComponents());
+    }
+
+    @Test
+    public void givenACompletedAdvance_whenRecovering_thenItIsArchivedWithItsChargesRemoved() {
+        Advance advance = registerAdvance(DAY_ONE);
+        deferCharge(new Charge(advance, DAY_ONE.minusDays(1), null, null));
+        classUnderTest.checkpoint(DAY_ONE, advances, outstandingCharges);
+
+        classUnderTest.getJournal().dayStarted(DAY_TWO);
+        applyCharge(advance, DAY_TWO, advance.getOutstandingAmount());
+        advance.setCompleted(true);
+        outstandingCharges.removeCharges(advance);
+        advances.complete(advance);
+        classUnderTest.getJournal().advanceCompleted(advance);
+        classUnderTest.checkpoint(DAY_TWO, advances, outstandingCharges);
+
+        assertEquals(DAY_TWO, restart());
+
+        assertEquals(0, advances.getActiveCount());
+        assertEquals(1, advances.getCompletedCount());
+        assertTrue(advances.get(TEST_ADVANCE_ID).isCompleted());
+        assertEquals(Money.ZERO, advances.get(TEST_ADVANCE_ID).getOutstandingAmount());
+        assertEquals(0, outstandingCharges.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ScenarioDatasetTest {
+    private static final LocalDate START_DATE = LocalDate.of(2022, 1, 1);
+
+    private static final LocalDate END_DATE = LocalDate.of(2022, 1, 10);
+
+    private static final LocalDate LAST_DAY = END_DATE.minusDays(1);
+
+    @Mock
+    private WayflyerClient wayflyerClient;
+
+    @BeforeEach
+    public void setup() {
+        givenRevenue((today, forDate) -> Money.ofCents(forDate.getDayOfMonth() * 100L));
+    }
+
+    @Test
+    public void givenAdvance_whenFetched_thenEachRevenueFromTheDayBeforeRepaymentStartIsLookedUpOnTheDayAfterIt() {
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(new Advances(List.of(getTestAdvance())));
+
+        var classUnderTest = ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 3);
+
+        verify(wayflyerClient, times(1)).getAdvances(any());
+        verify(wayflyerClient, times(3)).getRevenueAsync(any(), eq(TEST_CUSTOMER_ID), any());
+        for (LocalDate forDate = TEST_REPAYMENT_START_DATE.minusDays(1); forDate.isBefore(LAST_DAY); forDate = forDate.plusDays(1)) {
+            verify(wayflyerClient).getRevenueAsync(forDate.plusDays(1), TEST_CUSTOMER_ID, forDate);
+        }
+        verify(wayflyerClient, never()).getRevenueAsync(any(), anyInt(), eq(TEST_REPAYMENT_START_DATE.minusDays(2)));
+        assertEquals(Money.parse("6.00"), classUnderTest.getRevenue(TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE.minusDays(1), TEST_REPAYMENT_START_DATE));
+        assertEquals(Money.parse("7.00"), classUnderTest.getRevenue(TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE, TEST_REPAYMENT_START_DATE.plusDays(1)));
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE, TEST_REPAYMENT_START_DATE));
+    }
+
+    @Test
+    public void givenDelayedRevenue_whenFetched_thenItIsOnlyAvailableFromTheDayItFirstArrived() {
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(new Advances(List.of(getTestAdvance())));
+        LocalDate delayedDate = TEST_REPAYMENT_START_DATE.minusDays(1);
+        givenRevenue((today, forDate) -> forDate.equals(delayedDate) && today.isBefore(LAST_DAY) ? null : Money.ofCents(forDate.getDayOfMonth() * 100L));
+
+        var classUnderTest = ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 3);
+
+        verify(wayflyerClient).getRevenueAsync(TEST_REPAYMENT_START_DATE, TEST_CUSTOMER_ID, delayedDate);
+        verify(wayflyerClient).getRevenueAsync(TEST_REPAYMENT_START_DATE.plusDays(1), TEST_CUSTOMER_ID, delayedDate);
+        verify(wayflyerClient).getRevenueAsync(LAST_DAY, TEST_CUSTOMER_ID, delayedDate);
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID, delayedDate, TEST_REPAYMENT_START_DATE));
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID, delayedDate, LAST_DAY.minusDays(1)));
+        assertEquals(Money.parse("6.00"), classUnderTest.getRevenue(TEST_CUSTOMER_ID, delayedDate, LAST_DAY));
+        assertEquals(Money.parse("7.00"), classUnderTest.getRevenue(TEST_CUSTOMER_ID, TEST_REPAYMENT_START_DATE, TEST_REPAYMENT_START_DATE.plusDays(1)));
+    }
+
+    @Test
+    public void givenRevenueUnavailableOnceOnTheLastDay_whenFetched_thenTheLookupIsRetried() {
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(new Advances(List.of(getTestAdvance())));
+        LocalDate forDate = LAST_DAY.minusDays(1);
+        when(wayflyerClient.getRevenueAsync(LAST_DAY, TEST_CUSTOMER_ID, forDate))
+                .thenReturn(revenue(forDate, null))
+                .thenReturn(revenue(forDate, Money.parse("8.00")));
+
+        var classUnderTest = ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 3);
+
+        verify(wayflyerClient, times(2)).getRevenueAsync(LAST_DAY, TEST_CUSTOMER_ID, forDate);
+        assertEquals(Money.parse("8.00"), classUnderTest.getRevenue(TEST_CUSTOMER_ID, forDate, LAST_DAY));
+    }
+
+    @Test
+    public void givenRevenueNeverAvailable_whenFetched_thenItIsMissingAfterTheRetries() {
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(new Advances(List.of(getTestAdvance())));
+        LocalDate missingDate = LAST_DAY.minusDays(1);
+        givenRevenue((today, forDate) -> forDate.equals(missingDate) ? null : Money.ofCents(forDate.getDayOfMonth() * 100L));
+
+        var classUnderTest = ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 2);
+
+        verify(wayflyerClient, times(3)).getRevenueAsync(LAST_DAY, TEST_CUSTOMER_ID, missingDate);
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID, missingDate, LAST_DAY));
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID, LAST_DAY, END_DATE));
+        assertNull(classUnderTest.getRevenue(TEST_CUSTOMER_ID + 1, TEST_REPAYMENT_START_DATE, LAST_DAY));
+    }
+
+    @Test
+    public void givenAdvancesInAnyOrder_whenFetched_thenTheyAreOrderedByCreationDate() {
+        Advance later = getTestAdvance();
+        later.setId(later.getId() + 1);
+        later.setCreated(later.getCreated().plusDays(1));
+        Advance earlier = getTestAdvance();
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(new Advances(List.of(later, earlier)));
+
+        var classUnderTest = ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 3);
+
+        assertEquals(List.of(earlier, later), classUnderTest.getAdvances());
+    }
+
+    @Test
+    public void givenAdvancesCannotBeFetched_whenFetched_thenIllegalStateExceptionIsThrown() {
+        when(wayflyerClient.getAdvances(LAST_DAY)).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> ScenarioDataset.fetch(wayflyerClient, START_DATE, END_DATE, 3));
+    }
+
+    private void givenRevenue(BiFunction<LocalDate, LocalDate, Money> amountByTodayAndDate) {
+        lenient().doAnswer(invocation -> revenue(invocation.getArgument(1), invocation.getArgument(2), amountByTodayAndDate.apply(invocation.getArgument(0), invocation.getArgument(2))))
+                .when(wayflyerClient).getRevenueAsync(any(), anyInt(), any());
+    }
+
+    private static CompletableFuture<Revenue> revenue(LocalDate forDate, Money amount) {
+        return revenue(TEST_CUSTOMER_ID, forDate, amount);
+    }
+
+    private static CompletableFuture<Revenue> revenue(int customerId, LocalDate forDate, Money amount) {
+        return CompletableFuture.completedFuture(Revenue.builder()
+                .customerId(customerId)
+                .date(forDate)
+                .amount(amount)
+                .build());
+    }
+}
@@ -0,0 +1,149 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.service.DailyReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_FEE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TOTAL_ADVANCED;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class ScenarioEngineTest {
+    private static final LocalDate START_DATE = TEST_REPAYMENT_START_DATE;
+
+    private static final LocalDate END_DATE = START_DATE.plusDays(3);
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private WayflyerClient wayflyerClient;
+
+    private ScenarioProperties properties;
+
+    private ScenarioDataset dataset;
+
+    private Advance datasetAdvance;
+
+    private ScenarioEngine classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ScenarioProperties();
+        properties.setPath(tempDir);
+        properties.setParallelism(2);
+
+        datasetAdvance = getTestAdvance();
+        long[] revenueCents = new long[4];
+        Arrays.fill(revenueCents, Money.parse("100000.00").getCents());
+        dataset = new ScenarioDataset(List.of(datasetAdvance), START_DATE.minusDays(1), Map.of(TEST_CUSTOMER_ID, revenueCents));
+
+        classUnderTest = new ScenarioEngine(wayflyerClient, properties, START_DATE, END_DATE, new BigDecimal("10000"));
+    }
+
+    @Test
+    public void givenScenariosWithDifferentAssumptions_whenRun_thenEachIsBilledIndependently() {
+        properties.setDefinitions(List.of(
+                definition("baseline", null, null, null),
+                definition("cap-5000", new BigDecimal("5000"), null, null),
+                definition("revenue-halved", null, null, new BigDecimal("0.5")),
+                definition("repayment-halved", null, new BigDecimal("0.5"), null)));
+
+        List<ScenarioResult> results = classUnderTest.run(dataset);
+
+        assertEquals(List.of("baseline", "cap-5000", "revenue-halved", "repayment-halved"),
+                results.stream().map(ScenarioResult::getName).collect(Collectors.toList()));
+        assertEquals(Money.parse("30000.00"), totalCharged(results.get(0)));
+        assertEquals(Money.parse("15000.00"), totalCharged(results.get(1)));
+        assertEquals(Money.parse("16500.00"), totalCharged(results.get(2)));
+        assertEquals(Money.parse("16500.00"), totalCharged(results.get(3)));
+        assertEquals(3, results.get(0).getReports().size());
+        verifyNoInteractions(wayflyerClient);
+    }
+
+    @Test
+    public void givenRevenueThatArrivedLate_whenRun_thenItIsPendingUntilTheDayItArrived() {
+        long[] revenueCents = new long[4];
+        Arrays.fill(revenueCents, Money.parse("100000.00").getCents());
+        var delayedDataset = new ScenarioDataset(List.of(datasetAdvance), START_DATE.minusDays(1), Map.of(TEST_CUSTOMER_ID, revenueCents),
+                Map.of(TEST_CUSTOMER_ID, new int[]{0, 1, 0, 0}));
+        properties.setDefinitions(List.of(definition("baseline", null, null, null)));
+
+        List<DailyReport> reports = classUnderTest.run(delayedDataset).get(0).getReports();
+
+        assertEquals(1, reports.get(1).getPendingRevenueCount());
+        assertEquals(Money.parse("1000.00").getCents(), reports.get(1).getAmountChargedCents());
+        assertEquals(0, reports.get(2).getPendingRevenueCount());
+        assertEquals(Money.parse("10000.00").getCents(), reports.get(2).getAmountChargedCents());
+    }
+
+    @Test
+    public void givenChargeFailureRate_whenRun_thenFailedChargesAreNotCharged() {
+        properties.setChargeFailureRate(1.0);
+        properties.setDefinitions(List.of(definition("baseline", null, null, null)));
+
+        List<ScenarioResult> results = classUnderTest.run(dataset);
+
+        assertEquals(Money.ZERO, totalCharged(results.get(0)));
+    }
+
+    @Test
+    public void givenScenarios_whenRun_thenTheSharedDatasetIsNotModified() {
+        properties.setDefinitions(List.of(definition("baseline", null, null, null), definition("cap-5000", new BigDecimal("5000"), null, null)));
+
+        classUnderTest.run(dataset);
+
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE), datasetAdvance.getOutstandingAmount());
+        assertEquals(0, datasetAdvance.getChargesApplied().size());
+    }
+
+    @Test
+    public void givenNoScenarios_whenRun_thenIllegalStateExceptionIsThrown() {
+        assertThrows(IllegalStateException.class, () -> classUnderTest.run(dataset));
+    }
+
+    @Test
+    public void givenDuplicateScenarioNames_whenRun_thenIllegalStateExceptionIsThrown() {
+        properties.setDefinitions(List.of(definition("baseline", null, null, null), definition("baseline", new BigDecimal("5000"), null, null)));
+
+        assertThrows(IllegalStateException.class, () -> classUnderTest.run(dataset));
+    }
+
+    private static ScenarioDefinition definition(String name, BigDecimal maxDailyCharge, BigDecimal repaymentFactor, BigDecimal revenueFactor) {
+        var definition = new ScenarioDefinition();
+        definition.setName(name);
+        definition.setMaxDailyCharge(maxDailyCharge);
+        if (repaymentFactor != null) {
+            definition.setRepaymentFactor(repaymentFactor);
+        }
+        if (revenueFactor != null) {
+            definition.setRevenueFactor(revenueFactor);
+        }
+        return definition;
+    }
+
+    private static Money totalCharged(ScenarioResult result) {
+        return Money.ofCents(result.getReports().stream().mapToLong(DailyReport::getAmountChargedCents).sum());
+    }
+}
@@ -0,0 +1,73 @@
+package com.wayflyer.billing.scenario;
+
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.service.AdvanceArchive;
+import com.wayflyer.billing.service.AdvanceRegistry;
+import com.wayflyer.billing.service.DailyReport;
+import com.wayflyer.billing.service.OutstandingChargeStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScenarioSummaryTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 30);
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void givenTwoScenarios_whenFormatted_thenMonthEndsAndTheLastDayAreShownSideBySide() {
+        var classUnderTest = new ScenarioSummary(List.of(result("baseline", "100.00"), result("cap-50", "50.00")));
+
+        String table = classUnderTest.formatTable();
+
+        List<String> lines = table.lines().collect(Collectors.toList());
+        assertTrue(lines.get(0).contains("baseline") && lines.get(0).contains("cap-50"));
+        assertTrue(lines.get(1).startsWith("2022-01-31"));
+        assertTrue(lines.get(1).contains("20.0% 200.00"));
+        assertTrue(lines.get(1).contains("10.0% 100.00"));
+        assertTrue(lines.get(2).startsWith("2022-02-02"));
+        assertTrue(lines.get(2).contains("40.0% 400.00"));
+        assertFalse(table.contains("2022-02-01"));
+    }
+
+    @Test
+    public void givenTwoScenarios_whenWrittenAsCsv_thenThereIsOneRowPerDayWithCumulativeAmounts() throws IOException {
+        var classUnderTest = new ScenarioSummary(List.of(result("baseline", "100.00"), result("cap-50", "50.00")));
+        Path path = tempDir.resolve("summary").resolve("summary.csv");
+
+        classUnderTest.writeCsv(path);
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(5, lines.size());
+        assertEquals("date,baseline charged,baseline outstanding,baseline completed,cap-50 charged,cap-50 outstanding,cap-50 completed", lines.get(0));
+        assertEquals("2022-01-30,100.00,900.00,0,50.00,950.00,0", lines.get(1));
+        assertEquals("2022-02-02,400.00,600.00,0,200.00,800.00,0", lines.get(4));
+    }
+
+    private ScenarioResult result(String name, String dailyCharge) {
+        var advances = new AdvanceRegistry(new AdvanceArchive(tempDir.resolve(name + ".bin")));
+        var outstandingCharges = new OutstandingChargeStore();
+        Money charged = Money.ZERO;
+        var reports = new ArrayList<DailyReport>();
+        for (LocalDate date = FIRST_DAY; date.isBefore(FIRST_DAY.plusDays(4)); date = date.plusDays(1)) {
+            var report = new DailyReport(date);
+            report.recordChargeApplied(Money.parse(dailyCharge));
+            charged = charged.plus(Money.parse(dailyCharge));
+            report.close(advances, outstandingCharges, Money.parse("1000.00").minus(charged).getCents());
+            reports.add(report);
+        }
+        return new ScenarioResult(name, reports, 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdvanceArchiveTest {
+    @TempDir
+    private Path tempDir;
+
+    private AdvanceArchive classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        classUnderTest = new AdvanceArchive(tempDir.resolve("archive").resolve("completed-advances.bin"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        classUnderTest.close();
+    }
+
+    @Test
+    public void givenAnArchivedAdvance_whenReadingIt_thenItsSummaryIsRestored() {
+        Advance advance = getTestAdvance();
+        advance.applyCharge(new Charge(advance, TEST_TODAY_DATE.minusDays(1), TEST_TODAY_DATE, Money.parse("100.00")));
+        advance.setCompleted(true);
+
+        classUnderTest.write(advance);
+        Advance archived = classUnderTest.read(TEST_ADVANCE_ID);
+
+        assertEquals(advance.getId(), archived.getId());
+        assertEquals(advance.getCustomerId(), archived.getCustomerId());
+        assertEquals(advance.getMandateId(), archived.getMandateId());
+        assertEquals(advance.getCreated(), archived.getCreated());
+        assertEquals(advance.getTotalAdvanced(), archived.getTotalAdvanced());
+        assertEquals(advance.getFee(), archived.getFee());
+        assertEquals(advance.getRepaymentStartDate(), archived.getRepaymentStartDate());
+        assertEquals(advance.getRepaymentPercentage(), archived.getRepaymentPercentage());
+        assertEquals(advance.getOutstandingAmount(), archived.getOutstandingAmount());
+        assertTrue(archived.isCompleted());
+        assertTrue(archived.getChargesApplied().isEmpty());
+    }
+
+    @Test
+    public void givenSeveralArchivedAdvances_whenReadingOne_thenTheRightOneIsReturned() {
+        for (int id = 1; id <= 100; id++) {
+            Advance advance = getTestAdvance();
+            advance.setId(id);
+            advance.setCustomerId(id * 10);
+            classUnderTest.write(advance);
+        }
+
+        assertEquals(100, classUnderTest.size());
+        assertEquals(420, classUnderTest.read(42).getCustomerId());
+        assertEquals(990, classUnderTest.read(99).getCustomerId());
+    }
+
+    @Test
+    public void givenAnUnknownAdvance_whenReadingIt_thenNullIsReturned() {
+        assertFalse(classUnderTest.contains(TEST_ADVANCE_ID));
+        assertNull(classUnderTest.read(TEST_ADVANCE_ID));
+    }
+}
@@ -0,0 +1,144 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.wayflyer.billing.testutil.TestConcurrency.TEST_THREAD_COUNT;
+import static com.wayflyer.billing.testutil.TestConcurrency.runConcurrently;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdvanceRegistryTest {
+    @TempDir
+    private Path tempDir;
+
+    private AdvanceArchive advanceArchive;
+
+    private AdvanceRegistry classUnderTest;
+
+    private Advance advance;
+
+    @BeforeEach
+    public void setup() {
+        advanceArchive = new AdvanceArchive(tempDir.resolve("completed-advances.bin"));
+        classUnderTest = new AdvanceRegistry(advanceArchive);
+        advance = getTestAdvance();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        advanceArchive.close();
+    }
+
+    @Test
+    public void givenAnAdvanceThatHasNotStarted_whenRegistering_thenItIsNotActive() {
+        classUnderTest.register(TEST_REPAYMENT_START_DATE.minusDays(1), advance);
+
+        assertTrue(classUnderTest.getActive().isEmpty());
+        assertEquals(1, classUnderTest.getNotStartedCount());
+        assertTrue(classUnderTest.contains(TEST_ADVANCE_ID));
+        assertSame(advance, classUnderTest.get(TEST_ADVANCE_ID));
+    }
+
+    @Test
+    public void givenAnAdvanceThatHasNotStarted_whenItsStartDateArrives_thenItBecomesActive() {
+        classUnderTest.register(TEST_REPAYMENT_START_DATE.minusDays(2), advance);
+
+        classUnderTest.activate(TEST_REPAYMENT_START_DATE.minusDays(1));
+        assertTrue(classUnderTest.getActive().isEmpty());
+
+        classUnderTest.activate(TEST_REPAYMENT_START_DATE);
+        assertEquals(1, classUnderTest.getActiveCount());
+        assertEquals(0, classUnderTest.getNotStartedCount());
+    }
+
+    @Test
+    public void givenAdvancesStartingOnDifferentDays_whenActivating_thenOnlyThoseDueBecomeActive() {
+        for (int id = 1; id <= 10; id++) {
+            Advance futureAdvance = getTestAdvance();
+            futureAdvance.setId(id);
+            futureAdvance.setRepaymentStartDate(TEST_REPAYMENT_START_DATE.plusDays(10 - id));
+            classUnderTest.register(TEST_REPAYMENT_START_DATE.minusDays(1), futureAdvance);
+        }
+
+        classUnderTest.activate(TEST_REPAYMENT_START_DATE.plusDays(2));
+
+        assertEquals(3, classUnderTest.getActiveCount());
+        assertEquals(7, classUnderTest.getNotStartedCount());
+        assertEquals(List.of(10, 9, 8), classUnderTest.getActive().stream().map(Advance::getId).collect(Collectors.toList()));
+
+        classUnderTest.activate(TEST_REPAYMENT_START_DATE.plusDays(30));
+
+        assertEquals(10, classUnderTest.getActiveCount());
+        assertEquals(0, classUnderTest.getNotStartedCount());
+    }
+
+    @Test
+    public void givenAnAdvanceThatHasStarted_whenRegistering_thenItIsActive() {
+        classUnderTest.register(TEST_REPAYMENT_START_DATE, advance);
+
+        assertEquals(1, classUnderTest.getActiveCount());
+        assertEquals(0, classUnderTest.getNotStartedCount());
+    }
+
+    @Test
+    public void givenAnActiveAdvance_whenCompleting_thenItIsArchived() {
+        classUnderTest.register(TEST_REPAYMENT_START_DATE, advance);
+        advance.setCompleted(true);
+
+        classUnderTest.complete(advance);
+
+        assertTrue(classUnderTest.getActive().isEmpty());
+        assertEquals(1, classUnderTest.getCompletedCount());
+        assertEquals(1, classUnderTest.size());
+        assertTrue(classUnderTest.contains(TEST_ADVANCE_ID));
+
+        Advance archived = classUnderTest.get(TEST_ADVANCE_ID);
+        assertNotSame(advance, archived);
+        assertTrue(archived.isCompleted());
+    }
+
+    @Test
+    public void givenManyThreads_whenRegisteringActivatingAndCompletingConcurrently_thenEveryAdvanceIsCountedOnce() {
+        int advancesPerThread = 1000;
+
+        runConcurrently(TEST_THREAD_COUNT, thread -> {
+            for (int i = 0; i < advancesPerThread; i++) {
+                Advance threadAdvance = getTestAdvance();
+                threadAdvance.setId(thread * advancesPerThread + i);
+                threadAdvance.setRepaymentStartDate(TEST_REPAYMENT_START_DATE.plusDays(i % 5));
+                classUnderTest.register(TEST_REPAYMENT_START_DATE.minusDays(1), threadAdvance);
+                classUnderTest.register(TEST_REPAYMENT_START_DATE.minusDays(1), threadAdvance);
+            }
+            classUnderTest.activate(TEST_REPAYMENT_START_DATE.plusDays(2));
+            for (Advance activeAdvance : classUnderTest.getActive()) {
+                if (activeAdvance.getId() % 2 == 0) {
+                    classUnderTest.complete(activeAdvance);
+                }
+            }
+        });
+        classUnderTest.activate(TEST_REPAYMENT_START_DATE.plusDays(2));
+
+        int totalAdvances = TEST_THREAD_COUNT * advancesPerThread;
+        assertEquals(totalAdvances, classUnderTest.size());
+        assertEquals(classUnderTest.getActive().size(), classUnderTest.getActiveCount());
+        assertEquals(classUnderTest.getNotStarted().size(), classUnderTest.getNotStartedCount());
+        assertEquals(totalAdvances * 2 / 5, classUnderTest.getNotStartedCount());
+        assertTrue(classUnderTest.getActive().stream().allMatch(activeAdvance -> activeAdvance.getId() % 2 == 1));
+        for (int id = 0; id < totalAdvances; id++) {
+            assertTrue(classUnderTest.contains(id));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.wayflyer.billing.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BillingLanesTest {
+    private static final int LANE_COUNT = 4;
+
+    private ExecutorService executor;
+
+    private BillingLanes classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(LANE_COUNT);
+        classUnderTest = new BillingLanes(LANE_COUNT, executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenItemsForManyCustomers_whenRunning_thenEachCustomerIsProcessedInOrderOnASingleLane() {
+        var items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        Map<Integer, List<Integer>> processedByCustomer = new ConcurrentHashMap<>();
+        Map<Integer, String> threadByCustomer = new ConcurrentHashMap<>();
+
+        var laneResults = classUnderTest.run(TEST_TODAY_DATE, items, item -> item % 10, (item, lane) -> {
+            processedByCustomer.computeIfAbsent(item % 10, customerId -> new ArrayList<>()).add(item);
+            threadByCustomer.merge(item % 10, Thread.currentThread().getName(), (previous, current) -> {
+                assertEquals(previous, current);
+                return previous;
+            });
+            lane.getReport().recordChargeCancelled();
+        });
+
+        assertEquals(LANE_COUNT, laneResults.size());
+        assertEquals(1000, laneResults.stream().mapToInt(lane -> lane.getReport().getChargesCancelled()).sum());
+        assertEquals(10, processedByCustomer.size());
+        processedByCustomer.forEach((customerId, processed) -> assertEquals(
+                IntStream.range(0, 1000).filter(item -> item % 10 == customerId).boxed().collect(Collectors.toList()),
+                processed));
+    }
+
+    @Test
+    public void givenASingleLane_whenRunning_thenItemsAreProcessedOnTheCallingThread() {
+        classUnderTest = new BillingLanes(1, command -> {
+            throw new AssertionError("Single lane must not use the executor");
+        });
+        var caller = Thread.currentThread();
+        List<Integer> processed = new ArrayList<>();
+
+        var laneResults = classUnderTest.run(TEST_TODAY_DATE, List.of(3, 1, 2), item -> item, (item, lane) -> {
+            assertSame(caller, Thread.currentThread());
+            processed.add(item);
+        });
+
+        assertEquals(1, laneResults.size());
+        assertEquals(List.of(3, 1, 2), processed);
+    }
+
+    @Test
+    public void givenALaneFails_whenRunning_thenTheFailureIsPropagated() {
+        assertThrows(RuntimeException.class, () -> classUnderTest.run(TEST_TODAY_DATE, List.of(1, 2, 3), item -> item, (item, lane) -> {
+            if (item == 2) {
+                throw new IllegalStateException(String.valueOf(item));
+            }
+        }));
+    }
+}
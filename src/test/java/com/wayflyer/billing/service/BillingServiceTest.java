@@ -1,22 +1,141 @@
 package com.wayflyer.billing.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.client.WayflyerClientMetrics;
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Advances;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.ChargeComponent;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import com.wayflyer.billing.persistence.BillingPersistence;
+import com.wayflyer.billing.persistence.PersistenceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_FEE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REPAYMENT_START_DATE;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TOTAL_ADVANCED;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvances;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class BillingServiceTest {
+    private static final Money MAX_DAILY_CHARGE = Money.parse("10000");
+
     @Mock
     private WayflyerClient wayflyerClient;
 
-    @InjectMocks
+    @TempDir
+    private Path tempDir;
+
+    private MeterRegistry meterRegistry;
+
+    private PersistenceProperties persistenceProperties;
+
+    private PipelineProperties pipelineProperties;
+
     private BillingService classUnderTest;
 
+    private List<Advance> advanceBook;
+
+    private Map<LocalDate, Money> revenues;
+
+    private List<Charge> charges;
+
+    private boolean chargesSucceed;
+
+    @BeforeEach
+    public void setup() {
+        persistenceProperties = new PersistenceProperties();
+        persistenceProperties.setPath(tempDir.resolve("state"));
+        pipelineProperties = new PipelineProperties();
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+
+        advanceBook = new ArrayList<>(getTestAdvances().getAdvances());
+        revenues = new HashMap<>();
+        charges = Collections.synchronizedList(new ArrayList<>());
+        chargesSucceed = true;
+
+        lenient().when(wayflyerClient.getNewAdvances(any(), any())).thenAnswer(invocation -> {
+            IntPredicate isKnownAdvance = invocation.getArgument(1);
+            return new Advances(advanceBook.stream()
+                    .filter(advance -> !isKnownAdvance.test(advance.getId()))
+                    .collect(Collectors.toList()));
+        });
+        lenient().when(wayflyerClient.getNewAdvancesAsync(any(), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(wayflyerClient.getNewAdvances(invocation.getArgument(0), invocation.getArgument(1))));
+        lenient().when(wayflyerClient.getRevenueAsync(any(), anyInt(), any())).thenAnswer(invocation -> {
+            int customerId = invocation.getArgument(1);
+            LocalDate forDate = invocation.getArgument(2);
+            return CompletableFuture.completedFuture(new Revenue(customerId, forDate, revenues.get(forDate)));
+        });
+        lenient().when(wayflyerClient.charge(any(), any())).thenAnswer(invocation -> {
+            if (!chargesSucceed) {
+                return false;
+            }
+            Charge charge = invocation.getArgument(1);
+            charge.setDateCharged(invocation.getArgument(0));
+            charges.add(charge);
+            return true;
+        });
+        lenient().when(wayflyerClient.reportBillingCompleteAsync(any(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+    }
+
+    private BillingService createBillingService(BillingLanes lanes) {
+        meterRegistry = new SimpleMeterRegistry();
+        var billingService = new BillingService(wayflyerClient, new RevenueCache(wayflyerClient, new RevenueCacheProperties()), new AdvanceArchive(tempDir.resolve("completed-advances.bin")), new DelayedRevenueProperties(), new BillingMetrics(meterRegistry, new WayflyerClientMetrics(meterRegistry)), new DailyReportWriter(new ObjectMapper()), lanes, new BillingPersistence(persistenceProperties), pipelineProperties);
+        billingService.setMaxDailyCharge(MAX_DAILY_CHARGE);
+        billingService.setStreamAdvances(true);
+        return billingService;
+    }
+
+    private Advance getProcessedAdvance() {
+        return classUnderTest.getAdvances().get(TEST_ADVANCE_ID);
+    }
+
+    private Money getTotalCharged() {
+        return charges.stream().map(Charge::getAmount).reduce(Money.ZERO, Money::plus);
+    }
+
     @Test
     public void givenThisWouldBeARealScenario_whenCallingProcess_thenWeWouldTestItThoroughly() {
         // TODO Normally we'd test this thoroughly but I'd rather not spend the time doing it now.
@@ -26,4 +145,501 @@ public class BillingServiceTest {
         assertNotNull(wayflyerClient);
         assertNotNull(classUnderTest);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenTheRepaymentHasNotStarted_whenProcessing_thenNothingIsCharged() {
+        classUnderTest.process(TEST_REPAYMENT_START_DATE.minusDays(1));
+
+        verify(wayflyerClient, never()).charge(any(), any());
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE), getProcessedAdvance().getOutstandingAmount());
+    }
+
+    @Test
+    public void givenTheRevenueIsAvailable_whenProcessing_thenTheRepaymentPercentageIsCharged() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("1234.56"));
+
+        classUnderTest.process(today);
+
+        assertEquals(1, charges.size());
+        assertEquals(Money.parse("135.80"), charges.get(0).getAmount());
+        assertEquals(today.minusDays(1), charges.get(0).getDateFor());
+        assertEquals(Money.parse("61864.20"), getProcessedAdvance().getOutstandingAmount());
+    }
+
+    @Test
+    public void givenTheRevenueIsDelayed_whenItBecomesAvailable_thenItIsChargedOnThatDay() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+
+        classUnderTest.process(today);
+        assertTrue(charges.isEmpty());
+
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+        classUnderTest.process(today.plusDays(1));
+
+        assertEquals(1, charges.size());
+        assertEquals(Money.parse("110.00"), charges.get(0).getAmount());
+        assertEquals(today.plusDays(1), charges.get(0).getDateCharged());
+    }
+
+    @Test
+    public void givenTheRevenueStaysDelayed_whenProcessingSeveralDays_thenItIsLookedUpWithBackoff() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        LocalDate revenueDate = today.minusDays(1);
+
+        for (int day = 0; day < 8; day++) {
+            classUnderTest.process(today.plusDays(day));
+        }
+
+        verify(wayflyerClient, times(4)).getRevenueAsync(any(), eq(TEST_CUSTOMER_ID), eq(revenueDate));
+        assertTrue(classUnderTest.getDelayedRevenueScheduler().getLookupsSaved() > 0);
+
+        revenues.put(revenueDate, Money.parse("1000.00"));
+        classUnderTest.process(today.plusDays(8));
+
+        assertTrue(charges.stream().anyMatch(charge -> charge.getDateFor().equals(revenueDate)));
+    }
+
+    @Test
+    public void givenTheChargeExceedsTheDailyLimit_whenProcessing_thenItIsSplitOverSeveralDays() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("200000.00"));
+
+        classUnderTest.process(today);
+        classUnderTest.process(today.plusDays(1));
+        classUnderTest.process(today.plusDays(2));
+
+        Map<LocalDate, Money> chargedByDate = charges.stream()
+                .collect(Collectors.groupingBy(Charge::getDateCharged, Collectors.reducing(Money.ZERO, Charge::getAmount, Money::plus)));
+        assertEquals(MAX_DAILY_CHARGE, chargedByDate.get(today));
+        assertEquals(MAX_DAILY_CHARGE, chargedByDate.get(today.plusDays(1)));
+        assertEquals(Money.parse("2000.00"), chargedByDate.get(today.plusDays(2)));
+        assertEquals(Money.parse("22000.00"), getTotalCharged());
+    }
+
+    @Test
+    public void givenSeveralLanes_whenTheChargeExceedsTheDailyLimit_thenItIsStillSplitOverSeveralDays() {
+        classUnderTest = createBillingService(new BillingLanes(4, ForkJoinPool.commonPool()));
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("200000.00"));
+
+        classUnderTest.process(today);
+        classUnderTest.process(today.plusDays(1));
+        classUnderTest.process(today.plusDays(2));
+
+        assertEquals(List.of(MAX_DAILY_CHARGE, MAX_DAILY_CHARGE, Money.parse("2000.00")),
+                charges.stream().map(Charge::getAmount).collect(Collectors.toList()));
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(Money.parse("22000.00")), classUnderTest.getDailyReport().getOutstandingBalance());
+        assertEquals(0, classUnderTest.getDailyReport().getReadyChargeCount());
+    }
+
+    @Test
+    public void givenChargesFailedOnSeveralDays_whenTheyAreRetried_thenTheyAreSettledWithTheDaysChargeInOnePost() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        for (int day = 0; day < 4; day++) {
+            revenues.put(today.plusDays(day).minusDays(1), Money.parse("1000.00"));
+        }
+
+        chargesSucceed = false;
+        for (int day = 0; day < 3; day++) {
+            classUnderTest.process(today.plusDays(day));
+        }
+        assertEquals(1, classUnderTest.getDailyReport().getReadyChargeCount());
+
+        chargesSucceed = true;
+        classUnderTest.process(today.plusDays(3));
+
+        assertEquals(1, charges.size());
+        assertEquals(Money.parse("440.00"), charges.get(0).getAmount());
+        assertEquals(today.minusDays(1), charges.get(0).getDateFor());
+        assertEquals(0, classUnderTest.getDailyReport().getReadyChargeCount());
+    }
+
+    private void putCatchUpRevenues(LocalDate from) {
+        revenues.put(from.minusDays(1), Money.parse("200000.00"));
+        revenues.put(from, Money.parse("1000.00"));
+        revenues.put(from.plusDays(2), Money.parse("50000.00"));
+        revenues.put(from.plusDays(3), Money.parse("1000.00"));
+        revenues.put(from.plusDays(4), Money.parse("1000.00"));
+    }
+
+    private Map<LocalDate, Money> getChargedByDate() {
+        return charges.stream()
+                .collect(Collectors.groupingBy(Charge::getDateCharged, Collectors.reducing(Money.ZERO, Charge::getAmount, Money::plus)));
+    }
+
+    @Test
+    public void givenAGapOfSeveralDays_whenCatchingUp_thenTheSameAmountsAreChargedPerDayAsWhenProcessingDayByDay() {
+        LocalDate from = TEST_REPAYMENT_START_DATE;
+        LocalDate to = from.plusDays(5);
+        putCatchUpRevenues(from);
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            classUnderTest.process(day);
+        }
+        Map<LocalDate, Money> sequentialChargedByDate = getChargedByDate();
+        Money sequentialOutstandingAmount = getProcessedAdvance().getOutstandingAmount();
+
+        charges.clear();
+        advanceBook = new ArrayList<>(getTestAdvances().getAdvances());
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        classUnderTest.catchUp(from, to);
+
+        assertEquals(sequentialChargedByDate, getChargedByDate());
+        assertEquals(MAX_DAILY_CHARGE, getChargedByDate().get(from.plusDays(1)));
+        assertEquals(sequentialOutstandingAmount, getProcessedAdvance().getOutstandingAmount());
+        assertEquals(sequentialOutstandingAmount, classUnderTest.getDailyReport().getOutstandingBalance());
+        assertEquals(to, classUnderTest.getDailyReport().getDate());
+        assertEquals(1, classUnderTest.getDailyReport().getPendingRevenueCount());
+    }
+
+    @Test
+    public void givenAGapOfSeveralDays_whenCatchingUp_thenAdvancesAreFetchedOnceAndAllRevenuesAreLookedUpAsOfTheLastDay() {
+        LocalDate from = TEST_REPAYMENT_START_DATE;
+        LocalDate to = from.plusDays(5);
+        putCatchUpRevenues(from);
+
+        classUnderTest.catchUp(from, to);
+
+        verify(wayflyerClient, times(1)).getNewAdvances(eq(to), any());
+        verify(wayflyerClient, times(6)).getRevenueAsync(eq(to), eq(TEST_CUSTOMER_ID), any());
+        verify(wayflyerClient, never()).getRevenueAsync(eq(from), anyInt(), any());
+    }
+
+    @Test
+    public void givenSeveralAdvancesOnOneMandate_whenCatchingUpOnSeveralLanes_thenEachMandateIsChargedInDayOrder() {
+        classUnderTest = createBillingService(new BillingLanes(4, ForkJoinPool.commonPool()));
+        Advance secondAdvance = getTestAdvance();
+        secondAdvance.setId(TEST_ADVANCE_ID + 1);
+        advanceBook.add(secondAdvance);
+        LocalDate from = TEST_REPAYMENT_START_DATE;
+        LocalDate to = from.plusDays(5);
+        putCatchUpRevenues(from);
+
+        classUnderTest.catchUp(from, to);
+
+        List<LocalDate> chargeDates = charges.stream().map(Charge::getDateCharged).collect(Collectors.toList());
+        assertEquals(chargeDates.stream().sorted().collect(Collectors.toList()), chargeDates);
+        assertEquals(getProcessedAdvance().getOutstandingAmount(), classUnderTest.getAdvances().get(TEST_ADVANCE_ID + 1).getOutstandingAmount());
+        assertEquals(Money.parse("2110.00"), getProcessedAdvance().getAmountChargedOnDate(from.plusDays(2)));
+    }
+
+    @Test
+    public void givenACarryForwardChargeIsSettled_whenReporting_thenTheReportCountsItAndTheLedgerKeepsEachRevenueDate() {
+        classUnderTest.setChargeLedgerEnabled(true);
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        for (int day = 0; day < 4; day++) {
+            revenues.put(today.plusDays(day).minusDays(1), Money.parse("1000.00"));
+        }
+
+        chargesSucceed = false;
+        for (int day = 0; day < 3; day++) {
+            classUnderTest.process(today.plusDays(day));
+        }
+        chargesSucceed = true;
+        classUnderTest.process(today.plusDays(3));
+
+        assertEquals(1, classUnderTest.getDailyReport().getCarryForwardChargesApplied());
+        assertEquals(Money.parse("440.00"), classUnderTest.getDailyReport().getCarryForwardAmountCharged());
+        assertEquals(List.of(
+                new ChargeComponent(today.minusDays(1), Money.parse("110.00")),
+                new ChargeComponent(today, Money.parse("110.00")),
+                new ChargeComponent(today.plusDays(1), Money.parse("110.00")),
+                new ChargeComponent(today.plusDays(2), Money.parse("110.00"))), getProcessedAdvance().getChargesApplied().get(0).getComponents());
+    }
+
+    @Test
+    public void givenACarryForwardChargeAboveTheDailyLimit_whenSplitting_thenTheOldestRevenueDatesAreChargedFirst() {
+        classUnderTest.setMaxDailyCharge(Money.parse("200.00"));
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        for (int day = 0; day < 4; day++) {
+            revenues.put(today.plusDays(day).minusDays(1), Money.parse("1000.00"));
+        }
+
+        chargesSucceed = false;
+        for (int day = 0; day < 3; day++) {
+            classUnderTest.process(today.plusDays(day));
+        }
+        chargesSucceed = true;
+        classUnderTest.process(today.plusDays(3));
+
+        classUnderTest.process(today.plusDays(4));
+
+        assertEquals(2, charges.size());
+        assertEquals(List.of(
+                new ChargeComponent(today.minusDays(1), Money.parse("110.00")),
+                new ChargeComponent(today, Money.parse("90.00"))), charges.get(0).getComponents());
+        assertEquals(today, charges.get(1).getDateFor());
+        assertEquals(List.of(
+                new ChargeComponent(today, Money.parse("20.00")),
+                new ChargeComponent(today.plusDays(1), Money.parse("110.00")),
+                new ChargeComponent(today.plusDays(2), Money.parse("70.00"))), charges.get(1).getComponents());
+    }
+
+    @Test
+    public void givenPersistenceIsEnabled_whenRestarting_thenTheStateIsRecoveredAndBillingResumes() {
+        persistenceProperties.setEnabled(true);
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        assertNull(classUnderTest.restore());
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("200000.00"));
+
+        classUnderTest.process(today);
+        classUnderTest.process(today.plusDays(1));
+        Money outstandingAmount = getProcessedAdvance().getOutstandingAmount();
+
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        assertEquals(today.plusDays(1), classUnderTest.restore());
+        assertEquals(outstandingAmount, getProcessedAdvance().getOutstandingAmount());
+        assertEquals(MAX_DAILY_CHARGE, getProcessedAdvance().getAmountChargedOnDate(today.plusDays(1)));
+
+        classUnderTest.process(today.plusDays(2));
+
+        assertEquals(Money.parse("22000.00"), getTotalCharged());
+        assertEquals(outstandingAmount.minus(Money.parse("2000.00")), getProcessedAdvance().getOutstandingAmount());
+        assertEquals(outstandingAmount.minus(Money.parse("2000.00")), classUnderTest.getDailyReport().getOutstandingBalance());
+    }
+
+    @Test
+    public void givenTheDayCrashedAfterACharge_whenRerunningItAfterARestart_thenEachAdvanceIsChargedOnce() {
+        persistenceProperties.setEnabled(true);
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        classUnderTest.restore();
+        Advance secondAdvance = getTestAdvance();
+        secondAdvance.setId(TEST_ADVANCE_ID + 1);
+        advanceBook.add(secondAdvance);
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+        doAnswer(invocation -> {
+            if (!charges.isEmpty()) {
+                throw new IllegalStateException("Crashed");
+            }
+            Charge charge = invocation.getArgument(1);
+            charge.setDateCharged(invocation.getArgument(0));
+            charges.add(charge);
+            return true;
+        }).when(wayflyerClient).charge(any(), any());
+
+        assertThrows(IllegalStateException.class, () -> classUnderTest.process(today));
+        Charge firstCharge = charges.get(0);
+
+        doAnswer(invocation -> {
+            Charge charge = invocation.getArgument(1);
+            charge.setDateCharged(invocation.getArgument(0));
+            return charges.add(charge);
+        }).when(wayflyerClient).charge(any(), any());
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        assertNull(classUnderTest.restore());
+        classUnderTest.process(today);
+
+        assertEquals(2, charges.size());
+        assertEquals(2, charges.stream().map(charge -> charge.getAdvance().getId()).distinct().count());
+        assertTrue(charges.stream().allMatch(charge -> charge.getDateFor().equals(today.minusDays(1))));
+        assertEquals(Money.parse("61890.00"), classUnderTest.getAdvances().get(firstCharge.getAdvance().getId()).getOutstandingAmount());
+    }
+
+    @Test
+    public void givenTheDayCrashedAfterARevenueWasDelayed_whenRerunningItAfterARestart_thenTheRevenueIsChargedOnceItArrives() {
+        persistenceProperties.setEnabled(true);
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        classUnderTest.restore();
+        Advance otherCustomersAdvance = getTestAdvance();
+        otherCustomersAdvance.setId(TEST_ADVANCE_ID + 1);
+        otherCustomersAdvance.setCustomerId(TEST_CUSTOMER_ID + 1);
+        advanceBook.add(otherCustomersAdvance);
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        doAnswer(invocation -> {
+            int customerId = invocation.getArgument(1);
+            LocalDate forDate = invocation.getArgument(2);
+            Money amount = customerId == TEST_CUSTOMER_ID ? revenues.get(forDate) : Money.parse("1000.00");
+            return CompletableFuture.completedFuture(new Revenue(customerId, forDate, amount));
+        }).when(wayflyerClient).getRevenueAsync(any(), anyInt(), any());
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Crashed");
+        }).when(wayflyerClient).charge(any(), any());
+
+        assertThrows(IllegalStateException.class, () -> classUnderTest.process(today));
+
+        doAnswer(invocation -> {
+            Charge charge = invocation.getArgument(1);
+            charge.setDateCharged(invocation.getArgument(0));
+            return charges.add(charge);
+        }).when(wayflyerClient).charge(any(), any());
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        assertNull(classUnderTest.restore());
+        classUnderTest.process(today);
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+        classUnderTest.process(today.plusDays(1));
+
+        List<Charge> advanceCharges = charges.stream()
+                .filter(charge -> charge.getAdvance().getId() == TEST_ADVANCE_ID)
+                .collect(Collectors.toList());
+        assertEquals(1, advanceCharges.size());
+        assertEquals(today.minusDays(1), advanceCharges.get(0).getDateFor());
+        assertEquals(today.plusDays(1), advanceCharges.get(0).getDateCharged());
+        assertEquals(Money.parse("110.00"), advanceCharges.get(0).getAmount());
+    }
+
+    @Test
+    public void givenThePipelineIsEnabled_whenProcessingConsecutiveDays_thenTheNextDaysAdvancesArePrefetched() {
+        pipelineProperties.setEnabled(true);
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+
+        classUnderTest.process(today, today.plusDays(1));
+        classUnderTest.process(today.plusDays(1), null);
+
+        verify(wayflyerClient).getNewAdvances(eq(today), any());
+        verify(wayflyerClient).getNewAdvancesAsync(eq(today.plusDays(1)), any());
+        verify(wayflyerClient, times(2)).getNewAdvances(any(), any());
+    }
+
+    @Test
+    public void givenThePipelineIsEnabled_whenBillingManyCustomersInBatches_thenEachAdvanceIsChargedOnce() {
+        pipelineProperties.setEnabled(true);
+        pipelineProperties.setRevenueBatchSize(2);
+        pipelineProperties.setMaxBatchesInFlight(2);
+        classUnderTest = createBillingService(new BillingLanes(4, ForkJoinPool.commonPool()));
+        for (int customerId = 2; customerId <= 6; customerId++) {
+            Advance advance = getTestAdvance();
+            advance.setId(TEST_ADVANCE_ID + customerId);
+            advance.setCustomerId(customerId);
+            advanceBook.add(advance);
+        }
+        revenues.put(TEST_REPAYMENT_START_DATE.minusDays(1), Money.parse("1000.00"));
+
+        classUnderTest.process(TEST_REPAYMENT_START_DATE, null);
+
+        assertEquals(6, charges.size());
+        assertEquals(6, charges.stream().map(charge -> charge.getAdvance().getId()).distinct().count());
+        assertEquals(Money.parse("660.00"), getTotalCharged());
+        assertEquals(6, meterRegistry.get("billing.process.items").tag("phase", "revenues").counter().count());
+        assertEquals(3, meterRegistry.get("billing.process.phase").tag("phase", "revenues").timer().count());
+    }
+
+    @Test
+    public void givenThePipelineIsEnabled_whenRevenuesAreSlow_thenTheWaitIsOnlyTimedAsRevenues() {
+        pipelineProperties.setEnabled(true);
+        classUnderTest = createBillingService(new BillingLanes(1, Runnable::run));
+        doAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> new Revenue(invocation.getArgument(1), invocation.getArgument(2), Money.parse("1000.00")),
+                CompletableFuture.delayedExecutor(500, TimeUnit.MILLISECONDS)))
+                .when(wayflyerClient).getRevenueAsync(any(), anyInt(), any());
+
+        classUnderTest.process(TEST_REPAYMENT_START_DATE, null);
+
+        assertEquals(1, charges.size());
+        assertTrue(meterRegistry.get("billing.process.phase").tag("phase", "revenues").timer().totalTime(TimeUnit.MILLISECONDS) >= 400);
+        assertTrue(meterRegistry.get("billing.process.phase").tag("phase", "billing").timer().totalTime(TimeUnit.MILLISECONDS) < 250);
+    }
+
+    @Test
+    public void givenTheChargeFails_whenProcessingTheNextDay_thenItIsRetried() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+        chargesSucceed = false;
+
+        classUnderTest.process(today);
+        assertTrue(charges.isEmpty());
+
+        chargesSucceed = true;
+        classUnderTest.process(today.plusDays(1));
+
+        assertEquals(1, charges.size());
+        assertEquals(Money.parse("110.00"), charges.get(0).getAmount());
+        assertEquals(today.minusDays(1), charges.get(0).getDateFor());
+    }
+
+    @Test
+    public void givenTheAdvanceIsRepaid_whenProcessing_thenBillingCompleteIsReported() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        var smallAdvance = getTestAdvance();
+        smallAdvance.setTotalAdvanced(Money.parse("50.00"));
+        smallAdvance.setFee(Money.parse("5.00"));
+        advanceBook = List.of(smallAdvance);
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+
+        classUnderTest.process(today);
+
+        assertEquals(Money.parse("55.00"), getTotalCharged());
+        assertEquals(Money.ZERO, getProcessedAdvance().getOutstandingAmount());
+        assertTrue(getProcessedAdvance().isCompleted());
+        assertTrue(classUnderTest.getAdvances().getActive().isEmpty());
+        assertEquals(1, classUnderTest.getAdvances().getCompletedCount());
+        verify(wayflyerClient).reportBillingCompleteAsync(eq(today), eq(TEST_ADVANCE_ID));
+    }
+
+    @Test
+    public void givenTheAdvanceIsCompleted_whenItsDelayedRevenueArrives_thenNothingMoreIsCharged() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        var smallAdvance = getTestAdvance();
+        smallAdvance.setTotalAdvanced(Money.parse("50.00"));
+        smallAdvance.setFee(Money.parse("5.00"));
+        advanceBook = List.of(smallAdvance);
+
+        classUnderTest.process(today);
+        revenues.put(today, Money.parse("1000.00"));
+        classUnderTest.process(today.plusDays(1));
+        assertTrue(getProcessedAdvance().isCompleted());
+
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+        classUnderTest.process(today.plusDays(2));
+
+        assertEquals(1, charges.size());
+        assertEquals(today, charges.get(0).getDateFor());
+    }
+
+    @Test
+    public void givenAChargeIsSplit_whenProcessing_thenTheDailyReportIsUpdated() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        revenues.put(today.minusDays(1), Money.parse("200000.00"));
+
+        classUnderTest.process(today);
+
+        DailyReport report = classUnderTest.getDailyReport();
+        assertEquals(today, report.getDate());
+        assertEquals(1, report.getAdvancesRegistered());
+        assertEquals(1, report.getActiveCount());
+        assertEquals(1, report.getChargesApplied());
+        assertEquals(1, report.getChargesSplit());
+        assertEquals(MAX_DAILY_CHARGE, report.getAmountCharged());
+        assertEquals(1, report.getReadyChargeCount());
+        assertEquals(TEST_TOTAL_ADVANCED.plus(TEST_FEE).minus(MAX_DAILY_CHARGE), report.getOutstandingBalance());
+    }
+
+    @Test
+    public void givenADay_whenProcessing_thenEachPhaseIsTimedAndCounted() {
+        revenues.put(TEST_REPAYMENT_START_DATE.minusDays(1), Money.parse("1000.00"));
+
+        classUnderTest.process(TEST_REPAYMENT_START_DATE);
+
+        for (String phase : List.of("outstanding-charges", "advances", "revenues", "billing", "completion")) {
+            assertEquals(1, meterRegistry.get("billing.process.phase").tag("phase", phase).timer().count());
+        }
+        assertEquals(1, meterRegistry.get("billing.process.items").tag("phase", "advances").counter().count());
+        assertEquals(1, meterRegistry.get("billing.process.items").tag("phase", "revenues").counter().count());
+    }
+
+    @Test
+    public void givenAnAdvanceIsAlreadyKnown_whenProcessingTheNextDay_thenItIsNotReplaced() {
+        classUnderTest.process(TEST_REPAYMENT_START_DATE.minusDays(1));
+        Advance knownAdvance = getProcessedAdvance();
+
+        classUnderTest.process(TEST_REPAYMENT_START_DATE);
+
+        assertSame(knownAdvance, getProcessedAdvance());
+        assertEquals(1, classUnderTest.getAdvances().size());
+    }
+
+    @Test
+    public void givenTheAdvancesCannotBeRetrieved_whenProcessing_thenTheKnownAdvancesAreStillBilled() {
+        LocalDate today = TEST_REPAYMENT_START_DATE;
+        classUnderTest.process(today.minusDays(1));
+        doReturn(null).when(wayflyerClient).getNewAdvances(any(), any());
+        revenues.put(today.minusDays(1), Money.parse("1000.00"));
+
+        classUnderTest.process(today);
+
+        assertEquals(1, charges.size());
+    }
+}
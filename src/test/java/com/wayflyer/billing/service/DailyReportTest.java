@@ -0,0 +1,64 @@
+package com.wayflyer.billing.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wayflyer.billing.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class DailyReportTest {
+    private DailyReport classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        classUnderTest = new DailyReport(TEST_TODAY_DATE);
+    }
+
+    @Test
+    public void givenSeveralCharges_whenRecording_thenTheTotalsAccumulate() {
+        classUnderTest.recordChargeApplied(Money.parse("100.25"));
+        classUnderTest.recordChargeApplied(Money.parse("0.75"));
+        classUnderTest.recordChargeFailed();
+        classUnderTest.recordChargeSplit();
+        classUnderTest.recordChargeCancelled();
+
+        assertEquals(2, classUnderTest.getChargesApplied());
+        assertEquals(Money.parse("101.00"), classUnderTest.getAmountCharged());
+        assertEquals(1, classUnderTest.getChargesFailed());
+        assertEquals(1, classUnderTest.getChargesSplit());
+        assertEquals(1, classUnderTest.getChargesCancelled());
+    }
+
+    @Test
+    public void givenAReport_whenSerialising_thenItIsACompactRecordWithMoneyAsStrings() throws Exception {
+        classUnderTest.recordChargeApplied(Money.parse("135.80"));
+
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(classUnderTest));
+
+        assertEquals("2022-01-08", json.get("date").asText());
+        assertEquals("135.80", json.get("amountCharged").asText());
+        assertEquals("0.00", json.get("outstandingBalance").asText());
+        assertEquals(1, json.get("chargesApplied").asInt());
+        assertFalse(json.has("amountChargedCents"));
+        assertFalse(json.has("outstandingBalanceCents"));
+    }
+
+    @Test
+    public void givenCarryForwardChargesInSeveralLanes_whenMerging_thenOnlyTheirCountAndAmountAreReported() throws Exception {
+        var laneReport = new DailyReport(TEST_TODAY_DATE);
+        laneReport.recordCarryForwardChargeApplied(Money.parse("10.00"));
+        classUnderTest.recordCarryForwardChargeApplied(Money.parse("20.00"));
+        classUnderTest.merge(laneReport);
+
+        JsonNode json = new ObjectMapper().readTree(new ObjectMapper().writeValueAsString(classUnderTest));
+
+        assertEquals(2, json.get("carryForwardChargesApplied").asInt());
+        assertEquals("30.00", json.get("carryForwardAmountCharged").asText());
+        assertFalse(json.has("carryForwardAmountChargedCents"));
+        assertFalse(json.has("carryForwardCharges"));
+    }
+}
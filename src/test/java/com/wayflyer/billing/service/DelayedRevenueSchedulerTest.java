@@ -0,0 +1,106 @@
+package com.wayflyer.billing.service;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DelayedRevenueSchedulerTest {
+    private static final LocalDate REVENUE_DATE = TEST_TODAY_DATE.minusDays(1);
+
+    private DelayedRevenueProperties properties;
+
+    private DelayedRevenueScheduler classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new DelayedRevenueProperties();
+        classUnderTest = new DelayedRevenueScheduler(properties);
+    }
+
+    @Test
+    public void givenANewPendingRevenue_whenSelecting_thenItIsDue() {
+        var dueDates = classUnderTest.selectDue(TEST_TODAY_DATE, Set.of(Pair.of(TEST_CUSTOMER_ID, REVENUE_DATE)));
+
+        assertEquals(Map.of(TEST_CUSTOMER_ID, List.of(REVENUE_DATE)), dueDates);
+        assertEquals(1, classUnderTest.getLookupsMade());
+        assertEquals(0, classUnderTest.getLookupsSaved());
+    }
+
+    @Test
+    public void givenARevenueKeepsMissing_whenSelecting_thenTheBackoffGrowsUpToTheCap() {
+        var pendingKeys = Set.of(Pair.of(TEST_CUSTOMER_ID, REVENUE_DATE));
+        LocalDate today = TEST_TODAY_DATE;
+        int lookups = 0;
+
+        for (int day = 0; day < 30; day++) {
+            if (!classUnderTest.selectDue(today, pendingKeys).isEmpty()) {
+                classUnderTest.recordMissing(today, TEST_CUSTOMER_ID, REVENUE_DATE);
+                lookups++;
+            }
+            today = today.plusDays(1);
+        }
+
+        assertEquals(7, lookups);
+        assertEquals(7, classUnderTest.getLookupsMade());
+        assertEquals(23, classUnderTest.getLookupsSaved());
+    }
+
+    @Test
+    public void givenBackoffSettings_whenComputingTheBackoff_thenItIsCapped() {
+        properties.setInitialBackoffDays(1);
+        properties.setBackoffMultiplier(3.0);
+        properties.setMaxBackoffDays(10);
+
+        assertEquals(1, classUnderTest.getBackoffDays(1));
+        assertEquals(3, classUnderTest.getBackoffDays(2));
+        assertEquals(9, classUnderTest.getBackoffDays(3));
+        assertEquals(10, classUnderTest.getBackoffDays(4));
+        assertEquals(10, classUnderTest.getBackoffDays(100));
+    }
+
+    @Test
+    public void givenALookupBudget_whenSelecting_thenTheOldestGapsAreDueFirstGroupedByCustomer() {
+        properties.setMaxLookupsPerRun(3);
+        Set<Pair<Integer, LocalDate>> pendingKeys = new LinkedHashSet<>();
+        pendingKeys.add(Pair.of(2, REVENUE_DATE));
+        pendingKeys.add(Pair.of(1, REVENUE_DATE.minusDays(5)));
+        pendingKeys.add(Pair.of(3, REVENUE_DATE.minusDays(1)));
+        pendingKeys.add(Pair.of(1, REVENUE_DATE.minusDays(2)));
+
+        var dueDates = classUnderTest.selectDue(TEST_TODAY_DATE, pendingKeys);
+
+        assertEquals(List.of(1, 3), List.copyOf(dueDates.keySet()));
+        assertEquals(List.of(REVENUE_DATE.minusDays(5), REVENUE_DATE.minusDays(2)), dueDates.get(1));
+        assertEquals(List.of(REVENUE_DATE.minusDays(1)), dueDates.get(3));
+        assertEquals(1, classUnderTest.getLookupsSaved());
+    }
+
+    @Test
+    public void givenARevenueIsNoLongerPending_whenSelecting_thenItsRetryStateIsDropped() {
+        classUnderTest.recordMissing(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE);
+        assertEquals(1, classUnderTest.size());
+
+        assertTrue(classUnderTest.selectDue(TEST_TODAY_DATE.plusDays(1), Set.of()).isEmpty());
+        assertEquals(0, classUnderTest.size());
+    }
+
+    @Test
+    public void givenARevenueArrives_whenRecordingIt_thenItsRetryStateIsDropped() {
+        classUnderTest.recordMissing(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE);
+
+        classUnderTest.recordAvailable(TEST_CUSTOMER_ID, REVENUE_DATE);
+
+        assertEquals(0, classUnderTest.size());
+    }
+}
@@ -0,0 +1,212 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.model.Advance;
+import com.wayflyer.billing.model.Charge;
+import com.wayflyer.billing.model.ChargeComponent;
+import com.wayflyer.billing.model.Money;
+import com.wayflyer.billing.model.Revenue;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static com.wayflyer.billing.testutil.TestConcurrency.TEST_THREAD_COUNT;
+import static com.wayflyer.billing.testutil.TestConcurrency.runConcurrently;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_ADVANCE_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CHARGE_AMOUNT;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REVENUE_AMOUNT;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static com.wayflyer.billing.testutil.TestObjects.getTestAdvance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutstandingChargeStoreTest {
+    private OutstandingChargeStore classUnderTest;
+
+    private Advance advance;
+
+    @BeforeEach
+    public void setup() {
+        classUnderTest = new OutstandingChargeStore();
+        advance = getTestAdvance();
+    }
+
+    @Test
+    public void givenAChargeWithoutAnAmount_whenAdding_thenItIsPendingRevenue() {
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, null));
+
+        assertEquals(Set.of(Pair.of(TEST_CUSTOMER_ID, TEST_TODAY_DATE)), classUnderTest.getPendingRevenueKeys());
+        assertEquals(Set.of(TEST_TODAY_DATE), classUnderTest.getPendingRevenueDates(TEST_ADVANCE_ID));
+        assertEquals(1, classUnderTest.getPendingRevenueCount());
+        assertEquals(0, classUnderTest.getReadyCount());
+    }
+
+    @Test
+    public void givenAChargeWithAnAmount_whenAdding_thenItIsReady() {
+        var charge = new Charge(advance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT);
+        classUnderTest.add(charge);
+
+        assertTrue(classUnderTest.getPendingRevenueKeys().isEmpty());
+        assertEquals(List.of(charge), classUnderTest.getReadyCharges(TEST_ADVANCE_ID));
+        assertEquals(1, classUnderTest.getReadyCount());
+    }
+
+    @Test
+    public void givenAPendingCharge_whenMatchingTheRevenue_thenTheChargeBecomesReady() {
+        var charge = new Charge(advance, TEST_TODAY_DATE, null, null);
+        classUnderTest.add(charge);
+
+        var revenue = new Revenue(TEST_CUSTOMER_ID, TEST_TODAY_DATE, TEST_REVENUE_AMOUNT);
+        classUnderTest.matchRevenue(revenue, pendingCharge -> TEST_CHARGE_AMOUNT);
+
+        assertEquals(TEST_CHARGE_AMOUNT, charge.getAmount());
+        assertTrue(classUnderTest.getPendingRevenueKeys().isEmpty());
+        assertTrue(classUnderTest.getPendingRevenueDates(TEST_ADVANCE_ID).isEmpty());
+        assertEquals(0, classUnderTest.getPendingRevenueCount());
+        assertEquals(1, classUnderTest.getReadyCount());
+    }
+
+    @Test
+    public void givenAPendingCharge_whenMatchingARevenueForAnotherDate_thenTheChargeStaysPending() {
+        var charge = new Charge(advance, TEST_TODAY_DATE, null, null);
+        classUnderTest.add(charge);
+
+        var revenue = new Revenue(TEST_CUSTOMER_ID, TEST_TODAY_DATE.minusDays(1), TEST_REVENUE_AMOUNT);
+        classUnderTest.matchRevenue(revenue, pendingCharge -> TEST_CHARGE_AMOUNT);
+
+        assertNull(charge.getAmount());
+        assertEquals(1, classUnderTest.getPendingRevenueCount());
+    }
+
+    @Test
+    public void givenReadyChargesForOneAdvance_whenAdding_thenTheyAreCoalescedIntoOneCarryForwardCharge() {
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT));
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE.minusDays(2), null, Money.ofCents(100)));
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE.minusDays(1), null, Money.ofCents(50)));
+
+        List<Charge> readyCharges = classUnderTest.getReadyCharges(TEST_ADVANCE_ID);
+
+        assertEquals(1, readyCharges.size());
+        assertEquals(TEST_CHARGE_AMOUNT.plus(Money.ofCents(150)), readyCharges.get(0).getAmount());
+        assertEquals(TEST_TODAY_DATE.minusDays(2), readyCharges.get(0).getDateFor());
+        assertNull(readyCharges.get(0).getDateCharged());
+        assertEquals(1, classUnderTest.getReadyCount());
+        assertEquals(List.of(
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(2), Money.ofCents(100)),
+                new ChargeComponent(TEST_TODAY_DATE.minusDays(1), Money.ofCents(50)),
+                new ChargeComponent(TEST_TODAY_DATE, TEST_CHARGE_AMOUNT)), readyCharges.get(0).getComponents());
+    }
+
+    @Test
+    public void givenReadyCharges_whenDraining_thenOneCarryForwardChargePerAdvanceIsReturnedAndTheStoreIsEmptied() {
+        var otherAdvance = getTestAdvance();
+        otherAdvance.setId(TEST_ADVANCE_ID + 1);
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT));
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, Money.ofCents(100)));
+        var otherCharge = new Charge(otherAdvance, TEST_TODAY_DATE, null, Money.ofCents(100));
+        classUnderTest.add(otherCharge);
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE.minusDays(1), null, null));
+
+        List<Charge> drained = classUnderTest.drainReadyCharges();
+
+        assertEquals(2, drained.size());
+        assertEquals(Set.of(TEST_CHARGE_AMOUNT.plus(Money.ofCents(100)), Money.ofCents(100)),
+                drained.stream().map(Charge::getAmount).collect(Collectors.toSet()));
+        assertTrue(drained.contains(otherCharge));
+        assertEquals(0, classUnderTest.getReadyCount());
+        assertEquals(1, classUnderTest.size());
+    }
+
+    @Test
+    public void givenACarryForwardCharge_whenTakingIt_thenOnlyThatAdvancesChargeIsRemoved() {
+        var otherAdvance = getTestAdvance();
+        otherAdvance.setId(TEST_ADVANCE_ID + 1);
+        var charge = new Charge(advance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT);
+        classUnderTest.add(charge);
+        classUnderTest.add(new Charge(otherAdvance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT));
+
+        assertSame(charge, classUnderTest.takeReadyCharge(TEST_ADVANCE_ID));
+        assertNull(classUnderTest.takeReadyCharge(TEST_ADVANCE_ID));
+        assertEquals(1, classUnderTest.getReadyCount());
+        assertEquals(1, classUnderTest.getReadyCharges(TEST_ADVANCE_ID + 1).size());
+    }
+
+    @Test
+    public void givenChargesForSeveralAdvances_whenRemovingTheChargesOfOne_thenOnlyThoseAreRemoved() {
+        var otherAdvance = getTestAdvance();
+        otherAdvance.setId(TEST_ADVANCE_ID + 1);
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, null));
+        classUnderTest.add(new Charge(advance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT));
+        var otherCharge = new Charge(otherAdvance, TEST_TODAY_DATE, null, null);
+        classUnderTest.add(otherCharge);
+
+        classUnderTest.removeCharges(advance);
+
+        assertEquals(1, classUnderTest.size());
+        assertEquals(1, classUnderTest.getPendingRevenueCount());
+        assertTrue(classUnderTest.getReadyCharges(TEST_ADVANCE_ID).isEmpty());
+        assertEquals(Set.of(Pair.of(TEST_CUSTOMER_ID, TEST_TODAY_DATE)), classUnderTest.getPendingRevenueKeys());
+    }
+
+    @Test
+    public void givenManyThreads_whenAddingAndDrainingConcurrently_thenNoChargeIsLost() {
+        int chargesPerThread = 10_000;
+        Queue<Charge> drained = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(TEST_THREAD_COUNT, thread -> {
+            for (int i = 0; i < chargesPerThread; i++) {
+                Advance threadAdvance = getTestAdvance();
+                threadAdvance.setId(i % 100);
+                threadAdvance.setCustomerId(thread);
+                classUnderTest.add(new Charge(threadAdvance, TEST_TODAY_DATE, null, TEST_CHARGE_AMOUNT));
+                classUnderTest.add(new Charge(threadAdvance, TEST_TODAY_DATE.minusDays(i % 10), null, null));
+                if (i % 1000 == 0) {
+                    drained.addAll(classUnderTest.drainReadyCharges());
+                }
+            }
+        });
+        drained.addAll(classUnderTest.drainReadyCharges());
+
+        int totalCharges = TEST_THREAD_COUNT * chargesPerThread;
+        long drainedCents = drained.stream().mapToLong(charge -> charge.getAmount().getCents()).sum();
+        assertEquals(totalCharges * TEST_CHARGE_AMOUNT.getCents(), drainedCents);
+        assertEquals(0, classUnderTest.getReadyCount());
+        assertEquals(totalCharges, classUnderTest.getPendingRevenueCount());
+        assertEquals(TEST_THREAD_COUNT * 10, classUnderTest.getPendingRevenueKeys().size());
+    }
+
+    @Test
+    public void givenManyThreads_whenMatchingRevenuesConcurrently_thenEveryPendingChargeBecomesReadyOnce() {
+        int customerCount = 1000;
+        for (int customerId = 0; customerId < customerCount; customerId++) {
+            Advance customerAdvance = getTestAdvance();
+            customerAdvance.setId(customerId);
+            customerAdvance.setCustomerId(customerId);
+            classUnderTest.add(new Charge(customerAdvance, TEST_TODAY_DATE, null, null));
+            classUnderTest.add(new Charge(customerAdvance, TEST_TODAY_DATE.minusDays(1), null, null));
+        }
+
+        runConcurrently(TEST_THREAD_COUNT, thread -> {
+            for (int customerId = 0; customerId < customerCount; customerId++) {
+                classUnderTest.matchRevenue(new Revenue(customerId, TEST_TODAY_DATE, TEST_REVENUE_AMOUNT), charge -> TEST_CHARGE_AMOUNT);
+                classUnderTest.matchRevenue(new Revenue(customerId, TEST_TODAY_DATE.minusDays(1), TEST_REVENUE_AMOUNT), charge -> TEST_CHARGE_AMOUNT);
+            }
+        });
+
+        assertEquals(0, classUnderTest.getPendingRevenueCount());
+        assertTrue(classUnderTest.getPendingRevenueKeys().isEmpty());
+        assertEquals(customerCount, classUnderTest.getReadyCount());
+        List<Charge> drained = classUnderTest.drainReadyCharges();
+        assertEquals(customerCount, drained.size());
+        assertTrue(drained.stream().allMatch(charge -> charge.getAmount().equals(TEST_CHARGE_AMOUNT.plus(TEST_CHARGE_AMOUNT))));
+        assertTrue(drained.stream().allMatch(charge -> charge.getDateFor().equals(TEST_TODAY_DATE.minusDays(1))));
+    }
+}
@@ -0,0 +1,139 @@
+package com.wayflyer.billing.service;
+
+import com.wayflyer.billing.client.WayflyerClient;
+import com.wayflyer.billing.model.Revenue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.wayflyer.billing.testutil.TestConstants.TEST_CUSTOMER_ID;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_REVENUE_AMOUNT;
+import static com.wayflyer.billing.testutil.TestConstants.TEST_TODAY_DATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RevenueCacheTest {
+    private static final LocalDate REVENUE_DATE = TEST_TODAY_DATE.minusDays(1);
+
+    @Mock
+    private WayflyerClient wayflyerClient;
+
+    private RevenueCacheProperties properties;
+
+    private AtomicLong nanos;
+
+    private RevenueCache classUnderTest;
+
+    @BeforeEach
+    public void setup() {
+        properties = new RevenueCacheProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setNegativeTtl(Duration.ofSeconds(5));
+        nanos = new AtomicLong();
+        classUnderTest = new RevenueCache(wayflyerClient, properties, nanos::get);
+    }
+
+    @Test
+    public void givenAnAvailableRevenue_whenLookingItUpTwice_thenTheClientIsCalledOnce() {
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, TEST_REVENUE_AMOUNT));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        Revenue revenue = classUnderTest.getRevenueAsync(TEST_TODAY_DATE.plusDays(1), TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        assertEquals(TEST_REVENUE_AMOUNT, revenue.getAmount());
+        verify(wayflyerClient, times(1)).getRevenueAsync(any(), anyInt(), any());
+        assertEquals(1, classUnderTest.getHitCount());
+        assertEquals(1, classUnderTest.getMissCount());
+    }
+
+    @Test
+    public void givenAnAvailableRevenue_whenItsTtlPasses_thenItIsEvicted() {
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, TEST_REVENUE_AMOUNT));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        verify(wayflyerClient, times(2)).getRevenueAsync(any(), anyInt(), any());
+        assertEquals(1, classUnderTest.getEvictionCount());
+    }
+
+    @Test
+    public void givenMoreRevenuesThanTheMaxSize_whenCaching_thenTheCacheStaysBounded() {
+        properties.setMaxSize(10);
+        classUnderTest = new RevenueCache(wayflyerClient, properties, nanos::get);
+        when(wayflyerClient.getRevenueAsync(any(), anyInt(), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(new Revenue(invocation.getArgument(1), invocation.getArgument(2), TEST_REVENUE_AMOUNT)));
+
+        for (int customerId = 0; customerId < 100; customerId++) {
+            classUnderTest.getRevenueAsync(TEST_TODAY_DATE, customerId, REVENUE_DATE).join();
+        }
+
+        assertEquals(10, classUnderTest.size());
+        assertEquals(90, classUnderTest.getEvictionCount());
+    }
+
+    @Test
+    public void givenAnUnavailableRevenue_whenLookingItUpTheSameDay_thenTheNegativeEntryIsUsed() {
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, null));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        Revenue revenue = classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        assertNull(revenue.getAmount());
+        assertEquals(TEST_CUSTOMER_ID, revenue.getCustomerId());
+        assertEquals(REVENUE_DATE, revenue.getDate());
+        verify(wayflyerClient, times(1)).getRevenueAsync(any(), anyInt(), any());
+        assertEquals(1, classUnderTest.getNegativeHitCount());
+    }
+
+    @Test
+    public void givenAnUnavailableRevenue_whenLookingItUpOnAnotherDay_thenItIsRequestedAgain() {
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, null));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE.plusDays(1), TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        verify(wayflyerClient, times(2)).getRevenueAsync(any(), anyInt(), any());
+    }
+
+    @Test
+    public void givenAnUnavailableRevenue_whenItsNegativeTtlPasses_thenItIsRequestedAgain() {
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, null));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        verify(wayflyerClient, times(2)).getRevenueAsync(any(), anyInt(), any());
+    }
+
+    @Test
+    public void givenTheCacheIsDisabled_whenLookingUpTwice_thenTheClientIsCalledTwice() {
+        properties.setEnabled(false);
+        classUnderTest = new RevenueCache(wayflyerClient, properties, nanos::get);
+        mockRevenue(new Revenue(TEST_CUSTOMER_ID, REVENUE_DATE, TEST_REVENUE_AMOUNT));
+
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+        classUnderTest.getRevenueAsync(TEST_TODAY_DATE, TEST_CUSTOMER_ID, REVENUE_DATE).join();
+
+        verify(wayflyerClient, times(2)).getRevenueAsync(any(), anyInt(), any());
+    }
+
+    private void mockRevenue(Revenue revenue) {
+        when(wayflyerClient.getRevenueAsync(any(), anyInt(), any())).thenReturn(CompletableFuture.completedFuture(revenue));
+    }
+}
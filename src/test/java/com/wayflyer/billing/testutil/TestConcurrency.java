@@ -0,0 +1,43 @@
+package com.wayflyer.billing.testutil;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+public final class TestConcurrency {
+    public static final int TEST_THREAD_COUNT = 8;
+
+    private TestConcurrency() {
+    }
+
+    public static void runConcurrently(int threadCount, IntConsumer task) {
+        var executor = Executors.newFixedThreadPool(threadCount);
+        var start = new CountDownLatch(1);
+        try {
+            var futures = new ArrayList<Future<?>>(threadCount);
+            for (int thread = 0; thread < threadCount; thread++) {
+                int threadIndex = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(threadIndex);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } catch (ExecutionException ex) {
+            throw new AssertionError("A concurrent task failed", ex.getCause());
+        } catch (Exception ex) {
+            throw new AssertionError("Concurrent tasks did not complete", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}